@@ -0,0 +1,36 @@
+package com.cpuscheduler.benchmarks;
+
+import com.cpuscheduler.Workload;
+import com.cpuscheduler.WorkloadGenerator;
+import com.cpuscheduler.WorkloadGenerator.ArrivalPattern;
+import com.cpuscheduler.WorkloadGenerator.BurstDistribution;
+
+/**
+ * Seeded synthetic workloads for the benchmarks. Mean burst time is 10 and mean
+ * inter-arrival time 11, so the CPU runs at roughly 90% load for every shape.
+ */
+public enum BenchmarkWorkloads {
+    // Poisson arrivals, bursts uniform in [1, 19]
+    UNIFORM(ArrivalPattern.POISSON, BurstDistribution.UNIFORM),
+    // Arrivals in clumps of 16 processes on average separated by long gaps
+    BURSTY(ArrivalPattern.BURSTY, BurstDistribution.UNIFORM),
+    // Pareto bursts (shape 1.5): most jobs are tiny, a few run for thousands of units
+    HEAVY_TAILED(ArrivalPattern.POISSON, BurstDistribution.PARETO);
+
+    private final ArrivalPattern arrivals;
+    private final BurstDistribution bursts;
+
+    BenchmarkWorkloads(ArrivalPattern arrivals, BurstDistribution bursts) {
+        this.arrivals = arrivals;
+        this.bursts = bursts;
+    }
+
+    public Workload generate(int size, long seed) {
+        return WorkloadGenerator.builder()
+            .arrivals(arrivals, 11)
+            .bursts(bursts, 10)
+            .seed(seed)
+            .build()
+            .generate(size);
+    }
+}
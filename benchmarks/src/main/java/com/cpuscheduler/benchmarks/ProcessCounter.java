@@ -0,0 +1,23 @@
+package com.cpuscheduler.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counts simulated processes. In average-time mode JMH reports it as the
+ * "processes" secondary result, i.e. the time per simulated process, which makes
+ * runs of different workload sizes comparable.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ProcessCounter {
+    public long processes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        processes = 0;
+    }
+}
@@ -0,0 +1,41 @@
+package com.cpuscheduler.benchmarks;
+
+import com.cpuscheduler.Algorithm;
+import com.cpuscheduler.SchedulerSimulator;
+import com.cpuscheduler.SimulationResult;
+import com.cpuscheduler.Workload;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Round Robin as done by runRoundRobin, across time quanta from very fine to coarse
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class RoundRobinBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"UNIFORM", "BURSTY", "HEAVY_TAILED"})
+    public BenchmarkWorkloads distribution;
+
+    @Param({"1", "4", "16"})
+    public long quantum;
+
+    private Workload workload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        workload = distribution.generate(size, 42);
+    }
+
+    @Benchmark
+    public SimulationResult roundRobin(ProcessCounter counter) {
+        counter.processes += size;
+        return SchedulerSimulator.simulate(workload, Algorithm.ROUND_ROBIN, quantum);
+    }
+}
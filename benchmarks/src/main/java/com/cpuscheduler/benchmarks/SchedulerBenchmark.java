@@ -0,0 +1,67 @@
+package com.cpuscheduler.benchmarks;
+
+import com.cpuscheduler.Algorithm;
+import com.cpuscheduler.SchedulerSimulator;
+import com.cpuscheduler.SimulationResult;
+import com.cpuscheduler.Workload;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full simulation per invocation of FCFS, SJF, SRTF, MLFQ (default
+ * levels, top quantum 4) and CFS (default latency settings), including the
+ * execution trace and metrics.
+ * Run with -prof gc to get the allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class SchedulerBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"UNIFORM", "BURSTY", "HEAVY_TAILED"})
+    public BenchmarkWorkloads distribution;
+
+    private Workload workload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        workload = distribution.generate(size, 42);
+    }
+
+    @Benchmark
+    public SimulationResult fcfs(ProcessCounter counter) {
+        counter.processes += size;
+        return SchedulerSimulator.simulate(workload, Algorithm.FCFS, 0);
+    }
+
+    @Benchmark
+    public SimulationResult sjf(ProcessCounter counter) {
+        counter.processes += size;
+        return SchedulerSimulator.simulate(workload, Algorithm.SJF, 0);
+    }
+
+    @Benchmark
+    public SimulationResult srtf(ProcessCounter counter) {
+        counter.processes += size;
+        return SchedulerSimulator.simulate(workload, Algorithm.SRTF, 0);
+    }
+
+    @Benchmark
+    public SimulationResult mlfq(ProcessCounter counter) {
+        counter.processes += size;
+        return SchedulerSimulator.simulate(workload, Algorithm.MLFQ, 4);
+    }
+
+    @Benchmark
+    public SimulationResult cfs(ProcessCounter counter) {
+        counter.processes += size;
+        return SchedulerSimulator.simulate(workload, Algorithm.CFS, 0);
+    }
+}
@@ -0,0 +1,93 @@
+package com.cpuscheduler;
+
+public enum Algorithm {
+    FCFS("fcfs", "First Come First Serve (FCFS)"),
+    SJF("sjf", "Shortest Job First (SJF)"),
+    SRTF("srtf", "Shortest Remaining Time First (SRTF)"),
+    ROUND_ROBIN("rr", "Round Robin"),
+    MLFQ("mlfq", "Multilevel Feedback Queue (MLFQ)"),
+    CFS("cfs", "Completely Fair Scheduler (CFS)"),
+    PRIORITY("priority", "Priority (Non-Preemptive)"),
+    PRIORITY_PREEMPTIVE("ppriority", "Priority (Preemptive)");
+
+    private final String shortName;
+    private final String displayName;
+
+    Algorithm(String shortName, String displayName) {
+        this.shortName = shortName;
+        this.displayName = displayName;
+    }
+
+    public String getShortName() {
+        return shortName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    // Fresh policies for one run: one for a shared ready queue, or one per core's queue
+    public SchedulingPolicy[] newPolicies(int queues, Workload workload, long[] remainingTimes, long timeQuantum,
+                                          PolicyConfig config) {
+        SchedulingPolicy[] policies = new SchedulingPolicy[queues];
+        MlfqPolicy.ProcessLevels mlfqLevels = this == MLFQ ? new MlfqPolicy.ProcessLevels(workload.size()) : null;
+        CfsPolicy.VirtualClocks cfsClocks = this == CFS ? new CfsPolicy.VirtualClocks(workload.size()) : null;
+        PriorityPolicy.PriorityKeys priorityKeys = this == PRIORITY || this == PRIORITY_PREEMPTIVE
+            ? new PriorityPolicy.PriorityKeys(workload.size()) : null;
+        for (int i = 0; i < queues; i++) {
+            switch (this) {
+                case SJF:
+                    policies[i] = new SjfPolicy(remainingTimes);
+                    break;
+                case SRTF:
+                    policies[i] = new SrtfPolicy(remainingTimes);
+                    break;
+                case ROUND_ROBIN:
+                    policies[i] = new RoundRobinPolicy(timeQuantum);
+                    break;
+                case MLFQ:
+                    policies[i] = new MlfqPolicy(config.mlfqQuanta(timeQuantum), config.getMlfqBoostPeriod(),
+                        mlfqLevels);
+                    break;
+                case CFS:
+                    policies[i] = new CfsPolicy(workload, config.getCfsTargetLatency(),
+                        config.getCfsMinGranularity(), cfsClocks);
+                    break;
+                case PRIORITY:
+                case PRIORITY_PREEMPTIVE:
+                    policies[i] = new PriorityPolicy(workload, config.getAgingInterval(),
+                        this == PRIORITY_PREEMPTIVE, priorityKeys);
+                    break;
+                case FCFS:
+                default:
+                    policies[i] = new FcfsPolicy();
+            }
+        }
+        return policies;
+    }
+
+    public static Algorithm fromDisplayName(String displayName) {
+        for (Algorithm algorithm : values()) {
+            if (algorithm.displayName.equals(displayName)) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unknown algorithm: " + displayName);
+    }
+
+    // Accepts the short name ("rr"), the constant name ("ROUND_ROBIN") or the display name
+    public static Algorithm fromName(String name) {
+        for (Algorithm algorithm : values()) {
+            if (algorithm.shortName.equalsIgnoreCase(name) || algorithm.name().equalsIgnoreCase(name)
+                    || algorithm.displayName.equalsIgnoreCase(name)) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unknown algorithm: " + name);
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,91 @@
+package com.cpuscheduler;
+
+/**
+ * Cursor over a workload's processes, which are stored in arrival order.
+ * Each admission binary-searches for the end of the batch that has arrived,
+ * so engines never rescan processes that are already admitted or still far away.
+ * A subclass may read arrivals lazily through load(), e.g. from a stream: they
+ * are then read one past the latest time asked about, and no further.
+ */
+public class ArrivalIndex {
+    private final long[] arrivalTimes;
+    private int size;
+    private int cursor;
+
+    public ArrivalIndex(Workload workload) {
+        this(workload.arrivalTimes, workload.size());
+    }
+
+    // Over the first size entries of arrivalTimes; load() fills in the entries after them
+    ArrivalIndex(long[] arrivalTimes, int size) {
+        this.arrivalTimes = arrivalTimes;
+        this.size = size;
+        this.cursor = 0;
+    }
+
+    public boolean hasPending() {
+        return cursor < size || loadNext();
+    }
+
+    public long nextArrivalTime() {
+        return arrivalTimes[cursor];
+    }
+
+    // Moves past every pending process with arrivalTime <= time and returns the end of that range,
+    // which starts at position(); the caller hands each of them to its queue
+    public int advance(long time) {
+        cursor = upperBound(time);
+        return cursor;
+    }
+
+    // Index of the next pending process
+    public int position() {
+        return cursor;
+    }
+
+    // Continues from a position saved earlier, e.g. in a checkpoint
+    public void seek(int position) {
+        if (position < 0 || position > size) {
+            throw new IllegalArgumentException("Position out of range: " + position);
+        }
+        cursor = position;
+    }
+
+    // Processes known so far, which is all of them unless they are loaded lazily
+    public int size() {
+        return size;
+    }
+
+    // Reads the next process into row size() and sets arrivalTimes[size()]; false once there is none
+    boolean load(int row) {
+        return false;
+    }
+
+    private boolean loadNext() {
+        if (!load(size)) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    // First position at or after the cursor whose arrival time is greater than time
+    private int upperBound(long time) {
+        // A lazily loaded index reads on until it knows an arrival after time
+        boolean more = true;
+        while (more && (size == cursor || arrivalTimes[size - 1] <= time)) {
+            more = loadNext();
+        }
+        int lo = cursor;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arrivalTimes[mid] <= time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,576 @@
+package com.cpuscheduler;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Headless entry point. Only depends on the simulator classes, never on JavaFX,
+ * so it runs with nothing but target/classes (or the jar) on the classpath:
+ *
+ * <pre>
+ * java -jar cpu-scheduler-simulator.jar -a fcfs,rr -q 4 workload.csv
+ * cat workload.json | java -jar cpu-scheduler-simulator.jar --format json --trace-out trace.csv
+ * </pre>
+ */
+public class BatchCli {
+    private static final String USAGE = String.join(System.lineSeparator(),
+        "Usage: java -jar cpu-scheduler-simulator.jar [options] [workload-file ...]",
+        "",
+        "Reads workloads from the given CSV, JSON or binary files (or stdin when no file or '-' is given),",
+        "runs the selected algorithms and writes one CSV metrics row per workload and algorithm.",
+        "A burst may alternate CPU and I/O bursts on devices 1 to 64, e.g. 5;3@2;4.",
+        "",
+        "Options:",
+        "  -a, --algorithms LIST   comma-separated: fcfs, sjf, srtf, rr, mlfq, cfs, priority, ppriority",
+        "                          (preemptive priority) or all (default: all)",
+        "  -q, --quantum N         Round Robin time quantum, and top MLFQ level quantum (default: 4)",
+        "      --mlfq-levels N     MLFQ levels, quantum doubling per level (default: 3, at most 64)",
+        "      --mlfq-quanta LIST  comma-separated quantum per MLFQ level, top level first",
+        "      --boost-period N    move all MLFQ processes to the top level every N (default: 100, 0 = never)",
+        "      --target-latency N  CFS period in which every runnable process runs once (default: 24)",
+        "      --min-granularity N shortest CFS slice (default: 3)",
+        "      --aging-interval N  priority scheduling raises waiting processes one nice level",
+        "                          every N (default: 10, 0 = never)",
+        "  -c, --cores N           number of simulated CPU cores (default: 1)",
+        "      --per-core-queues   give every core its own ready queue; idle cores steal work",
+        "      --migration-cost N  time lost when a process resumes on another core (default: 0)",
+        "  -f, --format FORMAT     input format csv, json or binary (default: from file extension, .json",
+        "                          or .bin, csv otherwise and for stdin)",
+        "  -o, --output FILE       write metrics to FILE instead of stdout",
+        "  -t, --trace-out FILE    also write execution traces as CSV to FILE ('-' for stdout)",
+        "      --trace-format FMT  csv or binary, a columnar file the GUI can open however large (default: csv)",
+        "      --write-binary FILE instead of simulating, write the input workload as a binary workload to FILE",
+        "      --stream            simulate CSV or binary input (sorted by arrival time) without loading it;",
+        "                          memory stays bounded by the ready queue, traces are written as they happen",
+        "      --cache-dir DIR     keep results in DIR and reuse them for the same workload and settings",
+        "      --engine-stats      write each run's engine counters and phase times to stderr",
+        "                          (needs the JVM option -Dcpuscheduler.instrument=true)",
+        "      --monte-carlo N     instead of reading workloads, run the algorithms on replicated synthetic",
+        "                          workloads of N processes and write means with 95% confidence intervals",
+        "      --precision P       stop replicating once intervals are within P of the mean (default: 0.01)",
+        "  -s, --sweep FROM:TO[:STEP]",
+        "                          run a Round Robin quantum sweep instead and write its table",
+        "  -h, --help              show this help");
+
+    private final List<String> inputs = new ArrayList<>();
+    private final Set<Algorithm> algorithms = EnumSet.allOf(Algorithm.class);
+    private long timeQuantum = 4;
+    private final PolicyConfig.Builder policies = PolicyConfig.builder();
+    private int cores = 1;
+    private CoreConfig.QueueMode queueMode = CoreConfig.QueueMode.GLOBAL;
+    private long migrationCost;
+    private WorkloadReader.Format format;
+    private String output;
+    private String traceOutput;
+    private boolean binaryTraces;
+    private String binaryOutput;
+    private long[] sweep;
+    private boolean streaming;
+    private String cacheDirectory;
+    private boolean engineStats;
+    private int monteCarloProcesses;
+    private double precision = 0.01;
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.in, System.out, System.err));
+    }
+
+    // Returns the process exit code: 0 on success, 1 for input or I/O errors, 2 for usage errors
+    public static int run(String[] args, InputStream stdin, PrintStream stdout, PrintStream stderr) {
+        BatchCli cli = new BatchCli();
+        try {
+            if (!cli.parseArguments(args)) {
+                stdout.println(USAGE);
+                return 0;
+            }
+        } catch (IllegalArgumentException e) {
+            stderr.println("Error: " + e.getMessage());
+            stderr.println(USAGE);
+            return 2;
+        }
+
+        try {
+            cli.execute(stdin, stdout, stderr);
+            return 0;
+        } catch (IOException | RuntimeException e) {
+            stderr.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private boolean parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "-h":
+                case "--help":
+                    return false;
+                case "-a":
+                case "--algorithms":
+                    algorithms.clear();
+                    for (String name : value(args, ++i, arg).split(",")) {
+                        if (name.trim().equalsIgnoreCase("all")) {
+                            algorithms.addAll(EnumSet.allOf(Algorithm.class));
+                        } else {
+                            algorithms.add(Algorithm.fromName(name.trim()));
+                        }
+                    }
+                    break;
+                case "-q":
+                case "--quantum":
+                    timeQuantum = positiveLong(value(args, ++i, arg), arg);
+                    break;
+                case "--mlfq-levels":
+                    long levels = positiveLong(value(args, ++i, arg), arg);
+                    policies.mlfqLevels((int) Math.min(levels, Integer.MAX_VALUE));
+                    break;
+                case "--mlfq-quanta":
+                    String[] quanta = value(args, ++i, arg).split(",");
+                    long[] values = new long[quanta.length];
+                    for (int level = 0; level < quanta.length; level++) {
+                        values[level] = positiveLong(quanta[level], arg);
+                    }
+                    policies.mlfqQuanta(values);
+                    break;
+                case "--boost-period":
+                    policies.mlfqBoostPeriod(nonNegativeLong(value(args, ++i, arg), arg));
+                    break;
+                case "--target-latency":
+                    policies.cfsTargetLatency(positiveLong(value(args, ++i, arg), arg));
+                    break;
+                case "--min-granularity":
+                    policies.cfsMinGranularity(positiveLong(value(args, ++i, arg), arg));
+                    break;
+                case "--aging-interval":
+                    policies.agingInterval(nonNegativeLong(value(args, ++i, arg), arg));
+                    break;
+                case "-c":
+                case "--cores":
+                    long coreCount = positiveLong(value(args, ++i, arg), arg);
+                    if (coreCount > 1 << 16) {
+                        throw new IllegalArgumentException(arg + " supports at most 65536 cores");
+                    }
+                    cores = (int) coreCount;
+                    break;
+                case "--per-core-queues":
+                    queueMode = CoreConfig.QueueMode.PER_CORE;
+                    break;
+                case "--migration-cost":
+                    migrationCost = nonNegativeLong(value(args, ++i, arg), arg);
+                    break;
+                case "-f":
+                case "--format":
+                    String formatName = value(args, ++i, arg);
+                    try {
+                        format = WorkloadReader.Format.valueOf(formatName.toUpperCase());
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Unknown format: " + formatName);
+                    }
+                    break;
+                case "-o":
+                case "--output":
+                    output = value(args, ++i, arg);
+                    break;
+                case "-t":
+                case "--trace-out":
+                    traceOutput = value(args, ++i, arg);
+                    break;
+                case "--trace-format":
+                    String traceFormat = value(args, ++i, arg);
+                    if (!traceFormat.equals("csv") && !traceFormat.equals("binary")) {
+                        throw new IllegalArgumentException("Unknown trace format: " + traceFormat);
+                    }
+                    binaryTraces = traceFormat.equals("binary");
+                    break;
+                case "--write-binary":
+                    binaryOutput = value(args, ++i, arg);
+                    break;
+                case "--stream":
+                    streaming = true;
+                    break;
+                case "--monte-carlo":
+                    monteCarloProcesses = (int) Math.min(positiveLong(value(args, ++i, arg), arg), Integer.MAX_VALUE);
+                    break;
+                case "--precision":
+                    String precisionValue = value(args, ++i, arg);
+                    try {
+                        precision = Double.parseDouble(precisionValue);
+                    } catch (NumberFormatException e) {
+                        precision = -1;
+                    }
+                    if (!(precision > 0)) {
+                        throw new IllegalArgumentException("--precision expects a positive number: " + precisionValue);
+                    }
+                    break;
+                case "--cache-dir":
+                    cacheDirectory = value(args, ++i, arg);
+                    break;
+                case "--engine-stats":
+                    engineStats = true;
+                    break;
+                case "-s":
+                case "--sweep":
+                    String[] range = value(args, ++i, arg).split(":");
+                    if (range.length < 2 || range.length > 3) {
+                        throw new IllegalArgumentException("--sweep expects FROM:TO[:STEP]");
+                    }
+                    sweep = new long[] {
+                        positiveLong(range[0], arg),
+                        positiveLong(range[1], arg),
+                        range.length == 3 ? positiveLong(range[2], arg) : 1
+                    };
+                    break;
+                default:
+                    if (arg.startsWith("-") && !arg.equals("-")) {
+                        throw new IllegalArgumentException("Unknown option: " + arg);
+                    }
+                    inputs.add(arg);
+            }
+        }
+        if (monteCarloProcesses > 0 && (!inputs.isEmpty() || streaming || sweep != null || cacheDirectory != null
+                || traceOutput != null)) {
+            throw new IllegalArgumentException("--monte-carlo generates its workloads and takes no input files, "
+                + "traces, --stream, --sweep or --cache-dir");
+        }
+        if (engineStats && !EngineStats.ENABLED) {
+            throw new IllegalArgumentException("--engine-stats needs the JVM option -Dcpuscheduler.instrument=true");
+        }
+        if (engineStats && (streaming || sweep != null || monteCarloProcesses > 0)) {
+            throw new IllegalArgumentException("--engine-stats cannot be combined with --stream, --sweep "
+                + "or --monte-carlo");
+        }
+        if (inputs.isEmpty()) {
+            inputs.add("-");
+        }
+        if (binaryTraces && isStdout(traceOutput)) {
+            throw new IllegalArgumentException("--trace-format binary needs a --trace-out file");
+        }
+        if (binaryOutput != null && (inputs.size() > 1 || streaming || sweep != null || traceOutput != null
+                || cacheDirectory != null || engineStats)) {
+            throw new IllegalArgumentException("--write-binary converts a single workload and takes no other "
+                + "output or run options");
+        }
+        if (streaming && sweep != null) {
+            throw new IllegalArgumentException("--stream cannot be combined with --sweep");
+        }
+        if (cacheDirectory != null && (streaming || sweep != null)) {
+            throw new IllegalArgumentException("--cache-dir cannot be combined with --stream or --sweep");
+        }
+        if (cores > 1 && (streaming || sweep != null)) {
+            throw new IllegalArgumentException("--stream and --sweep only simulate a single core");
+        }
+        if (streaming && inputs.stream().anyMatch(input -> formatOf(input) == WorkloadReader.Format.JSON)) {
+            throw new IllegalArgumentException("--stream cannot read JSON input, only CSV or binary");
+        }
+        if (streaming && inputs.contains("-") && algorithms.size() > 1) {
+            throw new IllegalArgumentException("--stream reads stdin once, so select a single algorithm");
+        }
+        return true;
+    }
+
+    private void execute(InputStream stdin, PrintStream stdout, PrintStream stderr) throws IOException {
+        // Metrics and traces share one writer when both go to stdout, so lines never interleave
+        if (binaryOutput != null) {
+            String input = inputs.get(0);
+            Workload workload = readWorkload(input, stdin);
+            if (workload.hasIo()) {
+                throw new IOException(input + ": I/O bursts cannot be written to a binary workload");
+            }
+            WorkloadFile.write(workload, Paths.get(binaryOutput));
+            return;
+        }
+        boolean sharedStdout = isStdout(output) && traceOutput != null && !binaryTraces && isStdout(traceOutput);
+        try (Writer metricsOut = open(output, stdout);
+             Writer traceOut = traceOutput == null || sharedStdout || binaryTraces ? null : open(traceOutput, stdout);
+             TraceFile.Writer traceFile = binaryTraces ? TraceFile.writer(Paths.get(traceOutput)) : null) {
+            execute(stdin, metricsOut, sharedStdout ? metricsOut : traceOut, traceFile, sharedStdout, stderr);
+        }
+    }
+
+    private void execute(InputStream stdin, Writer metricsOut, Writer traceOut, TraceFile.Writer traceFile,
+                         boolean sharedStdout, PrintStream stderr) throws IOException {
+        if (monteCarloProcesses > 0) {
+            metricsOut.write(MonteCarlo.builder()
+                .processes(monteCarloProcesses)
+                .algorithms(algorithms)
+                .timeQuantum(timeQuantum)
+                .cores(new CoreConfig(cores, queueMode, migrationCost))
+                .policies(policies.build())
+                .precision(precision)
+                .build()
+                .run()
+                .toString());
+            return;
+        }
+        String traceHeader = null;
+        ResultCache cache = cacheDirectory == null ? null
+            : new ResultCache(Runtime.getRuntime().maxMemory() / 4, Paths.get(cacheDirectory));
+        if (sweep == null) {
+            metricsOut.write("workload,algorithm,processes,avg_waiting,avg_turnaround,"
+                + "throughput,cpu_utilization,context_switches,total_time,"
+                + latencyHeader("waiting") + "," + latencyHeader("turnaround") + ","
+                + latencyHeader("response") + "\n");
+        }
+
+        for (String input : inputs) {
+            if (streaming) {
+                for (Algorithm algorithm : algorithms) {
+                    if (traceOut != null && (traceHeader == null || sharedStdout)) {
+                        traceHeader = "workload,algorithm,process,start,end\n";
+                        traceOut.write(traceHeader);
+                    }
+                    runStreaming(input, stdin, algorithm, metricsOut, traceOut, traceFile);
+                }
+                continue;
+            }
+
+            Workload workload = readWorkload(input, stdin);
+            if (workload.isEmpty()) {
+                throw new IOException(input + ": workload has no processes");
+            }
+            if (sweep != null) {
+                metricsOut.write("# " + input + "\n");
+                metricsOut.write(QuantumSweep.run(workload, sweep[0], sweep[1], sweep[2]).toString());
+                metricsOut.flush();
+                continue;
+            }
+
+            Map<Algorithm, SimulationResult> results = SchedulerSimulator.simulateAll(workload, algorithms,
+                timeQuantum, new CoreConfig(cores, queueMode, migrationCost), policies.build(), cache);
+            for (SimulationResult result : results.values()) {
+                writeMetrics(metricsOut, input, result);
+            }
+            metricsOut.flush();
+            if (engineStats) {
+                for (SimulationResult result : results.values()) {
+                    stderr.println(input + "," + result.getAlgorithm().getShortName() + ": "
+                        + result.getEngineStats());
+                }
+            }
+            if (traceFile != null) {
+                for (SimulationResult result : results.values()) {
+                    traceFile.write(input + "," + result.getAlgorithm().getShortName(), result);
+                }
+            }
+            if (traceOut != null) {
+                // Repeat the header when traces follow metrics rows on the same stream, or its columns change
+                String header = cores > 1 || workload.hasIo() ? "workload,algorithm,process,start,end,core\n"
+                    : "workload,algorithm,process,start,end\n";
+                if (!header.equals(traceHeader) || sharedStdout) {
+                    traceHeader = header;
+                    traceOut.write(header);
+                }
+                for (SimulationResult result : results.values()) {
+                    writeTrace(traceOut, input, result);
+                }
+            }
+        }
+    }
+
+    private void runStreaming(String input, InputStream stdin, Algorithm algorithm, Writer metricsOut,
+                              Writer traceOut, TraceFile.Writer traceFile) throws IOException {
+        String prefix = input + "," + algorithm.getShortName() + ",";
+        SimulationSink sink = SimulationSink.NONE;
+        int run = -1;
+        if (traceFile != null) {
+            // Binary traces are appended block by block while the run goes on
+            run = traceFile.startRun(input + "," + algorithm.getShortName(), 1, 0);
+            sink = traceFile.sink(run);
+        } else if (traceOut != null) {
+            sink = new SimulationSink() {
+                @Override
+                public void onSlice(long sequence, String processId, long startTime, long endTime) {
+                    try {
+                        traceOut.write(prefix + processId + "," + startTime + "," + endTime + "\n");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+        }
+
+        boolean binary = formatOf(input) == WorkloadReader.Format.BINARY;
+        Reader reader = binary ? null : input.equals("-")
+            ? new InputStreamReader(stdin, StandardCharsets.UTF_8)
+            : openFile(input);
+        StreamingSimulator.Summary summary;
+        try {
+            ProcessStream source = binary ? openWorkloadFile(input).stream() : WorkloadReader.streamCsv(reader);
+            summary = StreamingSimulator.run(source, algorithm, timeQuantum, policies.build(), sink);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (IOException e) {
+            throw new IOException(input + ": " + e.getMessage(), e);
+        } finally {
+            if (reader != null && !input.equals("-")) {
+                reader.close();
+            }
+        }
+        if (traceFile != null) {
+            traceFile.finishRun(run);
+        }
+        if (summary.getProcessCount() == 0) {
+            throw new IOException(input + ": workload has no processes");
+        }
+        if (traceOut != null) {
+            traceOut.flush();
+        }
+        metricsOut.write(prefix + summary.getProcessCount() + ","
+            + summary.getAverageWaitingTime() + ","
+            + summary.getAverageTurnaroundTime() + ","
+            + summary.getThroughput() + ","
+            + summary.getCpuUtilization() + ","
+            + summary.getContextSwitches() + ","
+            + summary.getTotalTime() + ","
+            + latencyColumns(summary.getLatency()) + "\n");
+        metricsOut.flush();
+    }
+
+    // Maps a binary workload for streaming; it is never loaded onto the heap
+    private static WorkloadFile openWorkloadFile(String input) throws IOException {
+        if (input.equals("-")) {
+            throw new IOException("Binary workloads can only be read from a file");
+        }
+        try {
+            return WorkloadFile.open(Paths.get(input));
+        } catch (NoSuchFileException e) {
+            throw new IOException("No such file: " + input);
+        }
+    }
+
+    private static Reader openFile(String input) throws IOException {
+        try {
+            return Files.newBufferedReader(Paths.get(input), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            throw new IOException("No such file: " + input);
+        }
+    }
+
+    // The --format given, else CSV for stdin and the file extension's format for a file
+    private WorkloadReader.Format formatOf(String input) {
+        return format != null ? format : input.equals("-") ? WorkloadReader.Format.CSV
+            : WorkloadReader.formatOf(Paths.get(input));
+    }
+
+    private Workload readWorkload(String input, InputStream stdin) throws IOException {
+        if (input.equals("-")) {
+            Reader reader = new InputStreamReader(stdin, StandardCharsets.UTF_8);
+            return WorkloadReader.read(reader, format != null ? format : WorkloadReader.Format.CSV);
+        }
+        Path path = Paths.get(input);
+        try {
+            return WorkloadReader.read(path, format != null ? format : WorkloadReader.formatOf(path));
+        } catch (NoSuchFileException e) {
+            throw new IOException("No such file: " + input);
+        } catch (IOException e) {
+            throw new IOException(input + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeMetrics(Writer out, String input, SimulationResult result) throws IOException {
+        out.write(input + "," + result.getAlgorithm().getShortName() + ","
+            + result.getWorkload().size() + ","
+            + result.getAverageWaitingTime() + ","
+            + result.getAverageTurnaroundTime() + ","
+            + result.getThroughput() + ","
+            + result.getCpuUtilization() + ","
+            + result.getContextSwitches() + ","
+            + result.getTotalTime() + ","
+            + latencyColumns(result.getLatency()) + "\n");
+    }
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private static String latencyHeader(String name) {
+        return name + "_p50," + name + "_p90," + name + "_p99," + name + "_p999," + name + "_max";
+    }
+
+    private static String latencyColumns(LatencyStats latency) {
+        return histogramColumns(latency.getWaitingTimes()) + ","
+            + histogramColumns(latency.getTurnaroundTimes()) + ","
+            + histogramColumns(latency.getResponseTimes());
+    }
+
+    private static String histogramColumns(LatencyHistogram histogram) {
+        StringBuilder sb = new StringBuilder();
+        for (double percentile : PERCENTILES) {
+            sb.append(histogram.getPercentile(percentile)).append(',');
+        }
+        return sb.append(histogram.getMax()).toString();
+    }
+
+    // Multi-core traces are written core by core, with the core number in an extra column; I/O follows
+    // device by device, with io1, io2, ... in that column
+    private static void writeTrace(Writer out, String input, SimulationResult result) throws IOException {
+        boolean coreColumn = result.getCores() > 1 || result.getDevices() > 0;
+        for (int core = 0; core < result.getCores(); core++) {
+            writeTrace(out, input, result, result.getTrace(core), coreColumn ? "," + (core + 1) : "");
+        }
+        ExecutionTrace[] ioTraces = result.getIoTraces();
+        for (int device = 0; device < ioTraces.length; device++) {
+            writeTrace(out, input, result, ioTraces[device], ",io" + (device + 1));
+        }
+        out.flush();
+    }
+
+    private static void writeTrace(Writer out, String input, SimulationResult result, ExecutionTrace trace,
+                                   String column) throws IOException {
+        String prefix = input + "," + result.getAlgorithm().getShortName() + ",";
+        String suffix = column + "\n";
+        Workload workload = result.getWorkload();
+        for (int i = 0; i < trace.size(); i++) {
+            out.write(prefix + workload.processId(trace.process(i)) + "," + trace.startTime(i) + ","
+                + trace.endTime(i) + suffix);
+        }
+    }
+
+    private static boolean isStdout(String file) {
+        return file == null || file.equals("-");
+    }
+
+    // stdout is wrapped so closing the writer leaves System.out open
+    private static Writer open(String file, PrintStream stdout) throws IOException {
+        if (isStdout(file)) {
+            return new BufferedWriter(new OutputStreamWriter(stdout, StandardCharsets.UTF_8), 1 << 16) {
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+        }
+        return Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8);
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(option + " requires a value");
+        }
+        return args[index];
+    }
+
+    private static long nonNegativeLong(String value, String option) {
+        try {
+            long n = Long.parseLong(value.trim());
+            if (n < 0) {
+                throw new NumberFormatException();
+            }
+            return n;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(option + " expects a non-negative integer but got: " + value);
+        }
+    }
+
+    private static long positiveLong(String value, String option) {
+        try {
+            long n = Long.parseLong(value.trim());
+            if (n <= 0) {
+                throw new NumberFormatException();
+            }
+            return n;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(option + " expects a positive integer but got: " + value);
+        }
+    }
+}
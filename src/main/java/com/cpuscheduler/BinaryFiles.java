@@ -0,0 +1,109 @@
+package com.cpuscheduler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Layout shared by WorkloadFile and TraceFile. A file is a 16-byte header (magic,
+ * version, rows per block, reserved) followed by blocks that are appended one at
+ * a time and never rewritten. Every column of a block is stored contiguously,
+ * little-endian and 8-byte aligned, so a mapped block is read in place.
+ * Blocks hold BLOCK_ROWS rows except for the last of each column set, which
+ * makes row i's block i / BLOCK_ROWS.
+ */
+final class BinaryFiles {
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int BLOCK_BITS = 16;
+    static final int BLOCK_ROWS = 1 << BLOCK_BITS;
+    static final int BLOCK_MASK = BLOCK_ROWS - 1;
+    // Blocks are mapped in segments of up to this many bytes, since one mapping is limited to 2 GB
+    private static final long SEGMENT_BYTES = 1L << 30;
+
+    private BinaryFiles() {
+    }
+
+    static FileChannel create(Path path, int magic) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = allocate(HEADER_BYTES)
+            .putInt(magic).putInt(VERSION).putInt(BLOCK_ROWS).putInt(0);
+        header.flip();
+        try {
+            write(channel, header);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    // Checks the header written by create; kind names the file in errors
+    static void checkHeader(FileChannel channel, int magic, String kind) throws IOException {
+        ByteBuffer header = read(channel, 0, HEADER_BYTES, kind);
+        if (header.getInt(0) != magic) {
+            throw new IOException("Not a " + kind + " file");
+        }
+        if (header.getInt(4) != VERSION) {
+            throw new IOException("Unsupported " + kind + " file version " + header.getInt(4));
+        }
+        if (header.getInt(8) != BLOCK_ROWS) {
+            throw new IOException("Unsupported " + kind + " block size " + header.getInt(8));
+        }
+    }
+
+    static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Reads bytes at position, failing if the file ends first
+    static ByteBuffer read(FileChannel channel, long position, int bytes, String kind) throws IOException {
+        ByteBuffer buffer = allocate(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated " + kind + " file");
+            }
+        }
+        return buffer;
+    }
+
+    static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    static int padded(long bytes) {
+        return Math.toIntExact((bytes + 7) & ~7L);
+    }
+
+    /**
+     * Maps blocks given as file offsets and lengths in file order, packing
+     * neighbours into shared segments. Mappings stay valid after the channel is
+     * closed and are released when the buffers are collected.
+     */
+    static ByteBuffer[] map(FileChannel channel, long[] offsets, int[] lengths, int count) throws IOException {
+        ByteBuffer[] blocks = new ByteBuffer[count];
+        int first = 0;
+        while (first < count) {
+            long start = offsets[first];
+            int last = first;
+            while (last + 1 < count && offsets[last + 1] + lengths[last + 1] - start <= SEGMENT_BYTES) {
+                last++;
+            }
+            ByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                offsets[last] + lengths[last] - start);
+            for (int block = first; block <= last; block++) {
+                segment.limit((int) (offsets[block] - start) + lengths[block]);
+                segment.position((int) (offsets[block] - start));
+                blocks[block] = segment.slice().order(ByteOrder.LITTLE_ENDIAN);
+            }
+            first = last + 1;
+        }
+        return blocks;
+    }
+}
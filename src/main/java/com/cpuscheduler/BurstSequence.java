@@ -0,0 +1,132 @@
+package com.cpuscheduler;
+
+import java.util.Arrays;
+
+/**
+ * Alternating CPU and I/O bursts of one process, starting and ending with a CPU
+ * burst: cpu, io, cpu, ..., cpu. Every I/O burst runs on one of the simulated
+ * devices, numbered from 1. The text form separates bursts with ';' and gives
+ * an I/O burst's device after '@' (device 1 when omitted), e.g. "5;3@2;4" runs
+ * 5, waits 3 on device 2, then runs 4 more. A plain number is a pure CPU job.
+ */
+public final class BurstSequence {
+    public static final int MAX_DEVICES = 64;
+
+    private final long[] cpuBursts;
+    private final long[] ioBursts;
+    // Zero-based device index per I/O burst
+    private final byte[] devices;
+
+    // devices are numbered from 1 and may be null for all on device 1
+    public BurstSequence(long[] cpuBursts, long[] ioBursts, int[] devices) {
+        if (cpuBursts.length != ioBursts.length + 1) {
+            throw new IllegalArgumentException("A burst sequence needs one more CPU burst than I/O bursts");
+        }
+        if (devices != null && devices.length != ioBursts.length) {
+            throw new IllegalArgumentException("Every I/O burst needs one device");
+        }
+        for (long burst : cpuBursts) {
+            if (burst < 1) {
+                throw new IllegalArgumentException("CPU bursts must be positive: " + burst);
+            }
+        }
+        this.cpuBursts = cpuBursts.clone();
+        this.ioBursts = ioBursts.clone();
+        this.devices = new byte[ioBursts.length];
+        for (int i = 0; i < ioBursts.length; i++) {
+            if (ioBursts[i] < 1) {
+                throw new IllegalArgumentException("I/O bursts must be positive: " + ioBursts[i]);
+            }
+            int device = devices == null ? 1 : devices[i];
+            if (device < 1 || device > MAX_DEVICES) {
+                throw new IllegalArgumentException("I/O devices are numbered 1 to " + MAX_DEVICES + ": " + device);
+            }
+            this.devices[i] = (byte) (device - 1);
+        }
+    }
+
+    public static BurstSequence of(long cpuBurst) {
+        return new BurstSequence(new long[] {cpuBurst}, new long[0], null);
+    }
+
+    // Reads the text form, e.g. "5;3@2;4"
+    public static BurstSequence parse(String text) {
+        String[] parts = text.trim().split(";", -1);
+        if (parts.length % 2 == 0) {
+            throw new IllegalArgumentException("Bursts must alternate CPU;IO;...;CPU: " + text);
+        }
+        long[] cpu = new long[parts.length / 2 + 1];
+        long[] io = new long[parts.length / 2];
+        int[] devices = new int[io.length];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                String part = parts[i].trim();
+                if (i % 2 == 0) {
+                    cpu[i / 2] = Long.parseLong(part);
+                    continue;
+                }
+                int at = part.indexOf('@');
+                io[i / 2] = Long.parseLong(at < 0 ? part : part.substring(0, at).trim());
+                devices[i / 2] = at < 0 ? 1 : Integer.parseInt(part.substring(at + 1).trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid bursts: " + text);
+        }
+        return new BurstSequence(cpu, io, devices);
+    }
+
+    // Number of I/O bursts; the process has one more CPU burst
+    public int ioCount() { return ioBursts.length; }
+    public long cpuBurst(int index) { return cpuBursts[index]; }
+    public long ioBurst(int index) { return ioBursts[index]; }
+    // Device of the I/O burst, from 1
+    public int device(int index) { return devices[index] + 1; }
+
+    public long cpuTime() {
+        long total = 0;
+        for (long burst : cpuBursts) {
+            total += burst;
+        }
+        return total;
+    }
+
+    public long ioTime() {
+        long total = 0;
+        for (long burst : ioBursts) {
+            total += burst;
+        }
+        return total;
+    }
+
+    byte deviceIndex(int index) {
+        return devices[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof BurstSequence)) {
+            return false;
+        }
+        BurstSequence other = (BurstSequence) o;
+        return Arrays.equals(cpuBursts, other.cpuBursts) && Arrays.equals(ioBursts, other.ioBursts)
+            && Arrays.equals(devices, other.devices);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(cpuBursts) + Arrays.hashCode(ioBursts)) + Arrays.hashCode(devices);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder().append(cpuBursts[0]);
+        for (int i = 0; i < ioBursts.length; i++) {
+            text.append(';').append(ioBursts[i]);
+            if (devices[i] != 0) {
+                text.append('@').append(devices[i] + 1);
+            }
+            text.append(';').append(cpuBursts[i + 1]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,230 @@
+package com.cpuscheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Completely-fair-scheduler style fair share. Every process accrues virtual
+ * runtime at a rate inversely proportional to its weight, which follows the
+ * Linux nice-to-weight table (nice 0 = 1024, each step about 1.25x), and the
+ * runnable process with the least virtual runtime runs next. Processes wait in
+ * an IntHeap keyed by virtual runtime, which only changes while a process runs,
+ * so picking and reinserting are O(log n) for any number of runnable processes.
+ * Arrivals start at the queue's minimum virtual runtime. A slice is the
+ * process's weighted share of the target latency, but never shorter than the
+ * minimum granularity; the latency period stretches once more processes are
+ * runnable than fit. Arrivals wait for the running slice to end. A process
+ * waking from I/O keeps its virtual runtime, raised to at most half a target
+ * latency behind the queue's minimum so a long sleep buys no unbounded credit.
+ * Once a virtual runtime passes RENORMALIZE_AT, all of them are shifted down by
+ * the queue's minimum, so runs of any length never overflow.
+ */
+public final class CfsPolicy implements SchedulingPolicy {
+    static final int NICE_0_WEIGHT = 1024;
+    // Virtual runtime is fixed point with this many fractional bits, so heavy weights still accrue
+    static final int VRUNTIME_SHIFT = 16;
+    // Virtual runtimes are shifted down once one gets this far, and shifted stale ones stop at its negation
+    static final long RENORMALIZE_AT = 1L << 62;
+    // Most virtual runtime one slice charges, reached after about 5 * 10^11 units of real runtime at nice 19
+    private static final long MAX_CHARGE = 1L << 61;
+
+    // Linux sched_prio_to_weight, nice -20 to 19
+    private static final int[] WEIGHTS = {
+        88761, 71755, 56483, 46273, 36291,
+        29154, 23254, 18705, 14949, 11916,
+        9548, 7620, 6100, 4904, 3906,
+        3121, 2501, 1991, 1586, 1277,
+        1024, 820, 655, 526, 423,
+        335, 272, 215, 172, 137,
+        110, 87, 70, 56, 45,
+        36, 29, 23, 18, 15
+    };
+    // Virtual runtime per unit of real runtime, per nice value
+    private static final long[] VRUNTIME_RATES = new long[WEIGHTS.length];
+
+    static {
+        for (int i = 0; i < WEIGHTS.length; i++) {
+            VRUNTIME_RATES[i] = ((long) NICE_0_WEIGHT << VRUNTIME_SHIFT) / WEIGHTS[i];
+        }
+    }
+
+    private final Workload workload;
+    private final long targetLatency;
+    private final long minGranularity;
+    private final VirtualClocks clocks;
+    private final IntHeap readyQueue;
+    private long queuedWeight;
+    private long minVruntime;
+
+    public CfsPolicy(Workload workload, long targetLatency, long minGranularity) {
+        this(workload, targetLatency, minGranularity, new VirtualClocks(workload.size()));
+    }
+
+    // Per-core queues of one run share the virtual clocks, since processes move between cores
+    CfsPolicy(Workload workload, long targetLatency, long minGranularity, VirtualClocks clocks) {
+        if (targetLatency <= 0 || minGranularity <= 0) {
+            throw new IllegalArgumentException("CFS target latency and minimum granularity must be positive");
+        }
+        this.workload = workload;
+        this.targetLatency = targetLatency;
+        this.minGranularity = minGranularity;
+        this.clocks = clocks;
+        this.readyQueue = new IntHeap(clocks.vruntimes);
+        clocks.policies.add(this);
+    }
+
+    public static int weightOf(int nice) {
+        return WEIGHTS[nice - Workload.MIN_NICE];
+    }
+
+    @Override
+    public void onArrival(int process, long time) {
+        clocks.vruntimes[process] = minVruntime;
+        enqueue(process);
+    }
+
+    @Override
+    public int pickNext(long time) {
+        if (readyQueue.isEmpty()) {
+            return -1;
+        }
+        int process = readyQueue.poll();
+        queuedWeight -= weightOf(workload.nice(process));
+        minVruntime = Math.max(minVruntime, clocks.vruntimes[process]);
+        return process;
+    }
+
+    @Override
+    public int peekNext(long time) {
+        return readyQueue.isEmpty() ? -1 : readyQueue.peek();
+    }
+
+    @Override
+    public int size() {
+        return readyQueue.size();
+    }
+
+    @Override
+    public long timeSlice(int process, long time) {
+        clocks.sliceStarts[process] = time;
+        long weight = weightOf(workload.nice(process));
+        long period = Math.max(targetLatency, (readyQueue.size() + 1) * minGranularity);
+        long share = (long) ((double) period * weight / (queuedWeight + weight));
+        return Math.max(minGranularity, share);
+    }
+
+    @Override
+    public void onQuantumExpired(int process, long time) {
+        charge(process, time);
+        enqueue(process);
+    }
+
+    @Override
+    public boolean isPreemptive() {
+        return false;
+    }
+
+    @Override
+    public boolean precedes(int a, int b, long time) {
+        return false;
+    }
+
+    @Override
+    public void onPreempt(int process, long time) {
+        charge(process, time);
+        enqueue(process);
+    }
+
+    @Override
+    public void onBlock(int process, long time) {
+        charge(process, time);
+    }
+
+    // A waking process keeps its virtual runtime, but gets at most half a target latency of credit for sleeping
+    @Override
+    public void onWake(int process, long time) {
+        long floor = minVruntime - vruntime(targetLatency, 1L << VRUNTIME_SHIFT) / 2;
+        clocks.vruntimes[process] = Math.max(clocks.vruntimes[process], floor);
+        enqueue(process);
+    }
+
+    @Override
+    public State saveState() {
+        int[] queued = readyQueue.toArray();
+        long[] vruntimes = new long[queued.length];
+        for (int i = 0; i < queued.length; i++) {
+            vruntimes[i] = clocks.vruntimes[queued[i]];
+        }
+        return new CfsState(queued, vruntimes, minVruntime);
+    }
+
+    @Override
+    public void restoreState(State saved) {
+        CfsState state = (CfsState) saved;
+        int[] queued = state.queued();
+        for (int i = 0; i < queued.length; i++) {
+            clocks.vruntimes[queued[i]] = state.vruntimes[i];
+            enqueue(queued[i]);
+        }
+        minVruntime = state.minVruntime;
+    }
+
+    private void enqueue(int process) {
+        readyQueue.add(process);
+        queuedWeight += weightOf(workload.nice(process));
+    }
+
+    private void charge(int process, long time) {
+        long ran = Math.max(0, time - clocks.sliceStarts[process]);
+        long charge = vruntime(ran, VRUNTIME_RATES[workload.nice(process) - Workload.MIN_NICE]);
+        long vruntime = Math.min(clocks.vruntimes[process], Long.MAX_VALUE - charge) + charge;
+        clocks.vruntimes[process] = vruntime;
+        // The process ran from at most minVruntime, so the shift brings it back within one charge of 0
+        if (vruntime >= RENORMALIZE_AT && minVruntime > 0) {
+            clocks.shift(minVruntime);
+        }
+    }
+
+    // Virtual runtime for time units of real runtime at a rate, capped at MAX_CHARGE
+    private static long vruntime(long time, long rate) {
+        return time > MAX_CHARGE / rate ? MAX_CHARGE : time * rate;
+    }
+
+    // Queued processes in heap order with their virtual runtimes
+    private static final class CfsState extends State {
+        final long[] vruntimes;
+        final long minVruntime;
+
+        CfsState(int[] queued, long[] vruntimes, long minVruntime) {
+            super(queued);
+            this.vruntimes = vruntimes;
+            this.minVruntime = minVruntime;
+        }
+    }
+
+    // Virtual runtime and start of the current slice, per process, and the queues that share them
+    static final class VirtualClocks {
+        final long[] vruntimes;
+        final long[] sliceStarts;
+        final List<CfsPolicy> policies = new ArrayList<>(1);
+
+        VirtualClocks(int processCount) {
+            this.vruntimes = new long[processCount];
+            this.sliceStarts = new long[processCount];
+        }
+
+        // Moves every virtual runtime and queue minimum down by delta, which keeps the queues in order
+        void shift(long delta) {
+            for (int p = 0; p < vruntimes.length; p++) {
+                vruntimes[p] = shifted(vruntimes[p], delta);
+            }
+            for (CfsPolicy policy : policies) {
+                policy.minVruntime = shifted(policy.minVruntime, delta);
+            }
+        }
+
+        private static long shifted(long vruntime, long delta) {
+            return vruntime < delta - RENORMALIZE_AT ? -RENORMALIZE_AT : vruntime - delta;
+        }
+    }
+}
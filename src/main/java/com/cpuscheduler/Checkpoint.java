@@ -0,0 +1,65 @@
+package com.cpuscheduler;
+
+/**
+ * State of a single-core run between two slices: the clock, how many processes
+ * have arrived and finished, the policy's queues, and the remaining and start
+ * times of the queued processes. Processes that finished before the checkpoint
+ * keep their final times in the run's arrays, so only the queued ones are
+ * copied. The partial metrics are the running totals and latency histograms
+ * (without their empty upper buckets) at that point, and the trace is its
+ * first traceSize slices, the last one ending at lastSliceEnd (the run may
+ * have extended it afterwards).
+ */
+final class Checkpoint {
+    final long time;
+    final int position;
+    final int completed;
+    final SchedulingPolicy.State policy;
+    // Per queued process, in the order of policy.queued()
+    final long[] remainingTimes;
+    final long[] startTimes;
+
+    final LatencyStats latency;
+    final double totalWaitingTime;
+    final double totalTurnaroundTime;
+    final long contextSwitches;
+    final long busyTime;
+    final int lastProcess;
+    final int traceSize;
+    final long lastSliceEnd;
+
+    Checkpoint(long time, int position, int completed, SchedulingPolicy.State policy, long[] remainingTimes,
+               long[] startTimes, LatencyStats latency, double totalWaitingTime, double totalTurnaroundTime,
+               long contextSwitches, long busyTime, int lastProcess, int traceSize, long lastSliceEnd) {
+        this.time = time;
+        this.position = position;
+        this.completed = completed;
+        this.policy = policy;
+        this.remainingTimes = remainingTimes;
+        this.startTimes = startTimes;
+        this.latency = latency;
+        this.totalWaitingTime = totalWaitingTime;
+        this.totalTurnaroundTime = totalTurnaroundTime;
+        this.contextSwitches = contextSwitches;
+        this.busyTime = busyTime;
+        this.lastProcess = lastProcess;
+        this.traceSize = traceSize;
+        this.lastSliceEnd = lastSliceEnd;
+    }
+
+    // Queued processes this checkpoint holds state for
+    int entries() {
+        return remainingTimes.length;
+    }
+
+    // Approximate heap bytes: the queued processes' times and policy state, and the histograms
+    long memoryFootprint() {
+        return entries() * 6L * Long.BYTES + latency.memoryFootprint() + 256;
+    }
+
+    // Whether a run whose workload first differs from this run's at row changedRow, whose arrival is
+    // changedArrival, can continue from here: nothing from that row on had arrived yet
+    boolean precedes(int changedRow, long changedArrival) {
+        return position <= changedRow && time < changedArrival;
+    }
+}
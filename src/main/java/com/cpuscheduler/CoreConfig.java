@@ -0,0 +1,45 @@
+package com.cpuscheduler;
+
+/**
+ * Simulated CPU layout: how many cores there are, whether they share one ready
+ * queue or each keep their own (idle cores then steal from the longest queue),
+ * and how long a process stalls when it resumes on a different core than the one
+ * it last ran on.
+ */
+public final class CoreConfig {
+    public static final CoreConfig SINGLE = new CoreConfig(1, QueueMode.GLOBAL, 0);
+
+    public enum QueueMode {
+        GLOBAL,
+        PER_CORE
+    }
+
+    private final int cores;
+    private final QueueMode queueMode;
+    private final long migrationCost;
+
+    public CoreConfig(int cores, QueueMode queueMode, long migrationCost) {
+        if (cores < 1) {
+            throw new IllegalArgumentException("Core count must be positive: " + cores);
+        }
+        if (migrationCost < 0) {
+            throw new IllegalArgumentException("Migration cost must not be negative: " + migrationCost);
+        }
+        if (queueMode == null) {
+            throw new IllegalArgumentException("Queue mode is required");
+        }
+        this.cores = cores;
+        this.queueMode = queueMode;
+        this.migrationCost = migrationCost;
+    }
+
+    public int getCores() { return cores; }
+    public QueueMode getQueueMode() { return queueMode; }
+    public long getMigrationCost() { return migrationCost; }
+
+    @Override
+    public String toString() {
+        return cores + " cores, " + queueMode.name().toLowerCase().replace('_', '-') + " queues, migration cost "
+            + migrationCost;
+    }
+}
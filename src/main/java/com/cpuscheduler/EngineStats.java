@@ -0,0 +1,125 @@
+package com.cpuscheduler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Counters and phase timers of one event loop run. Instrumentation is switched
+ * on for the whole JVM with -Dcpuscheduler.instrument=true; ENABLED is a static
+ * final constant, so with it off every guarded hook is dead code the JIT drops
+ * and runs carry the shared, always empty DISABLED instance. Counts cover the
+ * work the run itself did: a run resumed from a checkpoint does not count the
+ * prefix it continued from. Wall time is measured per phase; CPU time is
+ * measured for the whole run and split across phases in proportion to their
+ * wall time, since reading the thread CPU clock per call would cost more than
+ * the calls themselves. Results read back from a cache directory have no counts.
+ */
+public final class EngineStats {
+    public static final boolean ENABLED = Boolean.getBoolean("cpuscheduler.instrument");
+
+    public enum Phase {
+        // Arrivals handed to the policy
+        ADMISSION,
+        // Policy decisions: picking, peeking, time slices, preemption checks and requeues
+        SELECTION,
+        // Execution steps added to the trace
+        TRACING,
+        // Start and completion times, latency histograms and the final metrics
+        METRICS
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    static final EngineStats DISABLED = new EngineStats();
+
+    long events;
+    long queueOperations;
+    long preemptions;
+    long contextSwitches;
+    long idleSkips;
+    long idleTime;
+    private final long[] phaseNanos = new long[PHASES.length];
+    private long wallNanos;
+    private long cpuNanos = -1;
+    private long startedWall;
+    private long startedCpu;
+
+    EngineStats() {
+    }
+
+    static EngineStats create() {
+        return ENABLED ? new EngineStats() : DISABLED;
+    }
+
+    // Adds the time since started, a System.nanoTime() reading, to the phase
+    void add(Phase phase, long started) {
+        phaseNanos[phase.ordinal()] += System.nanoTime() - started;
+    }
+
+    void idleSkip(long gap) {
+        idleSkips++;
+        idleTime += gap;
+    }
+
+    void start() {
+        startedWall = System.nanoTime();
+        startedCpu = cpuTime();
+    }
+
+    void stop(long contextSwitches) {
+        this.contextSwitches = contextSwitches;
+        wallNanos = System.nanoTime() - startedWall;
+        long cpu = cpuTime();
+        cpuNanos = cpu < 0 || startedCpu < 0 ? -1 : cpu - startedCpu;
+    }
+
+    private static long cpuTime() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : -1;
+    }
+
+    public boolean isEnabled() { return this != DISABLED; }
+
+    // Arrivals, completions, time-slice expiries and preemptions handled
+    public long getEvents() { return events; }
+    // Policy calls that add to, remove from or look into the ready queues
+    public long getQueueOperations() { return queueOperations; }
+    public long getPreemptions() { return preemptions; }
+    public long getContextSwitches() { return contextSwitches; }
+    // Times the clock jumped over a stretch where every core was idle, and the simulated time skipped
+    public long getIdleSkips() { return idleSkips; }
+    public long getIdleTime() { return idleTime; }
+    public long getWallNanos() { return wallNanos; }
+    // -1 when the JVM cannot measure thread CPU time
+    public long getCpuNanos() { return cpuNanos; }
+
+    public long getPhaseWallNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    public long getPhaseCpuNanos(Phase phase) {
+        if (cpuNanos < 0) {
+            return -1;
+        }
+        long measured = 0;
+        for (long nanos : phaseNanos) {
+            measured += nanos;
+        }
+        return measured == 0 ? 0 : Math.round((double) cpuNanos * phaseNanos[phase.ordinal()] / measured);
+    }
+
+    @Override
+    public String toString() {
+        if (!isEnabled()) {
+            return "instrumentation off (-Dcpuscheduler.instrument=true)";
+        }
+        StringBuilder out = new StringBuilder(String.format(
+            "%d events, %d queue ops, %d preemptions, %d context switches, %d idle skips (%d time units); "
+                + "%.3f ms wall, %s CPU",
+            events, queueOperations, preemptions, contextSwitches, idleSkips, idleTime,
+            wallNanos / 1e6, cpuNanos < 0 ? "n/a" : String.format("%.3f ms", cpuNanos / 1e6)));
+        for (Phase phase : PHASES) {
+            out.append(String.format("; %s %.3f ms", phase.name().toLowerCase(), getPhaseWallNanos(phase) / 1e6));
+        }
+        return out.toString();
+    }
+}
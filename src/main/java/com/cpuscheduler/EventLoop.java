@@ -0,0 +1,533 @@
+package com.cpuscheduler;
+
+import java.util.Arrays;
+
+/**
+ * The one simulation core every algorithm runs on, for one or many CPU cores.
+ * It owns the clock, admission, dispatch, preemption, tracing and metrics, and
+ * asks a SchedulingPolicy which process to run and for how long. The cores'
+ * next events (slice completion or time-slice expiry) live in one tournament
+ * tree, so each event costs O(log cores) and idle time is skipped entirely.
+ * At each event time finished slices are accounted first, then arrivals are
+ * admitted, then expired processes are handed back to the policy, then
+ * preemptive policies may displace running processes, and finally idle cores
+ * are dispatched in core order. With I/O, a process whose CPU burst ends
+ * while it has I/O bursts left blocks on its device instead of completing,
+ * and I/O completions are admitted like arrivals, in time order with them.
+ */
+final class EventLoop {
+    private final SimulationResult result;
+    private final int cores;
+    private final boolean perCoreQueues;
+    private final long migrationCost;
+
+    private final long[] remainingTimes;
+    // One policy for the shared queue, or one per core
+    private final SchedulingPolicy[] policies;
+    private final boolean preemptive;
+    private int queued;
+    private int placementCursor;
+    // Null unless the workload does I/O
+    private final IoDevices io;
+
+    // Per core: running process (-1 when idle), when its slice started executing and
+    // up to when its remaining time has been charged
+    private final int[] running;
+    private final long[] sliceStarts;
+    private final long[] chargedUntil;
+    private final EventTree events;
+
+    // Idle cores by index; entries for cores that were dispatched by affinity go stale
+    private final IntHeap idleCores;
+    private final boolean[] idle;
+    private int idleCount;
+
+    // Core each process last ran on, -1 before its first slice
+    private final int[] lastCores;
+
+    private EventLoop(SimulationResult result) {
+        Workload workload = result.getWorkload();
+        CoreConfig config = result.getCoreConfig();
+        this.result = result;
+        this.cores = config.getCores();
+        this.perCoreQueues = cores > 1 && config.getQueueMode() == CoreConfig.QueueMode.PER_CORE;
+        this.migrationCost = config.getMigrationCost();
+        this.remainingTimes = result.remainingTimes;
+
+        this.policies = result.getAlgorithm().newPolicies(perCoreQueues ? cores : 1, workload, remainingTimes,
+            result.getTimeQuantum(), result.getPolicyConfig());
+        if (EngineStats.ENABLED) {
+            for (int i = 0; i < policies.length; i++) {
+                policies[i] = new InstrumentedPolicy(policies[i], result.getEngineStats());
+            }
+        }
+        this.preemptive = policies[0].isPreemptive();
+        this.io = workload.hasIo() ? new IoDevices(result) : null;
+
+        this.running = new int[cores];
+        Arrays.fill(running, -1);
+        this.sliceStarts = new long[cores];
+        this.chargedUntil = new long[cores];
+        this.events = new EventTree(cores);
+
+        long[] coreIndices = new long[cores];
+        for (int core = 0; core < cores; core++) {
+            coreIndices[core] = core;
+        }
+        this.idleCores = new IntHeap(coreIndices, null, cores);
+        this.idle = new boolean[cores];
+        for (int core = 0; core < cores; core++) {
+            makeIdle(core);
+        }
+
+        this.lastCores = new int[workload.size()];
+        Arrays.fill(lastCores, -1);
+    }
+
+    static void run(SimulationResult result) {
+        SimulationEvent event = new SimulationEvent();
+        event.begin();
+        EngineStats stats = result.getEngineStats();
+        if (EngineStats.ENABLED) {
+            stats.start();
+        }
+        EventLoop loop = new EventLoop(result);
+        if (loop.cores == 1) {
+            loop.runSingleCore();
+        } else {
+            loop.run();
+        }
+        if (EngineStats.ENABLED) {
+            stats.stop(result.getContextSwitches());
+        }
+        if (event.shouldCommit()) {
+            event.algorithm = result.getAlgorithm().getShortName();
+            event.processes = result.getWorkload().size();
+            event.cores = loop.cores;
+            event.resumed = result.resumePoint() != null;
+            event.simulatedTime = result.getTotalTime();
+            event.contextSwitches = result.getContextSwitches();
+            event.commit();
+        }
+    }
+
+    // Same event order and policy calls as run() on one core, without the per-core bookkeeping:
+    // a slice can only end early when an arrival during it makes a preemptive policy displace it
+    private void runSingleCore() {
+        ArrivalIndex arrivals = result.newArrivalIndex();
+        SchedulingPolicy policy = policies[0];
+        int completed = 0;
+        int next = -1;
+        long currentTime = 0;
+        Checkpoint resume = result.resumePoint();
+        if (resume != null) {
+            policy.restoreState(resume.policy);
+            arrivals.seek(resume.position);
+            completed = resume.completed;
+            currentTime = resume.time;
+        }
+        int checkpointAt = result.nextCheckpointPosition();
+
+        // Arrivals may be read lazily, so the run ends once none is pending and every admitted process is done
+        while (arrivals.hasPending() || completed < arrivals.position()) {
+            if (next == -1 && arrivals.position() >= checkpointAt) {
+                checkpointAt = result.checkpoint(currentTime, arrivals.position(), completed, policy);
+                if (checkpointAt < 0) {
+                    return;
+                }
+            }
+            if (next == -1 && policy.size() == 0) {
+                // Idle until the next arrival or I/O completion
+                long wakeAt = nextEventTime(arrivals);
+                if (EngineStats.ENABLED && wakeAt > currentTime) {
+                    result.getEngineStats().idleSkip(wakeAt - currentTime);
+                }
+                currentTime = Math.max(currentTime, wakeAt);
+                admit(arrivals, policy, currentTime);
+            }
+            int process = next != -1 ? next : policy.pickNext(currentTime);
+            next = -1;
+            long begin = currentTime;
+            long end = begin + Math.min(policy.timeSlice(process, begin), remainingTimes[process]);
+            result.markStarted(process, begin);
+
+            if (preemptive) {
+                long charged = begin;
+                long event;
+                // Arrivals may displace the process, and so may waiting processes that come to precede it
+                while ((event = Math.min(nextEventTime(arrivals), policy.overtakeTime(process, charged))) < end) {
+                    admit(arrivals, policy, event);
+                    remainingTimes[process] -= event - charged;
+                    charged = event;
+                    if (policy.precedes(policy.peekNext(event), process, event)) {
+                        next = policy.pickNext(event);
+                        if (event > begin) {
+                            result.addStep(process, begin, event);
+                        }
+                        policy.onPreempt(process, event);
+                        currentTime = event;
+                        break;
+                    }
+                }
+                if (next != -1) {
+                    continue;
+                }
+                remainingTimes[process] -= end - charged;
+            } else {
+                remainingTimes[process] -= end - begin;
+            }
+
+            result.addStep(process, begin, end);
+            currentTime = end;
+            if (nextEventTime(arrivals) <= currentTime) {
+                admit(arrivals, policy, currentTime);
+            }
+            if (remainingTimes[process] == 0) {
+                if (io != null && io.block(process, currentTime)) {
+                    policy.onBlock(process, currentTime);
+                } else {
+                    result.markCompleted(process, currentTime);
+                    policy.onCompletion(process, currentTime);
+                    completed++;
+                }
+            } else {
+                policy.onQuantumExpired(process, currentTime);
+            }
+        }
+
+        result.finish(currentTime);
+    }
+
+    // Time of the next arrival or I/O completion, Long.MAX_VALUE when there is none
+    private long nextEventTime(ArrivalIndex arrivals) {
+        long time = arrivals.hasPending() ? arrivals.nextArrivalTime() : Long.MAX_VALUE;
+        return io == null ? time : Math.min(time, io.nextWakeTime());
+    }
+
+    // Arrivals and I/O completions up to time, in time order with arrivals first on ties
+    private void admit(ArrivalIndex arrivals, SchedulingPolicy policy, long time) {
+        if (io != null) {
+            long wake;
+            while ((wake = io.nextWakeTime()) <= time) {
+                admitArrivals(arrivals, policy, wake);
+                policy.onWake(io.wakeNext(), wake);
+            }
+        }
+        admitArrivals(arrivals, policy, time);
+    }
+
+    // Arrivals up to time that waited for the end of a slice are still handed over with their own arrival time
+    private void admitArrivals(ArrivalIndex arrivals, SchedulingPolicy policy, long time) {
+        long[] arrivalTimes = result.getWorkload().arrivalTimes;
+        int from = arrivals.position();
+        int to = arrivals.advance(time);
+        for (int process = from; process < to; process++) {
+            policy.onArrival(process, arrivalTimes[process]);
+        }
+    }
+
+    private void run() {
+        ArrivalIndex arrivals = result.newArrivalIndex();
+        int processCount = arrivals.size();
+        int completed = 0;
+        int[] expiredProcesses = new int[cores];
+        int[] expiredCores = new int[cores];
+        long currentTime = 0;
+        long overtakeAt = Long.MAX_VALUE;
+
+        while (completed < processCount) {
+            long previousTime = currentTime;
+            currentTime = Math.min(Math.min(events.minTime(), nextEventTime(arrivals)), overtakeAt);
+            if (EngineStats.ENABLED && idleCount == cores && currentTime > previousTime) {
+                // Every core idle and nothing queued: the clock jumps to the next arrival
+                result.getEngineStats().idleSkip(currentTime - previousTime);
+            }
+
+            // Slices ending now: completions and time-slice expiries
+            int expired = 0;
+            while (events.minTime() == currentTime) {
+                int core = events.minCore();
+                int process = stop(core, currentTime);
+                if (remainingTimes[process] == 0) {
+                    if (io != null && io.block(process, currentTime)) {
+                        policyOf(core).onBlock(process, currentTime);
+                    } else {
+                        result.markCompleted(process, currentTime);
+                        policyOf(core).onCompletion(process, currentTime);
+                        completed++;
+                    }
+                } else {
+                    expiredProcesses[expired] = process;
+                    expiredCores[expired++] = core;
+                }
+            }
+
+            // New arrivals and wakeups queue ahead of the processes whose slice expired at the same time
+            boolean admitted = nextEventTime(arrivals) <= currentTime;
+            if (admitted) {
+                admit(arrivals, currentTime);
+            }
+            for (int i = 0; i < expired; i++) {
+                policyOf(expiredCores[i]).onQuantumExpired(expiredProcesses[i], currentTime);
+                queued++;
+            }
+
+            if (preemptive && (admitted || currentTime == overtakeAt)) {
+                preempt(currentTime);
+            }
+            dispatch(currentTime);
+            if (preemptive) {
+                // A queued process that already precedes a running one displaces it at once
+                overtakeAt = Math.max(currentTime, overtakeTime(currentTime));
+            }
+        }
+
+        result.finish(currentTime);
+    }
+
+    private SchedulingPolicy policyOf(int core) {
+        return policies[perCoreQueues ? core : 0];
+    }
+
+    private void admit(ArrivalIndex arrivals, long time) {
+        if (io != null) {
+            long wake;
+            while ((wake = io.nextWakeTime()) <= time) {
+                admitArrivals(arrivals, wake);
+                // A woken process returns to the queue of the core it last ran on
+                int process = io.wakeNext();
+                policyOf(lastCores[process]).onWake(process, wake);
+                queued++;
+            }
+        }
+        admitArrivals(arrivals, time);
+    }
+
+    private void admitArrivals(ArrivalIndex arrivals, long time) {
+        // Per-core queues get arrivals round robin; idle cores steal if this leaves them empty
+        int from = arrivals.position();
+        int to = arrivals.advance(time);
+        if (!perCoreQueues) {
+            SchedulingPolicy policy = policies[0];
+            for (int process = from; process < to; process++) {
+                policy.onArrival(process, time);
+            }
+        } else {
+            for (int process = from; process < to; process++) {
+                policies[placementCursor].onArrival(process, time);
+                placementCursor = placementCursor + 1 == cores ? 0 : placementCursor + 1;
+            }
+        }
+        queued += to - from;
+    }
+
+    private void preempt(long time) {
+        if (perCoreQueues) {
+            // Each core only competes with its own queue
+            for (int core = 0; core < cores; core++) {
+                SchedulingPolicy policy = policies[core];
+                if (running[core] == -1 || policy.size() == 0) {
+                    continue;
+                }
+                charge(core, time);
+                if (policy.precedes(policy.peekNext(time), running[core], time)) {
+                    displace(core, policy, time);
+                }
+            }
+            return;
+        }
+        // While a waiting process precedes the last running one in policy order, displace it
+        SchedulingPolicy policy = policies[0];
+        for (int core = 0; core < cores; core++) {
+            if (running[core] != -1) {
+                charge(core, time);
+            }
+        }
+        while (queued > 0 && idleCount == 0) {
+            int victim = 0;
+            for (int core = 1; core < cores; core++) {
+                if (policy.precedes(running[victim], running[core], time)) {
+                    victim = core;
+                }
+            }
+            if (!policy.precedes(policy.peekNext(time), running[victim], time)) {
+                break;
+            }
+            displace(victim, policy, time);
+        }
+    }
+
+    // Earliest time at which, if nothing else happens, a queued process comes to precede a running one
+    private long overtakeTime(long time) {
+        if (perCoreQueues) {
+            long earliest = Long.MAX_VALUE;
+            for (int core = 0; core < cores; core++) {
+                if (running[core] != -1 && policies[core].size() > 0) {
+                    earliest = Math.min(earliest, policies[core].overtakeTime(running[core], time));
+                }
+            }
+            return earliest;
+        }
+        if (queued == 0 || idleCount > 0) {
+            return Long.MAX_VALUE;
+        }
+        // The last running process in policy order is overtaken first
+        SchedulingPolicy policy = policies[0];
+        int victim = 0;
+        for (int core = 1; core < cores; core++) {
+            if (policy.precedes(running[victim], running[core], time)) {
+                victim = core;
+            }
+        }
+        return policy.overtakeTime(running[victim], time);
+    }
+
+    // Hands the core's process back to the policy and starts the one it prefers
+    private void displace(int core, SchedulingPolicy policy, long time) {
+        int next = policy.pickNext(time);
+        policy.onPreempt(stop(core, time), time);
+        takeIdle(core);
+        start(core, next, time);
+    }
+
+    private void dispatch(long time) {
+        while (idleCount > 0 && queued > 0) {
+            int core;
+            int process;
+            if (perCoreQueues) {
+                core = pollIdle();
+                SchedulingPolicy policy = policies[core];
+                if (policy.size() == 0) {
+                    policy = policies[longestQueue()];
+                }
+                process = policy.pickNext(time);
+            } else {
+                process = policies[0].pickNext(time);
+                // Prefer the core the process last ran on, if it is free
+                int last = lastCores[process];
+                if (last != -1 && idle[last]) {
+                    takeIdle(last);
+                    core = last;
+                } else {
+                    core = pollIdle();
+                }
+            }
+            queued--;
+            start(core, process, time);
+        }
+    }
+
+    // Victim for work stealing: the longest queue, lowest core index on ties
+    private int longestQueue() {
+        int longest = 0;
+        for (int core = 1; core < cores; core++) {
+            if (policies[core].size() > policies[longest].size()) {
+                longest = core;
+            }
+        }
+        return longest;
+    }
+
+    private void start(int core, int process, long time) {
+        int last = lastCores[process];
+        long begin = time;
+        if (last != -1 && last != core) {
+            result.addMigration();
+            begin += migrationCost;
+        }
+        lastCores[process] = core;
+        result.markStarted(process, begin);
+        running[core] = process;
+        sliceStarts[core] = begin;
+        chargedUntil[core] = begin;
+        long slice = policyOf(core).timeSlice(process, begin);
+        events.set(core, begin + Math.min(slice, remainingTimes[process]));
+    }
+
+    // Brings the running process's remaining time up to date with time
+    private void charge(int core, long time) {
+        if (time > chargedUntil[core]) {
+            remainingTimes[running[core]] -= time - chargedUntil[core];
+            chargedUntil[core] = time;
+        }
+    }
+
+    // Ends the core's current slice at time and returns the process it was running
+    private int stop(int core, long time) {
+        int process = running[core];
+        charge(core, time);
+        if (time > sliceStarts[core]) {
+            result.addStep(core, process, sliceStarts[core], time);
+        }
+        running[core] = -1;
+        events.set(core, Long.MAX_VALUE);
+        makeIdle(core);
+        return process;
+    }
+
+    private void makeIdle(int core) {
+        idle[core] = true;
+        idleCount++;
+        idleCores.add(core);
+    }
+
+    private void takeIdle(int core) {
+        idle[core] = false;
+        idleCount--;
+    }
+
+    private int pollIdle() {
+        while (true) {
+            int core = idleCores.poll();
+            if (idle[core]) {
+                takeIdle(core);
+                return core;
+            }
+        }
+    }
+
+    // Tournament tree over the cores' next event times: the root holds the core with
+    // the earliest event (lowest index on ties), and changing one core's time only
+    // replays the matches on its path to the root
+    private static final class EventTree {
+        private final long[] times;
+        private final int[] winners;
+        private final int leaves;
+
+        EventTree(int cores) {
+            int n = 1;
+            while (n < cores) {
+                n <<= 1;
+            }
+            this.leaves = n;
+            this.times = new long[n];
+            Arrays.fill(times, Long.MAX_VALUE);
+            this.winners = new int[2 * n];
+            for (int i = 0; i < n; i++) {
+                winners[n + i] = i;
+            }
+            for (int node = n - 1; node > 0; node--) {
+                winners[node] = winner(winners[2 * node], winners[2 * node + 1]);
+            }
+        }
+
+        int minCore() {
+            return winners[1];
+        }
+
+        long minTime() {
+            return times[winners[1]];
+        }
+
+        void set(int core, long time) {
+            times[core] = time;
+            for (int node = (leaves + core) >>> 1; node > 0; node >>>= 1) {
+                winners[node] = winner(winners[2 * node], winners[2 * node + 1]);
+            }
+        }
+
+        private int winner(int a, int b) {
+            return times[a] < times[b] || (times[a] == times[b] && a < b) ? a : b;
+        }
+    }
+}
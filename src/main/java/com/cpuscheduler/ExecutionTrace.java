@@ -0,0 +1,386 @@
+package com.cpuscheduler;
+
+import java.util.*;
+
+/**
+ * Compact columnar execution trace. Slices are appended to an open chunk of
+ * plain arrays; once it holds CHUNK_SIZE slices it is sealed into bit-packed
+ * columns, each stored as offsets from the chunk's minimum in as few bits as
+ * its range needs. Starts are not stored: a slice starts where the previous
+ * one ended plus an idle gap, and the gap column takes no bits at all while
+ * the lane stays busy. A round robin trace packs into about 4 bytes a slice.
+ * Every slice is still read in O(1), so the TraceView time queries stay
+ * binary searches. A slice that continues the previous one (same process,
+ * starting where it ended) is merged into it instead of being appended.
+ * One thread writes; other threads may read the slices below publishedSize().
+ * Sealed chunks never change, and the open chunk's arrays are replaced rather
+ * than reused, so a reader always finds a published slice in whichever it sees.
+ * The slices of one process are listed through an index built on first use.
+ */
+public class ExecutionTrace implements TraceView {
+    private static final int CHUNK_BITS = 13;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private Chunk[] sealed = new Chunk[4];
+    private int sealedCount;
+    private volatile OpenChunk open;
+    private int size;
+    private volatile int published;
+    // Published slices grouped by process, built by the first per-process query after a publish
+    private volatile ProcessIndex byProcess;
+
+    // Receives slices without boxing or allocating, see forEach
+    @FunctionalInterface
+    public interface SliceVisitor {
+        void visit(int process, long startTime, long endTime);
+    }
+
+    public void add(int process, long startTime, long endTime) {
+        OpenChunk chunk = open;
+        if (size > 0) {
+            int last = (size - 1) & CHUNK_MASK;
+            if (chunk.processes[last] == process && chunk.endTimes[last] == startTime) {
+                chunk.endTimes[last] = endTime;
+                return;
+            }
+            if (last == CHUNK_MASK) {
+                seal(chunk);
+                chunk = new OpenChunk(sealedCount, CHUNK_SIZE);
+                open = chunk;
+            } else if (last + 1 == chunk.processes.length) {
+                chunk = chunk.grow();
+                open = chunk;
+            }
+        } else if (chunk == null) {
+            chunk = new OpenChunk(0, 16);
+            open = chunk;
+        }
+        int offset = size & CHUNK_MASK;
+        chunk.processes[offset] = process;
+        chunk.startTimes[offset] = startTime;
+        chunk.endTimes[offset] = endTime;
+        size++;
+    }
+
+    private void seal(OpenChunk chunk) {
+        if (sealedCount == sealed.length) {
+            sealed = Arrays.copyOf(sealed, sealedCount * 2);
+        }
+        sealed[sealedCount++] = new Chunk(chunk, CHUNK_SIZE);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Replaces the contents with the first slices of source, the last of them ending at lastEndTime
+    void copyPrefix(ExecutionTrace source, int slices, long lastEndTime) {
+        clear();
+        if (slices == 0) {
+            return;
+        }
+        // Whole sealed chunks are immutable and shared; the rest becomes the open chunk
+        int shared = (slices - 1) >>> CHUNK_BITS;
+        if (shared > sealed.length) {
+            sealed = new Chunk[shared];
+        }
+        System.arraycopy(source.sealed, 0, sealed, 0, shared);
+        sealedCount = shared;
+        int rest = slices - (shared << CHUNK_BITS);
+        int capacity = shared > 0 ? CHUNK_SIZE : Math.min(CHUNK_SIZE, Math.max(16, Integer.highestOneBit(rest) * 2));
+        OpenChunk chunk = new OpenChunk(shared, capacity);
+        for (int slice = shared << CHUNK_BITS, offset = 0; slice < slices; slice++, offset++) {
+            chunk.processes[offset] = source.process(slice);
+            chunk.startTimes[offset] = source.startTime(slice);
+            chunk.endTimes[offset] = source.endTime(slice);
+        }
+        chunk.endTimes[(slices - 1) & CHUNK_MASK] = lastEndTime;
+        open = chunk;
+        size = slices;
+    }
+
+    // Makes the slices written so far visible to readers on other threads. Until the
+    // trace is complete the last slice is held back, since it may still be extended.
+    void publish(boolean complete) {
+        published = complete ? size : Math.max(size - 1, 0);
+    }
+
+    // Number of slices that are safe to read from another thread while the trace is written
+    @Override
+    public int publishedSize() {
+        return published;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int process(int slice) {
+        Objects.checkIndex(slice, size);
+        OpenChunk chunk = open;
+        if (chunk.index == slice >>> CHUNK_BITS) {
+            return chunk.processes[slice & CHUNK_MASK];
+        }
+        return (int) sealed[slice >>> CHUNK_BITS].processes.get(slice & CHUNK_MASK);
+    }
+
+    @Override
+    public long startTime(int slice) {
+        Objects.checkIndex(slice, size);
+        OpenChunk chunk = open;
+        if (chunk.index == slice >>> CHUNK_BITS) {
+            return chunk.startTimes[slice & CHUNK_MASK];
+        }
+        return sealed[slice >>> CHUNK_BITS].startTime(slice & CHUNK_MASK);
+    }
+
+    @Override
+    public long endTime(int slice) {
+        Objects.checkIndex(slice, size);
+        OpenChunk chunk = open;
+        if (chunk.index == slice >>> CHUNK_BITS) {
+            return chunk.endTimes[slice & CHUNK_MASK];
+        }
+        return sealed[slice >>> CHUNK_BITS].endTimes.get(slice & CHUNK_MASK);
+    }
+
+    // End of the last slice, or 0 for an empty trace
+    public long endTime() {
+        return size == 0 ? 0 : endTime(size - 1);
+    }
+
+    // Number of published slices the process ran; the first per-process query after a publish costs O(n)
+    public int sliceCountOf(int process) {
+        return processIndex().count(process);
+    }
+
+    // The process's k-th published slice, counting from 0 in time order
+    public int sliceOf(int process, int k) {
+        ProcessIndex index = processIndex();
+        Objects.checkIndex(k, index.count(process));
+        return index.slices[index.starts[process] + k];
+    }
+
+    // Position of a published slice among the slices of its process, counting from 0
+    public int sliceRankOf(int slice) {
+        ProcessIndex index = processIndex();
+        Objects.checkIndex(slice, index.size);
+        int process = process(slice);
+        int first = index.starts[process];
+        return Arrays.binarySearch(index.slices, first, index.starts[process + 1], slice) - first;
+    }
+
+    // Visits the published slices of one process in time order, in O(k) for its k slices once the index is built
+    public void forEachSliceOf(int process, SliceVisitor visitor) {
+        ProcessIndex index = processIndex();
+        for (int k = 0, count = index.count(process); k < count; k++) {
+            int slice = index.slices[index.starts[process] + k];
+            visitor.visit(process, startTime(slice), endTime(slice));
+        }
+    }
+
+    // Callers keep the index they got: a reader on another thread may replace the field with a newer one
+    private ProcessIndex processIndex() {
+        ProcessIndex index = byProcess;
+        int slices = published;
+        if (index == null || index.size != slices) {
+            index = new ProcessIndex(this, slices);
+            byProcess = index;
+        }
+        return index;
+    }
+
+    public void forEach(SliceVisitor visitor) {
+        for (int c = 0; c < sealedCount; c++) {
+            Chunk chunk = sealed[c];
+            long start = chunk.firstStart;
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                if (i > 0) {
+                    start = chunk.endTimes.get(i - 1) + chunk.gaps.get(i);
+                }
+                visitor.visit((int) chunk.processes.get(i), start, chunk.endTimes.get(i));
+            }
+        }
+        OpenChunk chunk = open;
+        for (int i = 0, count = size - (sealedCount << CHUNK_BITS); i < count; i++) {
+            visitor.visit(chunk.processes[i], chunk.startTimes[i], chunk.endTimes[i]);
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(sealed, 0, sealedCount, null);
+        sealedCount = 0;
+        open = null;
+        size = 0;
+        published = 0;
+        byProcess = null;
+    }
+
+    // Approximate bytes held by the columns
+    public long memoryFootprint() {
+        long bytes = open == null ? 0 : (long) open.processes.length * (Integer.BYTES + 2L * Long.BYTES);
+        for (int c = 0; c < sealedCount; c++) {
+            bytes += sealed[c].memoryFootprint();
+        }
+        ProcessIndex index = byProcess;
+        if (index != null) {
+            bytes += (long) Integer.BYTES * (index.starts.length + index.slices.length);
+        }
+        return bytes;
+    }
+
+    // Read-only ExecutionStep view for existing callers; steps are created on demand
+    public List<SchedulerSimulator.ExecutionStep> asExecutionSteps(Workload workload) {
+        return new AbstractList<SchedulerSimulator.ExecutionStep>() {
+            @Override
+            public SchedulerSimulator.ExecutionStep get(int index) {
+                return new SchedulerSimulator.ExecutionStep(workload.processId(process(index)),
+                    startTime(index), endTime(index));
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // The chunk being written, in plain arrays; replaced, never reused, once grown or sealed
+    private static final class OpenChunk {
+        final int index;
+        final int[] processes;
+        final long[] startTimes;
+        final long[] endTimes;
+
+        OpenChunk(int index, int capacity) {
+            this.index = index;
+            this.processes = new int[capacity];
+            this.startTimes = new long[capacity];
+            this.endTimes = new long[capacity];
+        }
+
+        // The first chunk starts small and doubles, so short traces stay small
+        OpenChunk grow() {
+            OpenChunk grown = new OpenChunk(index, Math.min(processes.length * 2, CHUNK_SIZE));
+            System.arraycopy(processes, 0, grown.processes, 0, processes.length);
+            System.arraycopy(startTimes, 0, grown.startTimes, 0, startTimes.length);
+            System.arraycopy(endTimes, 0, grown.endTimes, 0, endTimes.length);
+            return grown;
+        }
+    }
+
+    // A full chunk: processes and ends packed, starts as the idle gap after the previous slice
+    private static final class Chunk {
+        final long firstStart;
+        final PackedColumn processes;
+        final PackedColumn endTimes;
+        final PackedColumn gaps;
+
+        Chunk(OpenChunk chunk, int count) {
+            long[] values = new long[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = chunk.processes[i];
+            }
+            processes = new PackedColumn(values, count);
+            endTimes = new PackedColumn(chunk.endTimes, count);
+            values[0] = 0;
+            for (int i = 1; i < count; i++) {
+                values[i] = chunk.startTimes[i] - chunk.endTimes[i - 1];
+            }
+            gaps = new PackedColumn(values, count);
+            firstStart = chunk.startTimes[0];
+        }
+
+        long startTime(int i) {
+            return i == 0 ? firstStart : endTimes.get(i - 1) + gaps.get(i);
+        }
+
+        long memoryFootprint() {
+            return Long.BYTES + processes.memoryFootprint() + endTimes.memoryFootprint() + gaps.memoryFootprint();
+        }
+    }
+
+    /**
+     * Frame-of-reference bit packing: every value is stored as its offset from
+     * the column's minimum in the bits the largest offset needs, possibly none.
+     */
+    private static final class PackedColumn {
+        private final long min;
+        private final int width;
+        private final long[] words;
+
+        PackedColumn(long[] values, int count) {
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+            this.min = min;
+            // The range is read as unsigned, so it fits even when it overflows a long
+            this.width = 64 - Long.numberOfLeadingZeros(max - min);
+            this.words = new long[(int) (((long) count * width + 63) >>> 6)];
+            for (int i = 0; i < count && width > 0; i++) {
+                long bit = (long) i * width;
+                int word = (int) (bit >>> 6);
+                int shift = (int) (bit & 63);
+                long offset = values[i] - min;
+                words[word] |= offset << shift;
+                if (shift + width > 64) {
+                    words[word + 1] |= offset >>> (64 - shift);
+                }
+            }
+        }
+
+        long get(int i) {
+            if (width == 0) {
+                return min;
+            }
+            long bit = (long) i * width;
+            int word = (int) (bit >>> 6);
+            int shift = (int) (bit & 63);
+            long value = words[word] >>> shift;
+            if (shift + width > 64) {
+                value |= words[word + 1] << (64 - shift);
+            }
+            return min + (width == 64 ? value : value & ((1L << width) - 1));
+        }
+
+        long memoryFootprint() {
+            return Long.BYTES + (long) Long.BYTES * words.length;
+        }
+    }
+
+    // Indexes of the first size slices grouped by process in time order: a counting sort of the process column
+    private static final class ProcessIndex {
+        final int size;
+        final int[] starts;
+        final int[] slices;
+
+        ProcessIndex(ExecutionTrace trace, int size) {
+            this.size = size;
+            int processes = 0;
+            for (int slice = 0; slice < size; slice++) {
+                processes = Math.max(processes, trace.process(slice) + 1);
+            }
+            starts = new int[processes + 1];
+            for (int slice = 0; slice < size; slice++) {
+                starts[trace.process(slice) + 1]++;
+            }
+            for (int p = 0; p < processes; p++) {
+                starts[p + 1] += starts[p];
+            }
+            slices = new int[size];
+            int[] next = Arrays.copyOf(starts, processes);
+            for (int slice = 0; slice < size; slice++) {
+                slices[next[trace.process(slice)]++] = slice;
+            }
+        }
+
+        int count(int process) {
+            return process < starts.length - 1 ? starts[process + 1] - starts[process] : 0;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.cpuscheduler;
+
+// Runs processes to completion in arrival order
+public final class FcfsPolicy implements SchedulingPolicy {
+    private final IntRingBuffer readyQueue = new IntRingBuffer();
+
+    @Override
+    public void onArrival(int process, long time) {
+        readyQueue.add(process);
+    }
+
+    @Override
+    public int pickNext(long time) {
+        return readyQueue.isEmpty() ? -1 : readyQueue.poll();
+    }
+
+    @Override
+    public int peekNext(long time) {
+        return readyQueue.isEmpty() ? -1 : readyQueue.peek();
+    }
+
+    @Override
+    public int size() {
+        return readyQueue.size();
+    }
+
+    @Override
+    public long timeSlice(int process, long time) {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public void onQuantumExpired(int process, long time) {
+        throw new IllegalStateException("FCFS runs every process to completion");
+    }
+
+    @Override
+    public boolean isPreemptive() {
+        return false;
+    }
+
+    @Override
+    public boolean precedes(int a, int b, long time) {
+        return false;
+    }
+
+    @Override
+    public void onPreempt(int process, long time) {
+        readyQueue.add(process);
+    }
+
+    @Override
+    public State saveState() {
+        return new State(readyQueue.toArray());
+    }
+
+    @Override
+    public void restoreState(State state) {
+        for (int process : state.queued()) {
+            readyQueue.add(process);
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package com.cpuscheduler;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.util.function.IntFunction;
+
+/**
+ * Canvas Gantt chart that only draws the visible time window. Every pixel column
+ * is resolved by binary search into the trace, so a redraw costs
+ * O(width * log slices) however long the trace is. Slices wider than a pixel are
+ * drawn as one labelled bar; when zoomed out, sub-pixel slices collapse into the
+ * process occupying each column and equal neighbouring columns merge into one rectangle.
+ * Scroll to zoom around the cursor, drag to pan, double-click to fit the whole trace.
+ * A trace that is still being written can be shown and refreshed as it grows;
+ * only its published slices are read. Multi-core runs get one lane per core,
+ * and I/O devices get their own lanes below the CPUs, in paler colors. Lanes
+ * are any TraceView, so a memory-mapped TraceFile is drawn without loading it.
+ * Hovering shows the slice under the cursor and a scrubber can mark a time;
+ * both are binary searches on the lanes' time index, however long the trace.
+ * Over an in-memory trace the tooltip also numbers the slice among the
+ * process's slices on that lane, using the trace's per-process index.
+ */
+public class GanttChart extends Region {
+    private static final double BAR_TOP = 10;
+    private static final double BAR_HEIGHT = 40;
+    // Lanes share this much height once there are too many for full-size bars
+    private static final double LANES_HEIGHT = 320;
+    private static final double AXIS_HEIGHT = 30;
+    private static final double MIN_LABEL_WIDTH = 28;
+    private static final double MIN_LABEL_HEIGHT = 12;
+
+    private final Canvas canvas = new Canvas();
+    private final Font labelFont = Font.font(11);
+
+    private TraceView[] lanes;
+    // Lanes from this index on are I/O devices
+    private int cpuLanes;
+    private int[] sliceCounts;
+    // Label of a process index
+    private IntFunction<String> labels;
+    private double laneHeight = BAR_HEIGHT;
+    private double laneGap;
+    // Keep fitting the whole trace as it grows until the user zooms or pans
+    private boolean following;
+
+    // Time at the left edge of the canvas and time units per pixel
+    private double viewStart;
+    private double timePerPixel = 1;
+    private double dragStartX;
+    private double dragStartView;
+    // Time marked by the scrubber, or NaN
+    private double cursorTime = Double.NaN;
+    private final Tooltip tooltip = new Tooltip();
+    private boolean tooltipShown;
+
+    public GanttChart() {
+        getChildren().add(canvas);
+        setLaneCount(1);
+
+        setOnScroll(e -> {
+            if (lanes == null || e.getDeltaY() == 0) {
+                return;
+            }
+            double factor = Math.pow(1.0015, -e.getDeltaY());
+            zoom(factor, e.getX());
+            e.consume();
+        });
+        setOnMousePressed(e -> {
+            dragStartX = e.getX();
+            dragStartView = viewStart;
+        });
+        setOnMouseDragged(e -> {
+            if (lanes == null) {
+                return;
+            }
+            viewStart = clampViewStart(dragStartView - (e.getX() - dragStartX) * timePerPixel);
+            following = false;
+            redraw();
+        });
+        setOnMouseMoved(e -> {
+            String text = describeSliceAt(e.getX(), e.getY());
+            if (text == null) {
+                if (tooltipShown) {
+                    Tooltip.uninstall(this, tooltip);
+                    tooltipShown = false;
+                }
+            } else {
+                tooltip.setText(text);
+                if (!tooltipShown) {
+                    Tooltip.install(this, tooltip);
+                    tooltipShown = true;
+                }
+            }
+        });
+        setOnMouseClicked(e -> {
+            if (e.getButton() == MouseButton.PRIMARY && e.getClickCount() == 2) {
+                fitAll();
+            }
+        });
+    }
+
+    public void setTrace(ExecutionTrace trace, Workload workload) {
+        setTraces(new ExecutionTrace[] {trace}, workload);
+    }
+
+    // One lane per trace, e.g. per core of a multi-core run
+    public void setTraces(ExecutionTrace[] traces, Workload workload) {
+        setTraces(traces, new ExecutionTrace[0], workload);
+    }
+
+    // CPU lanes followed by one lane per I/O device
+    public void setTraces(ExecutionTrace[] traces, ExecutionTrace[] ioTraces, Workload workload) {
+        setTraces(traces, ioTraces, workload::processId);
+    }
+
+    // Any lanes, e.g. a run of a mapped TraceFile, with the labels of their process indexes
+    public void setTraces(TraceView[] traces, TraceView[] ioTraces, IntFunction<String> labels) {
+        this.lanes = new TraceView[traces.length + ioTraces.length];
+        System.arraycopy(traces, 0, lanes, 0, traces.length);
+        System.arraycopy(ioTraces, 0, lanes, traces.length, ioTraces.length);
+        this.cpuLanes = traces.length;
+        this.labels = labels;
+        this.sliceCounts = new int[lanes.length];
+        for (int lane = 0; lane < lanes.length; lane++) {
+            sliceCounts[lane] = lanes[lane].publishedSize();
+        }
+        setLaneCount(lanes.length);
+        fitAll();
+    }
+
+    // Picks up slices published since the last call, e.g. once per frame during a run
+    public void refresh() {
+        if (lanes == null) {
+            return;
+        }
+        boolean changed = false;
+        for (int lane = 0; lane < lanes.length; lane++) {
+            int published = lanes[lane].publishedSize();
+            if (published != sliceCounts[lane]) {
+                sliceCounts[lane] = published;
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return;
+        }
+        if (following) {
+            fitAll();
+        } else {
+            redraw();
+        }
+    }
+
+    public void clear() {
+        lanes = null;
+        labels = null;
+        sliceCounts = null;
+        cursorTime = Double.NaN;
+        setLaneCount(1);
+        redraw();
+    }
+
+    private void setLaneCount(int count) {
+        laneHeight = count == 1 ? BAR_HEIGHT : Math.max(1, Math.min(24, Math.floor(LANES_HEIGHT / count)));
+        laneGap = laneHeight >= 8 ? 2 : 0;
+        double height = BAR_TOP + count * (laneHeight + laneGap) + AXIS_HEIGHT;
+        setPrefHeight(height);
+        setMinHeight(height);
+    }
+
+    public void fitAll() {
+        viewStart = 0;
+        double width = Math.max(canvas.getWidth(), 1);
+        timePerPixel = Math.max(getEndTime(), 1) / width;
+        following = true;
+        redraw();
+    }
+
+    // Zooms by factor (> 1 zooms out) keeping the time under pixel x in place
+    public void zoom(double factor, double x) {
+        double anchor = viewStart + x * timePerPixel;
+        double maxTimePerPixel = Math.max(getEndTime(), 1) / Math.max(canvas.getWidth(), 1);
+        timePerPixel = Math.max(1e-3, Math.min(maxTimePerPixel, timePerPixel * factor));
+        viewStart = clampViewStart(anchor - x * timePerPixel);
+        following = false;
+        redraw();
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double width = snapSizeX(getWidth());
+        double height = snapSizeY(getHeight());
+        if (width != canvas.getWidth() || height != canvas.getHeight()) {
+            double oldWidth = canvas.getWidth();
+            canvas.setWidth(width);
+            canvas.setHeight(height);
+            if (oldWidth <= 0) {
+                fitAll();
+            } else {
+                redraw();
+            }
+        }
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        return 800;
+    }
+
+    // The slice under a point of the chart, or null over idle time or outside the lanes
+    private String describeSliceAt(double x, double y) {
+        if (lanes == null || y < BAR_TOP) {
+            return null;
+        }
+        int lane = (int) ((y - BAR_TOP) / (laneHeight + laneGap));
+        if (lane >= lanes.length || y - BAR_TOP - lane * (laneHeight + laneGap) > laneHeight) {
+            return null;
+        }
+        int slice = lanes[lane].sliceAt(viewStart + x * timePerPixel, 0, sliceCounts[lane]);
+        if (slice < 0) {
+            return null;
+        }
+        int process = lanes[lane].process(slice);
+        String text = labels.apply(process) + " on " + laneName(lane) + ": " + lanes[lane].startTime(slice) + " to "
+            + lanes[lane].endTime(slice);
+        if (lanes[lane] instanceof ExecutionTrace) {
+            // Which of the process's runs on this lane it is, from the trace's per-process index
+            ExecutionTrace trace = (ExecutionTrace) lanes[lane];
+            text += " (" + (trace.sliceRankOf(slice) + 1) + " of " + trace.sliceCountOf(process) + " here)";
+        }
+        return text;
+    }
+
+    private String laneName(int lane) {
+        return lane >= cpuLanes ? "I/O " + (lane - cpuLanes + 1) : "CPU " + (lane + 1);
+    }
+
+    // What every lane was doing at time, e.g. for a timeline scrubber
+    public String describeTime(long time) {
+        if (lanes == null) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder("At ").append(time).append(':');
+        for (int lane = 0; lane < lanes.length; lane++) {
+            int slice = lanes[lane].sliceAt(time, 0, sliceCounts[lane]);
+            text.append(lane == 0 ? " " : ", ").append(laneName(lane)).append(' ')
+                .append(slice < 0 ? "idle" : labels.apply(lanes[lane].process(slice)));
+        }
+        return text.toString();
+    }
+
+    // Marks time with a line, scrolling it into view; NaN removes the mark
+    public void setCursorTime(double time) {
+        cursorTime = time;
+        double visible = canvas.getWidth() * timePerPixel;
+        if (!Double.isNaN(time) && (time < viewStart || time > viewStart + visible)) {
+            viewStart = clampViewStart(time - visible / 2);
+            following = false;
+        }
+        redraw();
+    }
+
+    private double clampViewStart(double start) {
+        double visible = canvas.getWidth() * timePerPixel;
+        double max = Math.max(0, getEndTime() - visible);
+        return Math.max(0, Math.min(max, start));
+    }
+
+    public void redraw() {
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        g.setFill(Color.WHITE);
+        g.fillRect(0, 0, width, height);
+        if (lanes == null || width <= 0) {
+            return;
+        }
+
+        g.setFont(labelFont);
+        g.setTextBaseline(VPos.CENTER);
+        g.setTextAlign(TextAlignment.CENTER);
+        for (int lane = 0; lane < lanes.length; lane++) {
+            double top = BAR_TOP + lane * (laneHeight + laneGap);
+            boolean io = lane >= cpuLanes;
+            if (io && lane == cpuLanes) {
+                g.setStroke(Color.GRAY);
+                g.strokeLine(0, top - laneGap / 2 - 0.5, width, top - laneGap / 2 - 0.5);
+            }
+            drawLane(g, lanes[lane], sliceCounts[lane], top, width, io);
+            if (lanes.length > 1 && laneHeight >= MIN_LABEL_HEIGHT) {
+                g.setFill(Color.GRAY);
+                g.setTextAlign(TextAlignment.LEFT);
+                g.fillText(laneName(lane), 2, top + laneHeight / 2);
+                g.setTextAlign(TextAlignment.CENTER);
+            }
+        }
+        drawAxis(g, width, BAR_TOP + lanes.length * (laneHeight + laneGap) + 6);
+        if (!Double.isNaN(cursorTime)) {
+            double x = Math.floor((cursorTime - viewStart) / timePerPixel) + 0.5;
+            g.setStroke(Color.RED);
+            g.strokeLine(x, 0, x, BAR_TOP + lanes.length * (laneHeight + laneGap));
+        }
+    }
+
+    private void drawLane(GraphicsContext g, TraceView trace, int sliceCount, double top, double width,
+                          boolean io) {
+        int columns = (int) Math.ceil(width);
+        int slice = trace.firstSliceEndingAfter(viewStart, 0, sliceCount);
+        int x = 0;
+        while (x < columns && slice < sliceCount) {
+            double columnStart = viewStart + x * timePerPixel;
+            double columnEnd = columnStart + timePerPixel;
+            if (trace.startTime(slice) >= columnEnd) {
+                // Idle column, skip straight to the column where the next slice begins
+                x = Math.max(x + 1, (int) Math.floor((trace.startTime(slice) - viewStart) / timePerPixel));
+                continue;
+            }
+
+            // The process at the middle of the column owns it
+            double middle = columnStart + timePerPixel / 2;
+            int owner = slice;
+            if (trace.endTime(slice) <= middle) {
+                owner = trace.sliceAt(middle, slice, sliceCount);
+                if (owner < 0) {
+                    owner = slice;
+                }
+            }
+            int process = trace.process(owner);
+
+            // Extend over following columns owned by the same process
+            int runEnd = x + 1;
+            int cursor = owner;
+            while (runEnd < columns) {
+                double nextMiddle = viewStart + (runEnd + 0.5) * timePerPixel;
+                if (trace.endTime(cursor) <= nextMiddle) {
+                    int next = trace.sliceAt(nextMiddle, cursor, sliceCount);
+                    if (next < 0 || trace.process(next) != process) {
+                        break;
+                    }
+                    cursor = next;
+                }
+                runEnd++;
+            }
+
+            drawBar(g, trace, owner, process, x, runEnd, top, io);
+            x = runEnd;
+            slice = trace.firstSliceEndingAfter(viewStart + x * timePerPixel, cursor, sliceCount);
+        }
+    }
+
+    private void drawBar(GraphicsContext g, TraceView trace, int slice, int process, int fromColumn,
+                         int toColumn, double top, boolean io) {
+        double left = fromColumn;
+        double barWidth = toColumn - fromColumn;
+        g.setFill(io ? ioColorOf(process) : colorOf(process));
+        g.fillRect(left, top, barWidth, laneHeight);
+
+        // Outline and label only bars that are a single real slice and wide enough
+        double sliceLeft = (trace.startTime(slice) - viewStart) / timePerPixel;
+        double sliceRight = (trace.endTime(slice) - viewStart) / timePerPixel;
+        if (sliceRight - sliceLeft >= 3 && laneHeight >= 4) {
+            g.setStroke(Color.BLACK);
+            g.strokeRect(Math.max(sliceLeft, -1) + 0.5, top + 0.5,
+                Math.min(sliceRight, canvas.getWidth() + 1) - Math.max(sliceLeft, -1) - 1, laneHeight - 1);
+        }
+        if (barWidth >= MIN_LABEL_WIDTH && laneHeight >= MIN_LABEL_HEIGHT) {
+            g.setFill(Color.BLACK);
+            double center = left + barWidth / 2;
+            g.fillText(labels.apply(process), center, top + laneHeight / 2, barWidth - 4);
+        }
+    }
+
+    private void drawAxis(GraphicsContext g, double width, double axisTop) {
+        g.setStroke(Color.GRAY);
+        g.setFill(Color.BLACK);
+        g.strokeLine(0, axisTop + 0.5, width, axisTop + 0.5);
+
+        // Ticks roughly every 100 px on a 1-2-5 scale
+        double rawStep = timePerPixel * 100;
+        double magnitude = Math.pow(10, Math.floor(Math.log10(rawStep)));
+        double step = magnitude;
+        for (double candidate : new double[] {1, 2, 5, 10}) {
+            step = candidate * magnitude;
+            if (step >= rawStep) {
+                break;
+            }
+        }
+        step = Math.max(1, Math.round(step));
+        double first = Math.ceil(viewStart / step) * step;
+        for (double t = first; (t - viewStart) / timePerPixel <= width; t += step) {
+            double x = Math.floor((t - viewStart) / timePerPixel) + 0.5;
+            g.strokeLine(x, axisTop, x, axisTop + 5);
+            g.fillText(String.valueOf((long) t), x, axisTop + 14);
+        }
+    }
+
+    // End of the last slice shown in any lane, or 0
+    public long getEndTime() {
+        long end = 0;
+        if (lanes != null) {
+            for (int lane = 0; lane < lanes.length; lane++) {
+                if (sliceCounts[lane] > 0) {
+                    end = Math.max(end, lanes[lane].endTime(sliceCounts[lane] - 1));
+                }
+            }
+        }
+        return end;
+    }
+
+    // Stable, well spread color per process index
+    static Color colorOf(int process) {
+        double hue = (process * 137.508) % 360;
+        return Color.hsb(hue, 0.45, 0.95);
+    }
+
+    // The process's color, paler, for its I/O bursts
+    static Color ioColorOf(int process) {
+        double hue = (process * 137.508) % 360;
+        return Color.hsb(hue, 0.18, 1.0);
+    }
+}
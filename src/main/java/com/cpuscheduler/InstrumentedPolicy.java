@@ -0,0 +1,131 @@
+package com.cpuscheduler;
+
+/**
+ * Wraps a policy to count its queue operations and events and time its calls.
+ * The event loop only wraps its policies when EngineStats.ENABLED, so with
+ * instrumentation off its calls go straight to the policy.
+ */
+final class InstrumentedPolicy implements SchedulingPolicy {
+    private final SchedulingPolicy policy;
+    private final EngineStats stats;
+
+    InstrumentedPolicy(SchedulingPolicy policy, EngineStats stats) {
+        this.policy = policy;
+        this.stats = stats;
+    }
+
+    @Override
+    public void onArrival(int process, long time) {
+        long started = System.nanoTime();
+        policy.onArrival(process, time);
+        stats.events++;
+        stats.queueOperations++;
+        stats.add(EngineStats.Phase.ADMISSION, started);
+    }
+
+    @Override
+    public int pickNext(long time) {
+        long started = System.nanoTime();
+        int process = policy.pickNext(time);
+        stats.queueOperations++;
+        stats.add(EngineStats.Phase.SELECTION, started);
+        return process;
+    }
+
+    @Override
+    public int peekNext(long time) {
+        long started = System.nanoTime();
+        int process = policy.peekNext(time);
+        stats.queueOperations++;
+        stats.add(EngineStats.Phase.SELECTION, started);
+        return process;
+    }
+
+    @Override
+    public int size() {
+        return policy.size();
+    }
+
+    @Override
+    public long timeSlice(int process, long time) {
+        long started = System.nanoTime();
+        long slice = policy.timeSlice(process, time);
+        stats.add(EngineStats.Phase.SELECTION, started);
+        return slice;
+    }
+
+    @Override
+    public void onQuantumExpired(int process, long time) {
+        long started = System.nanoTime();
+        policy.onQuantumExpired(process, time);
+        stats.events++;
+        stats.queueOperations++;
+        stats.add(EngineStats.Phase.SELECTION, started);
+    }
+
+    @Override
+    public boolean isPreemptive() {
+        return policy.isPreemptive();
+    }
+
+    @Override
+    public boolean precedes(int a, int b, long time) {
+        long started = System.nanoTime();
+        boolean precedes = policy.precedes(a, b, time);
+        stats.add(EngineStats.Phase.SELECTION, started);
+        return precedes;
+    }
+
+    @Override
+    public long overtakeTime(int running, long time) {
+        long started = System.nanoTime();
+        long overtakeTime = policy.overtakeTime(running, time);
+        stats.add(EngineStats.Phase.SELECTION, started);
+        return overtakeTime;
+    }
+
+    @Override
+    public void onPreempt(int process, long time) {
+        long started = System.nanoTime();
+        policy.onPreempt(process, time);
+        stats.events++;
+        stats.queueOperations++;
+        stats.preemptions++;
+        stats.add(EngineStats.Phase.SELECTION, started);
+    }
+
+    @Override
+    public void onCompletion(int process, long time) {
+        long started = System.nanoTime();
+        policy.onCompletion(process, time);
+        stats.events++;
+        stats.add(EngineStats.Phase.SELECTION, started);
+    }
+
+    @Override
+    public void onBlock(int process, long time) {
+        long started = System.nanoTime();
+        policy.onBlock(process, time);
+        stats.events++;
+        stats.add(EngineStats.Phase.SELECTION, started);
+    }
+
+    @Override
+    public void onWake(int process, long time) {
+        long started = System.nanoTime();
+        policy.onWake(process, time);
+        stats.events++;
+        stats.queueOperations++;
+        stats.add(EngineStats.Phase.ADMISSION, started);
+    }
+
+    @Override
+    public State saveState() {
+        return policy.saveState();
+    }
+
+    @Override
+    public void restoreState(State state) {
+        policy.restoreState(state);
+    }
+}
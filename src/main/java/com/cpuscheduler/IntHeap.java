@@ -0,0 +1,113 @@
+package com.cpuscheduler;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary min-heap of int handles (process indices or slots) ordered by an
+ * external long[] key table, then by an optional tie-break table, then by the
+ * handle itself. Callers write the keys of a handle before adding it and must
+ * not change them while the handle is in the heap.
+ */
+public class IntHeap {
+    private final long[] keys;
+    private final long[] ties;
+    private int[] heap;
+    private int size;
+
+    public IntHeap(long[] keys) {
+        this(keys, null, 16);
+    }
+
+    public IntHeap(long[] keys, long[] ties, int capacity) {
+        this.keys = keys;
+        this.ties = ties;
+        this.heap = new int[Math.max(capacity, 2)];
+    }
+
+    public void add(int value) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        siftUp(size++, value);
+    }
+
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int top = heap[0];
+        int last = heap[--size];
+        if (size > 0) {
+            siftDown(0, last);
+        }
+        return top;
+    }
+
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return heap[0];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    // Heap order: every value comes after its parent, so adding them back never sifts
+    public int[] toArray() {
+        return Arrays.copyOf(heap, size);
+    }
+
+    private boolean less(int a, int b) {
+        long ka = keys[a];
+        long kb = keys[b];
+        if (ka != kb) {
+            return ka < kb;
+        }
+        if (ties != null && ties[a] != ties[b]) {
+            return ties[a] < ties[b];
+        }
+        return a < b;
+    }
+
+    private void siftUp(int pos, int value) {
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            int p = heap[parent];
+            if (!less(value, p)) {
+                break;
+            }
+            heap[pos] = p;
+            pos = parent;
+        }
+        heap[pos] = value;
+    }
+
+    private void siftDown(int pos, int value) {
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int c = heap[child];
+            int right = child + 1;
+            if (right < size && less(heap[right], c)) {
+                c = heap[child = right];
+            }
+            if (!less(c, value)) {
+                break;
+            }
+            heap[pos] = c;
+            pos = child;
+        }
+        heap[pos] = value;
+    }
+}
@@ -0,0 +1,74 @@
+package com.cpuscheduler;
+
+import java.util.NoSuchElementException;
+
+// Growable FIFO of ints backed by a power-of-two circular array
+public class IntRingBuffer {
+    private int[] elements;
+    private int head;
+    private int size;
+
+    public IntRingBuffer() {
+        this(16);
+    }
+
+    public IntRingBuffer(int capacity) {
+        this.elements = new int[Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1];
+    }
+
+    public void add(int value) {
+        if (size == elements.length) {
+            grow();
+        }
+        elements[(head + size) & (elements.length - 1)] = value;
+        size++;
+    }
+
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int value = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return value;
+    }
+
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return elements[head];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    // Contents in queue order, which rebuilds an equal queue when added back one by one
+    public int[] toArray() {
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = elements[(head + i) & (elements.length - 1)];
+        }
+        return values;
+    }
+
+    private void grow() {
+        int[] grown = new int[elements.length * 2];
+        int firstPart = elements.length - head;
+        System.arraycopy(elements, head, grown, 0, firstPart);
+        System.arraycopy(elements, 0, grown, firstPart, head);
+        elements = grown;
+        head = 0;
+    }
+}
@@ -0,0 +1,93 @@
+package com.cpuscheduler;
+
+import java.util.Arrays;
+
+/**
+ * The simulated I/O devices of one run. Each device serves one I/O burst at a
+ * time in request order and queues the rest in a ring buffer. Devices that are
+ * busy sit in a heap keyed by the end of their current burst, so the next
+ * wakeup is found in O(1) and each block or wake costs O(log devices); the
+ * event loop interleaves wakeups with arrivals in time order.
+ */
+final class IoDevices {
+    private final SimulationResult result;
+    private final int[] ioStarts;
+    private final long[] ioTimes;
+    private final byte[] ioDevices;
+    private final long[] cpuAfterIo;
+
+    // Per process: its next I/O burst and since when it has been blocked
+    private final int[] nextBursts;
+    private final long[] blockedSince;
+
+    // Per device: the process being served (-1 when idle), when its burst ends, and who waits
+    private final int[] serving;
+    private final long[] doneAt;
+    private final IntRingBuffer[] queues;
+    private final IntHeap busy;
+
+    IoDevices(SimulationResult result) {
+        Workload workload = result.getWorkload();
+        this.result = result;
+        this.ioStarts = workload.ioStarts;
+        this.ioTimes = workload.ioTimes;
+        this.ioDevices = workload.ioDevices;
+        this.cpuAfterIo = workload.cpuAfterIo;
+        this.nextBursts = Arrays.copyOf(ioStarts, workload.size());
+        this.blockedSince = new long[workload.size()];
+
+        int devices = workload.deviceCount();
+        this.serving = new int[devices];
+        Arrays.fill(serving, -1);
+        this.doneAt = new long[devices];
+        this.queues = new IntRingBuffer[devices];
+        for (int device = 0; device < devices; device++) {
+            queues[device] = new IntRingBuffer();
+        }
+        this.busy = new IntHeap(doneAt, null, devices);
+    }
+
+    // Called when the process's CPU burst ends at time: starts its next I/O burst and returns true,
+    // or returns false if it has none left and is finished
+    boolean block(int process, long time) {
+        int burst = nextBursts[process];
+        if (burst == ioStarts[process + 1]) {
+            return false;
+        }
+        result.remainingTimes[process] = cpuAfterIo[burst];
+        blockedSince[process] = time;
+        int device = ioDevices[burst];
+        if (serving[device] == -1) {
+            serve(device, process, time);
+        } else {
+            queues[device].add(process);
+        }
+        return true;
+    }
+
+    // End of the earliest I/O burst in progress, or Long.MAX_VALUE when every device is idle
+    long nextWakeTime() {
+        return busy.isEmpty() ? Long.MAX_VALUE : doneAt[busy.peek()];
+    }
+
+    // Ends the earliest I/O burst and returns its process, which is runnable again from nextWakeTime()
+    int wakeNext() {
+        int device = busy.poll();
+        int process = serving[device];
+        long end = doneAt[device];
+        int burst = nextBursts[process]++;
+        result.addIoStep(device, process, end - ioTimes[burst], end);
+        result.addBlockedTime(process, end - blockedSince[process]);
+        serving[device] = -1;
+        if (!queues[device].isEmpty()) {
+            serve(device, queues[device].poll(), end);
+        }
+        return process;
+    }
+
+    private void serve(int device, int process, long time) {
+        serving[device] = process;
+        doneAt[device] = time + ioTimes[nextBursts[process]];
+        busy.add(device);
+    }
+}
@@ -0,0 +1,134 @@
+package com.cpuscheduler;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size log-linear histogram of non-negative long values, in the style of
+ * HdrHistogram. Values below 256 are counted exactly; above that every power of
+ * two is split into 128 equal buckets, so a reported value is never more than
+ * 1/128 (under 0.8%) above the true one. The whole long range fits in about 57 KB,
+ * recording is O(1) and histograms from separate runs can be merged.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;
+    private static final int BUCKET_COUNT = indexOf(Long.MAX_VALUE) + 1;
+    // Approximate heap bytes of one histogram
+    static final long MEMORY_FOOTPRINT = (long) BUCKET_COUNT * Long.BYTES + 64;
+
+    private final long[] counts;
+    private long totalCount;
+    private long min = Long.MAX_VALUE;
+    private long max;
+    private double sum;
+
+    public LatencyHistogram() {
+        this(BUCKET_COUNT);
+    }
+
+    private LatencyHistogram(int buckets) {
+        this.counts = new long[buckets];
+    }
+
+    public void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative latency: " + value);
+        }
+        counts[indexOf(value)]++;
+        totalCount++;
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    // Copy for checkpoints without the empty buckets above the largest value; only restore reads it
+    LatencyHistogram snapshot() {
+        LatencyHistogram copy = new LatencyHistogram(totalCount == 0 ? 0 : indexOf(max) + 1);
+        System.arraycopy(counts, 0, copy.counts, 0, copy.counts.length);
+        copy.totalCount = totalCount;
+        copy.sum = sum;
+        copy.min = min;
+        copy.max = max;
+        return copy;
+    }
+
+    void restore(LatencyHistogram snapshot) {
+        Arrays.fill(counts, 0);
+        System.arraycopy(snapshot.counts, 0, counts, 0, snapshot.counts.length);
+        totalCount = snapshot.totalCount;
+        sum = snapshot.sum;
+        min = snapshot.min;
+        max = snapshot.max;
+    }
+
+    // Heap bytes actually held, which is less than MEMORY_FOOTPRINT for a snapshot
+    long memoryFootprint() {
+        return (long) counts.length * Long.BYTES + 64;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    public long getCount() { return totalCount; }
+    public long getMin() { return totalCount == 0 ? 0 : min; }
+    public long getMax() { return max; }
+    public double getMean() { return totalCount == 0 ? 0 : sum / totalCount; }
+
+    // Smallest recorded value v such that at least percentile% of values are <= v, within bucket precision
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile out of range: " + percentile);
+        }
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.max(Math.min(highestValueIn(i), max), min);
+            }
+        }
+        return max;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        // value >>> shift lands in [SUB_BUCKET_HALF, SUB_BUCKET_COUNT)
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKET_HALF + (int) (value >>> shift);
+    }
+
+    static long highestValueIn(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF - 1;
+        long subBucket = index - (long) shift * SUB_BUCKET_HALF;
+        long highest = ((subBucket + 1) << shift) - 1;
+        return highest < 0 ? Long.MAX_VALUE : highest;
+    }
+}
@@ -0,0 +1,55 @@
+package com.cpuscheduler;
+
+/**
+ * Waiting, turnaround and response time distributions of one run, updated as
+ * each process completes. Response time is the delay from arrival to first run.
+ */
+public class LatencyStats {
+    private final LatencyHistogram waitingTimes;
+    private final LatencyHistogram turnaroundTimes;
+    private final LatencyHistogram responseTimes;
+
+    public LatencyStats() {
+        this(new LatencyHistogram(), new LatencyHistogram(), new LatencyHistogram());
+    }
+
+    private LatencyStats(LatencyHistogram waitingTimes, LatencyHistogram turnaroundTimes,
+                         LatencyHistogram responseTimes) {
+        this.waitingTimes = waitingTimes;
+        this.turnaroundTimes = turnaroundTimes;
+        this.responseTimes = responseTimes;
+    }
+
+    public void record(long arrivalTime, long burstTime, long startTime, long completionTime) {
+        long turnaroundTime = completionTime - arrivalTime;
+        turnaroundTimes.record(turnaroundTime);
+        waitingTimes.record(turnaroundTime - burstTime);
+        responseTimes.record(startTime - arrivalTime);
+    }
+
+    public void merge(LatencyStats other) {
+        waitingTimes.merge(other.waitingTimes);
+        turnaroundTimes.merge(other.turnaroundTimes);
+        responseTimes.merge(other.responseTimes);
+    }
+
+    // Compact copy for checkpoints, see LatencyHistogram.snapshot
+    LatencyStats snapshot() {
+        return new LatencyStats(waitingTimes.snapshot(), turnaroundTimes.snapshot(), responseTimes.snapshot());
+    }
+
+    void restore(LatencyStats snapshot) {
+        waitingTimes.restore(snapshot.waitingTimes);
+        turnaroundTimes.restore(snapshot.turnaroundTimes);
+        responseTimes.restore(snapshot.responseTimes);
+    }
+
+    long memoryFootprint() {
+        return waitingTimes.memoryFootprint() + turnaroundTimes.memoryFootprint()
+            + responseTimes.memoryFootprint();
+    }
+
+    public LatencyHistogram getWaitingTimes() { return waitingTimes; }
+    public LatencyHistogram getTurnaroundTimes() { return turnaroundTimes; }
+    public LatencyHistogram getResponseTimes() { return responseTimes; }
+}
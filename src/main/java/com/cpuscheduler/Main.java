@@ -1,35 +1,61 @@
 package com.cpuscheduler;
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.scene.paint.Color;
-import javafx.scene.shape.Rectangle;
-import javafx.scene.text.Text;
-import javafx.scene.text.TextAlignment;
+import javafx.collections.transformation.SortedList;
 import javafx.util.StringConverter;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleLongProperty;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
 
 public class Main extends Application {
     private VBox processInputArea;
     private VBox ganttChartArea;
+    private GanttChart ganttChart;
+    private Label scrubberLabel;
     private VBox metricsArea;
     private ComboBox<String> algorithmSelector;
     private TableView<Process> processTable;
+    private ObservableList<Process> processRows;
     private SchedulerSimulator scheduler;
     private TextField quantumField;
+    private TextField mlfqLevelsField;
+    private TextField boostPeriodField;
+    private TextField targetLatencyField;
+    private TextField minGranularityField;
+    private TextField agingIntervalField;
+    private TextField coresField;
+    private CheckBox perCoreQueuesBox;
+    private TextField migrationCostField;
+    private Button simulateButton;
+    private Button cancelButton;
+    private ProgressBar progressBar;
+    private Label progressLabel;
+    private Task<SimulationResult> simulationTask;
+    private SimulationResult runningSimulation;
+    private AnimationTimer progressTimer;
 
     @Override
     public void start(Stage primaryStage) {
         scheduler = new SchedulerSimulator();
+        // Up to a quarter of the heap keeps earlier runs, so rerunning or switching back is instant
+        scheduler.setResultCache(new ResultCache(Runtime.getRuntime().maxMemory() / 4));
         
         BorderPane mainLayout = new BorderPane();
         
@@ -59,7 +85,11 @@ public class Main extends Application {
             "First Come First Serve (FCFS)",
             "Shortest Job First (SJF)",
             "Shortest Remaining Time First (SRTF)",
-            "Round Robin"
+            "Round Robin",
+            "Multilevel Feedback Queue (MLFQ)",
+            "Completely Fair Scheduler (CFS)",
+            "Priority (Non-Preemptive)",
+            "Priority (Preemptive)"
         ));
         algorithmSelector.setValue("First Come First Serve (FCFS)");
         
@@ -67,18 +97,70 @@ public class Main extends Application {
         quantumField = new TextField();
         quantumField.setPromptText("Time Quantum");
         quantumField.setVisible(false);
+        // MLFQ: the time quantum is the top level's, doubling at every level below
+        mlfqLevelsField = new TextField("3");
+        mlfqLevelsField.setPromptText("Levels");
+        mlfqLevelsField.setPrefColumnCount(4);
+        boostPeriodField = new TextField("100");
+        boostPeriodField.setPromptText("Boost Period (0 = never)");
+        boostPeriodField.setPrefColumnCount(6);
+        HBox mlfqBox = new HBox(10,
+            new Label("Levels:"), mlfqLevelsField,
+            new Label("Boost Period:"), boostPeriodField);
+        mlfqBox.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
+        mlfqBox.setVisible(false);
+        // CFS: slices share out the target latency by nice weight
+        targetLatencyField = new TextField("24");
+        targetLatencyField.setPrefColumnCount(4);
+        minGranularityField = new TextField("3");
+        minGranularityField.setPrefColumnCount(4);
+        HBox cfsBox = new HBox(10,
+            new Label("Target Latency:"), targetLatencyField,
+            new Label("Min Granularity:"), minGranularityField);
+        cfsBox.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
+        cfsBox.setVisible(false);
+        cfsBox.managedProperty().bind(cfsBox.visibleProperty());
+        mlfqBox.managedProperty().bind(mlfqBox.visibleProperty());
+        // Priority: nice values, waiting processes gain a level every aging interval
+        agingIntervalField = new TextField("10");
+        agingIntervalField.setPrefColumnCount(4);
+        HBox priorityBox = new HBox(10, new Label("Aging Interval (0 = never):"), agingIntervalField);
+        priorityBox.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
+        priorityBox.setVisible(false);
+        priorityBox.managedProperty().bind(priorityBox.visibleProperty());
         
         algorithmSelector.setOnAction(e -> {
-            quantumField.setVisible(algorithmSelector.getValue().contains("Round Robin"));
+            boolean mlfq = algorithmSelector.getValue().contains("MLFQ");
+            quantumField.setVisible(mlfq || algorithmSelector.getValue().contains("Round Robin"));
+            mlfqBox.setVisible(mlfq);
+            cfsBox.setVisible(algorithmSelector.getValue().contains("CFS"));
+            priorityBox.setVisible(algorithmSelector.getValue().startsWith("Priority"));
         });
         
         algorithmBox.getChildren().addAll(
             new Label("Select Algorithm:"), 
             algorithmSelector,
-            quantumField
+            quantumField,
+            mlfqBox,
+            cfsBox,
+            priorityBox
         );
         
-        topArea.getChildren().addAll(titleLabel, algorithmBox);
+        coresField = new TextField("1");
+        coresField.setPrefColumnCount(4);
+        perCoreQueuesBox = new CheckBox("Per-core queues with work stealing");
+        migrationCostField = new TextField("0");
+        migrationCostField.setPrefColumnCount(4);
+        
+        HBox coresBox = new HBox(10);
+        coresBox.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
+        coresBox.getChildren().addAll(
+            new Label("CPU Cores:"), coresField,
+            perCoreQueuesBox,
+            new Label("Migration Cost:"), migrationCostField
+        );
+        
+        topArea.getChildren().addAll(titleLabel, algorithmBox, coresBox);
         return topArea;
     }
 
@@ -93,28 +175,56 @@ public class Main extends Application {
         TextField processIdField = new TextField();
         TextField arrivalTimeField = new TextField();
         TextField burstTimeField = new TextField();
+        burstTimeField.setPromptText("5, or CPU;IO;CPU e.g. 5;3@2;4");
+        TextField niceField = new TextField();
+        niceField.setPromptText("0");
         
         inputGrid.addRow(0, new Label("Process ID:"), processIdField);
         inputGrid.addRow(1, new Label("Arrival Time:"), arrivalTimeField);
         inputGrid.addRow(2, new Label("Burst Time:"), burstTimeField);
+        inputGrid.addRow(3, new Label("Nice (-20 to 19):"), niceField);
         
         Button addProcessButton = new Button("Add Process");
         addProcessButton.setOnAction(e -> {
             try {
-                String processId = processIdField.getText();
-                int arrivalTime = Integer.parseInt(arrivalTimeField.getText());
-                int burstTime = Integer.parseInt(burstTimeField.getText());
-                
-                Process process = new Process(processId, arrivalTime, burstTime);
-                scheduler.addProcess(process);
+                scheduler.addProcess(readProcess(processIdField, arrivalTimeField, burstTimeField, niceField));
                 updateProcessTable();
                 
                 processIdField.clear();
                 arrivalTimeField.clear();
                 burstTimeField.clear();
-            } catch (NumberFormatException ex) {
-                showAlert("Invalid Input", "Please enter valid numbers for arrival and burst times.");
+                niceField.clear();
+            } catch (IllegalArgumentException ex) {
+                showInvalidProcess();
+            }
+        });
+        
+        // Edits keep the last runs, which continue from their last checkpoint before the edited process
+        Button updateProcessButton = new Button("Update Selected");
+        updateProcessButton.setOnAction(e -> {
+            int index = selectedProcessRow();
+            if (index < 0) {
+                showAlert("Error", "Please select a process to update.");
+                return;
             }
+            try {
+                Process process = readProcess(processIdField, arrivalTimeField, burstTimeField, niceField);
+                scheduler.replaceProcess(index, process);
+                updateProcessTable();
+            } catch (IllegalArgumentException ex) {
+                showInvalidProcess();
+            }
+        });
+        
+        Button removeProcessButton = new Button("Remove Selected");
+        removeProcessButton.setOnAction(e -> {
+            int index = selectedProcessRow();
+            if (index < 0) {
+                showAlert("Error", "Please select a process to remove.");
+                return;
+            }
+            scheduler.removeProcess(index);
+            updateProcessTable();
         });
         
         processTable = new TableView<>();
@@ -124,35 +234,71 @@ public class Main extends Application {
         idColumn.setCellValueFactory(cellData -> 
             new SimpleStringProperty(cellData.getValue().getProcessId()));
         
-        TableColumn<Process, Integer> arrivalColumn = new TableColumn<>("Arrival Time");
+        TableColumn<Process, Long> arrivalColumn = new TableColumn<>("Arrival Time");
         arrivalColumn.setCellValueFactory(cellData -> 
-            new SimpleIntegerProperty(cellData.getValue().getArrivalTime()).asObject());
+            new SimpleLongProperty(cellData.getValue().getArrivalTime()).asObject());
         
-        TableColumn<Process, Integer> burstColumn = new TableColumn<>("Burst Time");
+        TableColumn<Process, Long> burstColumn = new TableColumn<>("Burst Time");
         burstColumn.setCellValueFactory(cellData -> 
-            new SimpleIntegerProperty(cellData.getValue().getBurstTime()).asObject());
+            new SimpleLongProperty(cellData.getValue().getBurstTime()).asObject());
+        
+        TableColumn<Process, String> ioColumn = new TableColumn<>("CPU;I/O Bursts");
+        ioColumn.setCellValueFactory(cellData ->
+            new SimpleStringProperty(cellData.getValue().hasIo() ? cellData.getValue().getBursts().toString() : ""));
+        
+        TableColumn<Process, Long> niceColumn = new TableColumn<>("Nice");
+        niceColumn.setCellValueFactory(cellData -> 
+            new SimpleLongProperty(cellData.getValue().getNice()).asObject());
         
         processTable.getColumns().add(idColumn);
         processTable.getColumns().add(arrivalColumn);
         processTable.getColumns().add(burstColumn);
+        processTable.getColumns().add(ioColumn);
+        processTable.getColumns().add(niceColumn);
+        processTable.setSortPolicy(this::sortProcessTable);
+        updateProcessTable();
+        
+        // Selecting a process fills in its details, ready to update
+        processTable.getSelectionModel().selectedItemProperty().addListener((observable, previous, process) -> {
+            if (process != null) {
+                processIdField.setText(process.getProcessId());
+                arrivalTimeField.setText(Long.toString(process.getArrivalTime()));
+                burstTimeField.setText(process.hasIo() ? process.getBursts().toString()
+                    : Long.toString(process.getBurstTime()));
+                niceField.setText(Integer.toString(process.getNice()));
+            }
+        });
         
         Button clearButton = new Button("Clear All");
         clearButton.setOnAction(e -> {
+            cancelSimulation();
             scheduler.clearProcesses();
             updateProcessTable();
             clearVisualization();
         });
         
-        Button simulateButton = new Button("Run Simulation");
+        simulateButton = new Button("Run Simulation");
         simulateButton.setOnAction(e -> runSimulation());
         
+        cancelButton = new Button("Cancel");
+        cancelButton.setDisable(true);
+        cancelButton.setOnAction(e -> cancelSimulation());
+        
+        progressBar = new ProgressBar(0);
+        progressBar.setVisible(false);
+        progressLabel = new Label();
+        
         HBox buttonBox = new HBox(10);
-        buttonBox.getChildren().addAll(addProcessButton, clearButton, simulateButton);
+        buttonBox.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
+        buttonBox.getChildren().addAll(addProcessButton, updateProcessButton, removeProcessButton, clearButton,
+            simulateButton,
+            cancelButton, progressBar, progressLabel);
         
         inputArea.getChildren().addAll(
             new Label("Add Process Details:"),
             inputGrid,
             buttonBox,
+            createGeneratorBox(),
             new Separator(),
             processTable
         );
@@ -160,6 +306,52 @@ public class Main extends Application {
         return inputArea;
     }
 
+    private HBox createGeneratorBox() {
+        TextField countField = new TextField("1000");
+        countField.setPrefColumnCount(8);
+        ComboBox<WorkloadGenerator.ArrivalPattern> arrivalSelector = new ComboBox<>(
+            FXCollections.observableArrayList(WorkloadGenerator.ArrivalPattern.values()));
+        arrivalSelector.setValue(WorkloadGenerator.ArrivalPattern.POISSON);
+        ComboBox<WorkloadGenerator.BurstDistribution> burstSelector = new ComboBox<>(
+            FXCollections.observableArrayList(WorkloadGenerator.BurstDistribution.values()));
+        burstSelector.setValue(WorkloadGenerator.BurstDistribution.EXPONENTIAL);
+        TextField seedField = new TextField("42");
+        seedField.setPrefColumnCount(6);
+        
+        Button generateButton = new Button("Generate");
+        generateButton.setOnAction(e -> {
+            try {
+                int count = Integer.parseInt(countField.getText());
+                long seed = Long.parseLong(seedField.getText());
+                if (count <= 0) throw new NumberFormatException();
+                
+                // Mean inter-arrival 11 and mean burst 10 keep the CPU at about 90% load
+                Workload workload = WorkloadGenerator.builder()
+                    .arrivals(arrivalSelector.getValue(), 11)
+                    .bursts(burstSelector.getValue(), 10)
+                    .seed(seed)
+                    .build()
+                    .generate(count);
+                cancelSimulation();
+                scheduler.setWorkload(workload);
+                updateProcessTable();
+                clearVisualization();
+            } catch (NumberFormatException ex) {
+                showAlert("Invalid Input", "Please enter a positive process count and an integer seed.");
+            }
+        });
+        
+        HBox generatorBox = new HBox(10);
+        generatorBox.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
+        generatorBox.getChildren().addAll(
+            new Label("Generate:"), countField,
+            new Label("Arrivals:"), arrivalSelector,
+            new Label("Bursts:"), burstSelector,
+            new Label("Seed:"), seedField,
+            generateButton);
+        return generatorBox;
+    }
+
     private VBox createBottomArea() {
         VBox bottomArea = new VBox(10);
         bottomArea.setPadding(new Insets(10));
@@ -167,13 +359,32 @@ public class Main extends Application {
         ganttChartArea = new VBox();
         ganttChartArea.setStyle("-fx-border-color: black; -fx-border-width: 1px;");
         ganttChartArea.setPadding(new Insets(10));
+        ganttChart = new GanttChart();
+        // The scrubber runs over the whole trace, however far it has grown
+        Slider scrubber = new Slider(0, 1, 0);
+        scrubber.setTooltip(new Tooltip("Drag to see what ran at each moment"));
+        scrubberLabel = new Label();
+        scrubber.valueProperty().addListener((observable, oldValue, value) -> {
+            long time = Math.round(value.doubleValue() * ganttChart.getEndTime());
+            ganttChart.setCursorTime(time);
+            scrubberLabel.setText(ganttChart.describeTime(time));
+        });
+        ganttChartArea.getChildren().addAll(ganttChart, scrubber, scrubberLabel);
         
         metricsArea = new VBox(5);
         metricsArea.setPadding(new Insets(10));
         metricsArea.setStyle("-fx-border-color: black; -fx-border-width: 1px;");
         
+        Button saveTraceButton = new Button("Save Trace...");
+        saveTraceButton.setOnAction(e -> saveTrace());
+        Button openTraceButton = new Button("Open Trace...");
+        openTraceButton.setOnAction(e -> openTrace());
+        HBox ganttHeader = new HBox(10);
+        ganttHeader.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
+        ganttHeader.getChildren().addAll(new Label("Gantt Chart:"), saveTraceButton, openTraceButton);
+        
         bottomArea.getChildren().addAll(
-            new Label("Gantt Chart:"),
+            ganttHeader,
             ganttChartArea,
             new Separator(),
             new Label("Metrics:"),
@@ -183,13 +394,125 @@ public class Main extends Application {
         return bottomArea;
     }
 
+    private FileChooser traceChooser() {
+        FileChooser chooser = new FileChooser();
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Binary traces", "*.bin"));
+        return chooser;
+    }
+
+    private void saveTrace() {
+        SimulationResult result = scheduler.getLastResult();
+        if (result == null || simulationTask != null) {
+            showAlert("Error", "Please run a simulation first.");
+            return;
+        }
+        File file = traceChooser().showSaveDialog(ganttChart.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        try (TraceFile.Writer writer = TraceFile.writer(file.toPath())) {
+            writer.write(result.getAlgorithm().getDisplayName(), result);
+        } catch (IOException ex) {
+            showAlert("Error", "Could not save the trace: " + ex.getMessage());
+        }
+    }
+
+    // Shows a run of a binary trace file straight from its mapping; processes are labelled by index
+    private void openTrace() {
+        File file = traceChooser().showOpenDialog(ganttChart.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        TraceFile traces;
+        try {
+            traces = TraceFile.open(file.toPath());
+        } catch (IOException ex) {
+            showAlert("Error", "Could not open the trace: " + ex.getMessage());
+            return;
+        }
+        if (traces.runCount() == 0) {
+            showAlert("Error", "The trace file holds no runs.");
+            return;
+        }
+        TraceFile.Run run = traces.run(0);
+        if (traces.runCount() > 1) {
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < traces.runCount(); i++) {
+                names.add(traces.run(i).getName());
+            }
+            ChoiceDialog<String> dialog = new ChoiceDialog<>(names.get(0), names);
+            dialog.setHeaderText("Select a run");
+            Optional<String> name = dialog.showAndWait();
+            if (!name.isPresent()) {
+                return;
+            }
+            run = traces.run(names.indexOf(name.get()));
+        }
+        cancelSimulation();
+        ganttChart.setTraces(run.getTraces(), run.getIoTraces(), process -> "P" + (process + 1));
+        long slices = 0;
+        for (TraceView lane : run.getTraces()) {
+            slices += lane.publishedSize();
+        }
+        metricsArea.getChildren().setAll(
+            new Label("Trace: " + run.getName() + " from " + file.getName()),
+            new Label("Cores: " + run.getCores() + ", I/O devices: " + run.getDevices() + ", CPU slices: " + slices));
+    }
+
+    // The process described by the input fields; IllegalArgumentException if one is not valid
+    private Process readProcess(TextField processIdField, TextField arrivalTimeField, TextField burstTimeField,
+                                TextField niceField) {
+        String processId = processIdField.getText();
+        long arrivalTime = Long.parseLong(arrivalTimeField.getText());
+        String bursts = burstTimeField.getText().trim();
+        int nice = niceField.getText().isBlank() ? 0 : Integer.parseInt(niceField.getText().trim());
+        if (nice < Workload.MIN_NICE || nice > Workload.MAX_NICE) {
+            throw new NumberFormatException();
+        }
+        
+        return bursts.indexOf(';') >= 0
+            ? new Process(processId, arrivalTime, BurstSequence.parse(bursts), nice)
+            : new Process(processId, arrivalTime, Long.parseLong(bursts), nice);
+    }
+
+    private void showInvalidProcess() {
+        showAlert("Invalid Input", "Please enter valid numbers for arrival and burst times "
+            + "(or bursts like 5;3@2;4), and a nice value from -20 to 19.");
+    }
+
     private void updateProcessTable() {
-        ObservableList<Process> processes = FXCollections.observableArrayList(scheduler.getProcesses());
-        processTable.setItems(processes);
+        // Wrap the workload view instead of copying it, rows are built as the table scrolls
+        processRows = FXCollections.observableList(scheduler.getProcesses());
+        processTable.setItems(processRows);
+        processTable.sort();
+    }
+
+    // The workload view is read-only, so a sorted table shows a SortedList over it; only then are all rows built
+    private boolean sortProcessTable(TableView<Process> table) {
+        Comparator<Process> comparator = table.getComparator();
+        ObservableList<Process> items = table.getItems();
+        if (comparator == null) {
+            if (items != processRows) {
+                table.setItems(processRows);
+            }
+        } else if (items instanceof SortedList && ((SortedList<Process>) items).getSource() == processRows) {
+            ((SortedList<Process>) items).setComparator(comparator);
+        } else {
+            table.setItems(new SortedList<>(processRows, comparator));
+        }
+        return true;
+    }
+
+    // Workload row of the selected process, whichever way the table is sorted; -1 if none is selected
+    private int selectedProcessRow() {
+        int index = processTable.getSelectionModel().getSelectedIndex();
+        ObservableList<Process> items = processTable.getItems();
+        return index >= 0 && items instanceof SortedList ? ((SortedList<Process>) items).getSourceIndex(index) : index;
     }
 
     private void clearVisualization() {
-        ganttChartArea.getChildren().clear();
+        ganttChart.clear();
+        scrubberLabel.setText("");
         metricsArea.getChildren().clear();
     }
 
@@ -208,78 +531,151 @@ public class Main extends Application {
         }
 
         clearVisualization();
-        List<SchedulerSimulator.ExecutionStep> executionSteps = null;
         
-        String selectedAlgorithm = algorithmSelector.getValue();
-        try {
-            switch (selectedAlgorithm) {
-                case "First Come First Serve (FCFS)":
-                    executionSteps = scheduler.runFCFS();
-                    break;
-                case "Shortest Job First (SJF)":
-                    executionSteps = scheduler.runSJF();
-                    break;
-                case "Shortest Remaining Time First (SRTF)":
-                    executionSteps = scheduler.runSRTF();
-                    break;
-                case "Round Robin":
-                    try {
-                        int quantum = Integer.parseInt(quantumField.getText());
-                        if (quantum <= 0) throw new NumberFormatException();
-                        executionSteps = scheduler.runRoundRobin(quantum);
-                    } catch (NumberFormatException e) {
-                        showAlert("Invalid Input", "Please enter a valid time quantum (positive integer).");
-                        return;
-                    }
-                    break;
+        Algorithm algorithm = Algorithm.fromDisplayName(algorithmSelector.getValue());
+        long quantum = 0;
+        if (algorithm == Algorithm.ROUND_ROBIN || algorithm == Algorithm.MLFQ) {
+            try {
+                quantum = Long.parseLong(quantumField.getText());
+                if (quantum <= 0) throw new NumberFormatException();
+            } catch (NumberFormatException e) {
+                showAlert("Invalid Input", "Please enter a valid time quantum (positive integer).");
+                return;
             }
-            
-            if (executionSteps != null) {
-                visualizeGanttChart(executionSteps);
-                displayMetrics();
+        }
+        
+        PolicyConfig policies = PolicyConfig.DEFAULT;
+        if (algorithm == Algorithm.MLFQ) {
+            try {
+                policies = PolicyConfig.builder()
+                    .mlfqLevels(Integer.parseInt(mlfqLevelsField.getText()))
+                    .mlfqBoostPeriod(Long.parseLong(boostPeriodField.getText()))
+                    .build();
+            } catch (IllegalArgumentException e) {
+                showAlert("Invalid Input", "Please enter 1 to " + PolicyConfig.MAX_MLFQ_LEVELS
+                    + " levels and a non-negative boost period.");
+                return;
+            }
+        } else if (algorithm == Algorithm.CFS) {
+            try {
+                policies = PolicyConfig.builder()
+                    .cfsTargetLatency(Long.parseLong(targetLatencyField.getText()))
+                    .cfsMinGranularity(Long.parseLong(minGranularityField.getText()))
+                    .build();
+            } catch (IllegalArgumentException e) {
+                showAlert("Invalid Input", "Please enter a positive target latency and minimum granularity.");
+                return;
+            }
+        } else if (algorithm == Algorithm.PRIORITY || algorithm == Algorithm.PRIORITY_PREEMPTIVE) {
+            try {
+                policies = PolicyConfig.builder()
+                    .agingInterval(Long.parseLong(agingIntervalField.getText()))
+                    .build();
+            } catch (IllegalArgumentException e) {
+                showAlert("Invalid Input", "Please enter a non-negative aging interval.");
+                return;
             }
-        } catch (Exception e) {
-            showAlert("Error", "An error occurred during simulation: " + e.getMessage());
         }
-    }
-
-    private void visualizeGanttChart(List<SchedulerSimulator.ExecutionStep> steps) {
-        HBox ganttChart = new HBox(2);
-        ganttChart.setPadding(new Insets(10));
-        
-        int totalTime = steps.stream()
-            .mapToInt(SchedulerSimulator.ExecutionStep::getEndTime)
-            .max()
-            .orElse(0);
-            
-        double unitWidth = Math.min(50, (800.0 - 100) / totalTime);
         
-        for (SchedulerSimulator.ExecutionStep step : steps) {
-            double width = (step.getEndTime() - step.getStartTime()) * unitWidth;
-            
-            VBox processBox = new VBox(2);
-            processBox.setAlignment(javafx.geometry.Pos.CENTER);
-            
-            Rectangle rect = new Rectangle(width, 40);
-            rect.setFill(Color.LIGHTBLUE);
-            rect.setStroke(Color.BLACK);
-            
-            Text processId = new Text(step.getProcessId());
-            processId.setTextAlignment(TextAlignment.CENTER);
-            
-            Text timeRange = new Text(step.getStartTime() + "-" + step.getEndTime());
-            timeRange.setTextAlignment(TextAlignment.CENTER);
-            
-            processBox.getChildren().addAll(rect, processId, timeRange);
-            ganttChart.getChildren().add(processBox);
+        CoreConfig cores;
+        try {
+            cores = new CoreConfig(Integer.parseInt(coresField.getText()),
+                perCoreQueuesBox.isSelected() ? CoreConfig.QueueMode.PER_CORE : CoreConfig.QueueMode.GLOBAL,
+                Long.parseLong(migrationCostField.getText()));
+        } catch (IllegalArgumentException e) {
+            showAlert("Invalid Input", "Please enter a positive core count and a non-negative migration cost.");
+            return;
+        }
+        
+        // Run on a background thread; the timer pulls published progress once per frame
+        SimulationResult run = SchedulerSimulator.prepare(scheduler.getWorkload(), algorithm, quantum, cores,
+            policies, true);
+        SimulationResult cached = scheduler.runCached(run);
+        if (cached != null) {
+            ganttChart.setTraces(cached.getTraces(), cached.getIoTraces(), cached.getWorkload());
+            ganttChart.refresh();
+            displayMetrics();
+            progressLabel.setText("Cached result (" + scheduler.getResultCache() + ")");
+            return;
         }
+        Task<SimulationResult> task = new Task<>() {
+            @Override
+            protected SimulationResult call() {
+                return scheduler.run(run);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            simulationFinished();
+            ganttChart.refresh();
+            displayMetrics();
+        });
+        // A cancelled run fails with CancellationException once the worker has actually stopped,
+        // so Simulate is only re-enabled when nothing is left running
+        task.setOnFailed(e -> {
+            simulationFinished();
+            if (task.getException() instanceof CancellationException) {
+                progressLabel.setText("Cancelled at time " + run.getSimulatedTime());
+            } else {
+                showAlert("Error", "An error occurred during simulation: " + task.getException().getMessage());
+            }
+        });
         
-        ScrollPane scrollPane = new ScrollPane(ganttChart);
-        scrollPane.setFitToHeight(true);
-        scrollPane.setPrefViewportHeight(100);
-        scrollPane.setStyle("-fx-background-color: white;");
+        runningSimulation = run;
+        simulationTask = task;
+        ganttChart.setTraces(run.getTraces(), run.getIoTraces(), run.getWorkload());
+        simulateButton.setDisable(true);
+        cancelButton.setDisable(false);
+        progressBar.setProgress(0);
+        progressBar.setVisible(true);
+        progressLabel.setText("");
+        progressTimer = new AnimationTimer() {
+            private int lastCompleted = -1;
+            
+            @Override
+            public void handle(long now) {
+                ganttChart.refresh();
+                int completed = run.getCompletedCount();
+                if (completed != lastCompleted) {
+                    lastCompleted = completed;
+                    progressBar.setProgress(run.getProgress());
+                    displayPartialMetrics(run);
+                }
+            }
+        };
+        progressTimer.start();
         
-        ganttChartArea.getChildren().add(scrollPane);
+        Thread worker = new Thread(task, "simulation");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Asks the engine to stop; the task's handlers clean up when the worker exits. Task.cancel()
+    // is not used, since it reports the task as done while the worker is still running.
+    private void cancelSimulation() {
+        if (simulationTask != null) {
+            runningSimulation.cancel();
+            progressTimer.stop();
+            cancelButton.setDisable(true);
+            progressLabel.setText("Cancelling...");
+        }
+    }
+
+    private void simulationFinished() {
+        progressTimer.stop();
+        simulationTask = null;
+        runningSimulation = null;
+        simulateButton.setDisable(false);
+        cancelButton.setDisable(true);
+        progressBar.setVisible(false);
+    }
+
+    private void displayPartialMetrics(SimulationResult run) {
+        metricsArea.getChildren().setAll(
+            new Label("Processes Completed: " + run.getCompletedCount() + " / " + run.getWorkload().size()),
+            new Label("Simulated Time: " + run.getSimulatedTime()),
+            new Label(String.format("Average Waiting Time (so far): %.2f", run.getPartialAverageWaitingTime())),
+            new Label(String.format("Average Turnaround Time (so far): %.2f",
+                run.getPartialAverageTurnaroundTime())));
     }
 
     private void displayMetrics() {
@@ -291,6 +687,53 @@ public class Main extends Application {
             Label metricLabel = new Label(metric + ": " + formattedValue);
             metricsArea.getChildren().add(metricLabel);
         });
+        
+        SimulationResult result = scheduler.getLastResult();
+        if (result != null) {
+            if (result.getCores() > 1) {
+                metricsArea.getChildren().add(new Label("Migrations: " + result.getMigrations()));
+                metricsArea.getChildren().add(createCoreUtilizationPane(result));
+            }
+            metricsArea.getChildren().add(createLatencyGrid(result.getLatency()));
+            if (result.getEngineStats().isEnabled()) {
+                Label engine = new Label("Engine: " + result.getEngineStats());
+                engine.setWrapText(true);
+                metricsArea.getChildren().add(engine);
+            }
+        }
+    }
+
+    private FlowPane createCoreUtilizationPane(SimulationResult result) {
+        FlowPane pane = new FlowPane(15, 2);
+        for (int core = 0; core < result.getCores(); core++) {
+            pane.getChildren().add(new Label(String.format("CPU %d: %.1f%%", core + 1,
+                result.getCoreUtilization(core))));
+        }
+        return pane;
+    }
+
+    private GridPane createLatencyGrid(LatencyStats latency) {
+        GridPane grid = new GridPane();
+        grid.setHgap(15);
+        grid.setVgap(2);
+        grid.setPadding(new Insets(5, 0, 0, 0));
+        
+        grid.addRow(0, new Label("Latency"), new Label("p50"), new Label("p90"),
+            new Label("p99"), new Label("p99.9"), new Label("Max"));
+        addLatencyRow(grid, 1, "Waiting Time", latency.getWaitingTimes());
+        addLatencyRow(grid, 2, "Turnaround Time", latency.getTurnaroundTimes());
+        addLatencyRow(grid, 3, "Response Time", latency.getResponseTimes());
+        return grid;
+    }
+
+    private void addLatencyRow(GridPane grid, int row, String name, LatencyHistogram histogram) {
+        grid.addRow(row,
+            new Label(name),
+            new Label(String.valueOf(histogram.getPercentile(50))),
+            new Label(String.valueOf(histogram.getPercentile(90))),
+            new Label(String.valueOf(histogram.getPercentile(99))),
+            new Label(String.valueOf(histogram.getPercentile(99.9))),
+            new Label(String.valueOf(histogram.getMax())));
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,263 @@
+package com.cpuscheduler;
+
+/**
+ * Multilevel feedback queue. Arrivals enter the top level; a process that uses
+ * up its level's quantum drops one level, and one that is preempted keeps its
+ * level and the allotment it has left. A process at a higher level preempts one
+ * at a lower level. Each level is a ring buffer and a 64-bit mask marks the
+ * non-empty ones, so picking the next process is one trailing-zero count.
+ * Every boost period all processes return to the top level: queued ones are
+ * moved up (each at most once per period), running ones when they come back.
+ * A process that blocks for I/O is charged the slice it used and returns to
+ * the back of its level when it wakes.
+ */
+public final class MlfqPolicy implements SchedulingPolicy {
+    private final long[] quanta;
+    private final long boostPeriod;
+    private final IntRingBuffer[] levels;
+    // Bit i is set while level i has queued processes
+    private long nonEmpty;
+    private int size;
+    // Boost period this policy's queues were last flattened in
+    private long boostedPeriod;
+    private final ProcessLevels processes;
+
+    public MlfqPolicy(long[] quanta, long boostPeriod, int processCount) {
+        this(quanta, boostPeriod, new ProcessLevels(processCount));
+    }
+
+    // Per-core queues of one run share the per-process state, since processes move between cores
+    MlfqPolicy(long[] quanta, long boostPeriod, ProcessLevels processes) {
+        if (quanta.length < 1 || quanta.length > PolicyConfig.MAX_MLFQ_LEVELS) {
+            throw new IllegalArgumentException("MLFQ levels must be between 1 and " + PolicyConfig.MAX_MLFQ_LEVELS
+                + ": " + quanta.length);
+        }
+        for (long quantum : quanta) {
+            if (quantum <= 0) {
+                throw new IllegalArgumentException("MLFQ quanta must be positive: " + quantum);
+            }
+        }
+        if (boostPeriod < 0) {
+            throw new IllegalArgumentException("MLFQ boost period must not be negative: " + boostPeriod);
+        }
+        this.quanta = quanta.clone();
+        this.boostPeriod = boostPeriod;
+        this.levels = new IntRingBuffer[quanta.length];
+        for (int level = 0; level < levels.length; level++) {
+            levels[level] = new IntRingBuffer();
+        }
+        this.processes = processes;
+    }
+
+    @Override
+    public void onArrival(int process, long time) {
+        boost(time);
+        processes.assign(process, 0, boostPeriodAt(time));
+        enqueue(process, 0);
+    }
+
+    @Override
+    public int pickNext(long time) {
+        boost(time);
+        if (nonEmpty == 0) {
+            return -1;
+        }
+        int level = Long.numberOfTrailingZeros(nonEmpty);
+        IntRingBuffer queue = levels[level];
+        int process = queue.poll();
+        if (queue.isEmpty()) {
+            nonEmpty &= ~(1L << level);
+        }
+        size--;
+        return process;
+    }
+
+    @Override
+    public int peekNext(long time) {
+        boost(time);
+        return nonEmpty == 0 ? -1 : levels[Long.numberOfTrailingZeros(nonEmpty)].peek();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long timeSlice(int process, long time) {
+        int level = refresh(process, time);
+        processes.sliceStarts[process] = time;
+        return quanta[level] - processes.used[process];
+    }
+
+    @Override
+    public void onQuantumExpired(int process, long time) {
+        boost(time);
+        long period = boostPeriodAt(time);
+        int level = processes.periods[process] == period
+            ? Math.min(processes.levels[process] + 1, quanta.length - 1)
+            : 0;
+        processes.assign(process, level, period);
+        enqueue(process, level);
+    }
+
+    @Override
+    public boolean isPreemptive() {
+        return true;
+    }
+
+    @Override
+    public boolean precedes(int a, int b, long time) {
+        return refresh(a, time) < refresh(b, time);
+    }
+
+    @Override
+    public void onPreempt(int process, long time) {
+        boost(time);
+        int level = refresh(process, time);
+        processes.used[process] += Math.max(0, time - processes.sliceStarts[process]);
+        enqueue(process, level);
+    }
+
+    // A process that blocks keeps its level and the allotment it has left, dropping a level if none is left
+    @Override
+    public void onBlock(int process, long time) {
+        int level = refresh(process, time);
+        processes.used[process] += Math.max(0, time - processes.sliceStarts[process]);
+        if (processes.used[process] >= quanta[level]) {
+            processes.assign(process, Math.min(level + 1, quanta.length - 1), processes.periods[process]);
+        }
+    }
+
+    @Override
+    public void onWake(int process, long time) {
+        boost(time);
+        enqueue(process, refresh(process, time));
+    }
+
+    @Override
+    public State saveState() {
+        int[] queued = new int[size];
+        int[] levelSizes = new int[levels.length];
+        int count = 0;
+        for (int level = 0; level < levels.length; level++) {
+            int[] members = levels[level].toArray();
+            System.arraycopy(members, 0, queued, count, members.length);
+            levelSizes[level] = members.length;
+            count += members.length;
+        }
+        MlfqState state = new MlfqState(queued, levelSizes, boostedPeriod);
+        for (int i = 0; i < queued.length; i++) {
+            int process = queued[i];
+            state.levels[i] = processes.levels[process];
+            state.periods[i] = processes.periods[process];
+            state.used[i] = processes.used[process];
+            state.sliceStarts[i] = processes.sliceStarts[process];
+        }
+        return state;
+    }
+
+    @Override
+    public void restoreState(State saved) {
+        MlfqState state = (MlfqState) saved;
+        if (state.levelSizes.length != levels.length) {
+            throw new IllegalArgumentException("Saved MLFQ state has " + state.levelSizes.length + " levels");
+        }
+        int[] queued = state.queued();
+        for (int i = 0; i < queued.length; i++) {
+            int process = queued[i];
+            processes.levels[process] = state.levels[i];
+            processes.periods[process] = state.periods[i];
+            processes.used[process] = state.used[i];
+            processes.sliceStarts[process] = state.sliceStarts[i];
+        }
+        int next = 0;
+        for (int level = 0; level < levels.length; level++) {
+            for (int i = 0; i < state.levelSizes[level]; i++) {
+                enqueue(queued[next++], level);
+            }
+        }
+        boostedPeriod = state.boostedPeriod;
+    }
+
+    private void enqueue(int process, int level) {
+        levels[level].add(process);
+        nonEmpty |= 1L << level;
+        size++;
+    }
+
+    private long boostPeriodAt(long time) {
+        return boostPeriod == 0 ? 0 : time / boostPeriod;
+    }
+
+    // Level of the process at time, moving it to the top level if a boost happened since it was assigned
+    private int refresh(int process, long time) {
+        long period = boostPeriodAt(time);
+        if (processes.periods[process] != period) {
+            processes.assign(process, 0, period);
+        }
+        return processes.levels[process];
+    }
+
+    // On entering a new boost period, appends every lower level to the top one in level order
+    private void boost(long time) {
+        long period = boostPeriodAt(time);
+        if (period <= boostedPeriod) {
+            return;
+        }
+        boostedPeriod = period;
+        IntRingBuffer top = levels[0];
+        long lower = nonEmpty & ~1L;
+        while (lower != 0) {
+            IntRingBuffer queue = levels[Long.numberOfTrailingZeros(lower)];
+            while (!queue.isEmpty()) {
+                top.add(queue.poll());
+            }
+            lower &= lower - 1;
+        }
+        if (size > 0) {
+            nonEmpty = 1L;
+        }
+    }
+
+    // Queued processes level by level, with their per-process state in the same order
+    private static final class MlfqState extends State {
+        final int[] levelSizes;
+        final long boostedPeriod;
+        final byte[] levels;
+        final long[] periods;
+        final long[] used;
+        final long[] sliceStarts;
+
+        MlfqState(int[] queued, int[] levelSizes, long boostedPeriod) {
+            super(queued);
+            this.levelSizes = levelSizes;
+            this.boostedPeriod = boostedPeriod;
+            this.levels = new byte[queued.length];
+            this.periods = new long[queued.length];
+            this.used = new long[queued.length];
+            this.sliceStarts = new long[queued.length];
+        }
+    }
+
+    // Level, boost period of that level and allotment used at that level, per process
+    static final class ProcessLevels {
+        final byte[] levels;
+        final long[] periods;
+        final long[] used;
+        final long[] sliceStarts;
+
+        ProcessLevels(int processCount) {
+            this.levels = new byte[processCount];
+            this.periods = new long[processCount];
+            this.used = new long[processCount];
+            this.sliceStarts = new long[processCount];
+        }
+
+        void assign(int process, int level, long period) {
+            levels[process] = (byte) level;
+            periods[process] = period;
+            used[process] = 0;
+        }
+    }
+}
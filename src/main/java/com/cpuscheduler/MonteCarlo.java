@@ -0,0 +1,471 @@
+package com.cpuscheduler;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Monte Carlo replications of the selected algorithms on synthetic workloads.
+ * Replication r generates its own workload from a seed derived from the
+ * generator's seed and r, and runs every algorithm still being estimated on it,
+ * so algorithms are always compared on identical workloads and the results do
+ * not depend on how many threads ran them. Replications run in rounds across
+ * all cores on the fork/join pool; each writes only its own row of a plain
+ * array and records no trace, and the round's rows are folded into running
+ * means and variances in replication order before the next round starts, so
+ * memory is bounded by the round size however many replications run. An
+ * algorithm stops once the confidence interval of every target metric is
+ * within the relative precision of its mean, or at the replication limit.
+ */
+public final class MonteCarlo {
+    public enum Metric {
+        AVERAGE_WAITING_TIME("avg_waiting", SimulationResult::getAverageWaitingTime),
+        AVERAGE_TURNAROUND_TIME("avg_turnaround", SimulationResult::getAverageTurnaroundTime),
+        THROUGHPUT("throughput", SimulationResult::getThroughput),
+        CPU_UTILIZATION("cpu_utilization", SimulationResult::getCpuUtilization),
+        CONTEXT_SWITCHES("context_switches", result -> result.getContextSwitches()),
+        P50_WAITING_TIME("p50_waiting", result -> result.getLatency().getWaitingTimes().getPercentile(50)),
+        P99_WAITING_TIME("p99_waiting", result -> result.getLatency().getWaitingTimes().getPercentile(99)),
+        P99_RESPONSE_TIME("p99_response", result -> result.getLatency().getResponseTimes().getPercentile(99));
+
+        private final String columnName;
+        private final ToDoubleFunction<SimulationResult> extractor;
+
+        Metric(String columnName, ToDoubleFunction<SimulationResult> extractor) {
+            this.columnName = columnName;
+            this.extractor = extractor;
+        }
+
+        public String getColumnName() { return columnName; }
+
+        double of(SimulationResult result) {
+            return extractor.applyAsDouble(result);
+        }
+    }
+
+    private static final Metric[] METRICS = Metric.values();
+
+    private final WorkloadGenerator generator;
+    private final int processes;
+    private final Algorithm[] algorithms;
+    private final long timeQuantum;
+    private final CoreConfig cores;
+    private final PolicyConfig policies;
+    private final double confidence;
+    private final double precision;
+    private final EnumSet<Metric> targets;
+    private final int minReplications;
+    private final int maxReplications;
+    private final int roundSize;
+
+    private MonteCarlo(Builder builder) {
+        this.generator = builder.generator;
+        this.processes = builder.processes;
+        this.algorithms = builder.algorithms.toArray(new Algorithm[0]);
+        this.timeQuantum = builder.timeQuantum;
+        this.cores = builder.cores;
+        this.policies = builder.policies;
+        this.confidence = builder.confidence;
+        this.precision = builder.precision;
+        this.targets = EnumSet.copyOf(builder.targets);
+        this.minReplications = builder.minReplications;
+        this.maxReplications = builder.maxReplications;
+        this.roundSize = builder.roundSize;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Report run() {
+        int algorithmCount = algorithms.length;
+        Summary[][] summaries = new Summary[algorithmCount][METRICS.length];
+        for (Summary[] row : summaries) {
+            for (int metric = 0; metric < METRICS.length; metric++) {
+                row[metric] = new Summary();
+            }
+        }
+        boolean[] converged = new boolean[algorithmCount];
+        int[] active = new int[algorithmCount];
+        int replications = 0;
+        int round = minReplications;
+
+        while (replications < maxReplications) {
+            int activeCount = 0;
+            for (int a = 0; a < algorithmCount; a++) {
+                if (!converged[a]) {
+                    active[activeCount++] = a;
+                }
+            }
+            if (activeCount == 0) {
+                break;
+            }
+            int count = Math.min(round, maxReplications - replications);
+            int first = replications;
+            int width = activeCount;
+            int[] running = Arrays.copyOf(active, activeCount);
+            // Every replication writes only its own row, so no locking is needed
+            double[][] rows = new double[count][width * METRICS.length];
+            IntStream.range(0, count).parallel().forEach(i -> {
+                SweepJobEvent event = new SweepJobEvent();
+                event.begin();
+                Workload workload = generator.withSeed(seedOf(first + i)).generate(processes);
+                double[] row = rows[i];
+                for (int a = 0; a < width; a++) {
+                    SimulationResult result = SchedulerSimulator.execute(SchedulerSimulator.prepare(
+                        workload, algorithms[running[a]], timeQuantum, cores, policies, false));
+                    for (int metric = 0; metric < METRICS.length; metric++) {
+                        row[a * METRICS.length + metric] = METRICS[metric].of(result);
+                    }
+                }
+                if (event.shouldCommit()) {
+                    event.sweep = "monte carlo";
+                    event.job = first + i;
+                    event.algorithm = width == 1 ? algorithms[running[0]].getShortName() : width + " algorithms";
+                    event.timeQuantum = timeQuantum;
+                    event.processes = processes;
+                    event.commit();
+                }
+            });
+
+            for (double[] row : rows) {
+                for (int a = 0; a < width; a++) {
+                    for (int metric = 0; metric < METRICS.length; metric++) {
+                        summaries[running[a]][metric].add(row[a * METRICS.length + metric]);
+                    }
+                }
+            }
+            replications += count;
+            for (int a = 0; a < width; a++) {
+                converged[running[a]] = isPrecise(summaries[running[a]]);
+            }
+            round = roundSize;
+        }
+
+        return new Report(this, summaries, converged);
+    }
+
+    private boolean isPrecise(Summary[] summaries) {
+        if (summaries[0].count < minReplications) {
+            return false;
+        }
+        for (Metric metric : targets) {
+            Summary summary = summaries[metric.ordinal()];
+            if (summary.halfWidth(confidence) > precision * Math.abs(summary.mean)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Seed of replication r: SplitMix64 of the generator's seed advanced r steps
+    private long seedOf(int replication) {
+        long z = generator.getSeed() + (replication + 1L) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Two-sided Student t quantile: below 30 degrees of freedom the exact distribution inverted, from 30 on
+    // the normal quantile corrected by the Cornish-Fisher expansion in 1 / degrees of freedom, which is
+    // within 1e-6 there but too narrow for few degrees (11% at 1 for 95% intervals)
+    static double studentT(double confidence, long degreesOfFreedom) {
+        if (degreesOfFreedom < 30) {
+            return exactStudentT(confidence, degreesOfFreedom);
+        }
+        double z = normalQuantile(0.5 + confidence / 2);
+        double v = degreesOfFreedom;
+        double z2 = z * z;
+        double g1 = (z2 + 1) * z / 4;
+        double g2 = ((5 * z2 + 16) * z2 + 3) * z / 96;
+        double g3 = (((3 * z2 + 19) * z2 + 17) * z2 - 15) * z / 384;
+        double g4 = ((((79 * z2 + 776) * z2 + 1482) * z2 - 1920) * z2 - 945) * z / 92160;
+        return z + (g1 + (g2 + (g3 + g4 / v) / v) / v) / v;
+    }
+
+    // Bisects t = sqrt(v) tan(theta) over theta until the probability within +/- t reaches the confidence
+    private static double exactStudentT(double confidence, long degreesOfFreedom) {
+        double low = 0;
+        double high = Math.PI / 2;
+        for (int i = 0; i < 64; i++) {
+            double theta = (low + high) / 2;
+            if (studentTCentral(theta, degreesOfFreedom) < confidence) {
+                low = theta;
+            } else {
+                high = theta;
+            }
+        }
+        return Math.sqrt(degreesOfFreedom) * Math.tan((low + high) / 2);
+    }
+
+    // P(|T| <= sqrt(v) tan(theta)) for v degrees of freedom: the finite series of Abramowitz and Stegun
+    // 26.7.3 (odd v) and 26.7.4 (even v) in powers of cos(theta)
+    private static double studentTCentral(double theta, long degreesOfFreedom) {
+        double sin = Math.sin(theta);
+        double cos = Math.cos(theta);
+        double cos2 = cos * cos;
+        if (degreesOfFreedom % 2 == 1) {
+            double term = sin * cos;
+            double sum = degreesOfFreedom > 1 ? term : 0;
+            for (long k = 3; k <= degreesOfFreedom - 2; k += 2) {
+                term *= cos2 * (k - 1) / k;
+                sum += term;
+            }
+            return 2 / Math.PI * (theta + sum);
+        }
+        double term = 1;
+        double sum = 1;
+        for (long k = 2; k <= degreesOfFreedom - 2; k += 2) {
+            term *= cos2 * (k - 1) / k;
+            sum += term;
+        }
+        return sin * sum;
+    }
+
+    // Inverse standard normal CDF, Acklam's rational approximation (relative error below 1.2e-9)
+    static double normalQuantile(double p) {
+        final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+            1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+            6.680131188771972e+01, -1.328068155288572e+01};
+        final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+            -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+            3.754408661907416e+00};
+        double low = 0.02425;
+        if (p < low || p > 1 - low) {
+            double q = Math.sqrt(-2 * Math.log(p < low ? p : 1 - p));
+            double x = (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+            return p < low ? x : -x;
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+            / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+
+    // Running mean and variance (Welford), so replications are never stored
+    private static final class Summary {
+        private long count;
+        private double mean;
+        private double squaredDeviations;
+
+        void add(double value) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            squaredDeviations += delta * (value - mean);
+        }
+
+        double standardDeviation() {
+            return count < 2 ? 0 : Math.sqrt(squaredDeviations / (count - 1));
+        }
+
+        double halfWidth(double confidence) {
+            return count < 2 ? Double.POSITIVE_INFINITY
+                : studentT(confidence, count - 1) * standardDeviation() / Math.sqrt(count);
+        }
+    }
+
+    // Mean of one metric over the replications of one algorithm, with its confidence interval
+    public static final class Estimate {
+        private final long replications;
+        private final double mean;
+        private final double standardDeviation;
+        private final double halfWidth;
+
+        private Estimate(Summary summary, double confidence) {
+            this.replications = summary.count;
+            this.mean = summary.mean;
+            this.standardDeviation = summary.standardDeviation();
+            this.halfWidth = summary.halfWidth(confidence);
+        }
+
+        public long getReplications() { return replications; }
+        public double getMean() { return mean; }
+        public double getStandardDeviation() { return standardDeviation; }
+        public double getHalfWidth() { return halfWidth; }
+        public double getLow() { return mean - halfWidth; }
+        public double getHigh() { return mean + halfWidth; }
+
+        // Half-width relative to the mean; 0 when every replication gave 0
+        public double getRelativeHalfWidth() {
+            return halfWidth == 0 ? 0 : halfWidth / Math.abs(mean);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.4f +/- %.4f (n = %d)", mean, halfWidth, replications);
+        }
+    }
+
+    public static final class Report {
+        private final double confidence;
+        private final Map<Algorithm, Estimate[]> estimates = new EnumMap<>(Algorithm.class);
+        private final Set<Algorithm> converged = EnumSet.noneOf(Algorithm.class);
+
+        private Report(MonteCarlo settings, Summary[][] summaries, boolean[] converged) {
+            this.confidence = settings.confidence;
+            for (int a = 0; a < summaries.length; a++) {
+                Estimate[] row = new Estimate[METRICS.length];
+                for (int metric = 0; metric < METRICS.length; metric++) {
+                    row[metric] = new Estimate(summaries[a][metric], confidence);
+                }
+                estimates.put(settings.algorithms[a], row);
+                if (converged[a]) {
+                    this.converged.add(settings.algorithms[a]);
+                }
+            }
+        }
+
+        public double getConfidence() { return confidence; }
+        public Set<Algorithm> getAlgorithms() { return Collections.unmodifiableSet(estimates.keySet()); }
+
+        public Estimate estimate(Algorithm algorithm, Metric metric) {
+            Estimate[] row = estimates.get(algorithm);
+            if (row == null) {
+                throw new IllegalArgumentException("No replications of " + algorithm.getShortName());
+            }
+            return row[metric.ordinal()];
+        }
+
+        public long replications(Algorithm algorithm) {
+            return estimate(algorithm, Metric.AVERAGE_WAITING_TIME).getReplications();
+        }
+
+        // Whether the algorithm stopped because its target intervals were tight enough
+        public boolean isConverged(Algorithm algorithm) {
+            return converged.contains(algorithm);
+        }
+
+        // One CSV row per algorithm and metric
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(
+                "algorithm,metric,replications,mean,ci_low,ci_high,std_dev,converged\n");
+            estimates.forEach((algorithm, row) -> {
+                for (Metric metric : METRICS) {
+                    Estimate estimate = row[metric.ordinal()];
+                    sb.append(algorithm.getShortName()).append(',')
+                        .append(metric.getColumnName()).append(',')
+                        .append(estimate.getReplications()).append(',')
+                        .append(estimate.getMean()).append(',')
+                        .append(estimate.getLow()).append(',')
+                        .append(estimate.getHigh()).append(',')
+                        .append(estimate.getStandardDeviation()).append(',')
+                        .append(converged.contains(algorithm)).append('\n');
+                }
+            });
+            return sb.toString();
+        }
+    }
+
+    // Defaults: every algorithm, 1000-process workloads, 95% intervals within 1% of the mean
+    // for the average waiting and turnaround times, 30 to 10000 replications
+    public static class Builder {
+        private WorkloadGenerator generator = WorkloadGenerator.builder().build();
+        private int processes = 1000;
+        private Set<Algorithm> algorithms = EnumSet.allOf(Algorithm.class);
+        private long timeQuantum = 4;
+        private CoreConfig cores = CoreConfig.SINGLE;
+        private PolicyConfig policies = PolicyConfig.DEFAULT;
+        private double confidence = 0.95;
+        private double precision = 0.01;
+        private Set<Metric> targets = EnumSet.of(Metric.AVERAGE_WAITING_TIME, Metric.AVERAGE_TURNAROUND_TIME);
+        private int minReplications = 30;
+        private int maxReplications = 10000;
+        private int roundSize = Math.max(64, 4 * ForkJoinPool.getCommonPoolParallelism());
+
+        private Builder() {
+        }
+
+        // Settings of every replication's workload; replication seeds derive from its seed
+        public Builder generator(WorkloadGenerator generator) {
+            this.generator = Objects.requireNonNull(generator);
+            return this;
+        }
+
+        public Builder processes(int processes) {
+            if (processes < 1) {
+                throw new IllegalArgumentException("Replications need at least one process: " + processes);
+            }
+            this.processes = processes;
+            return this;
+        }
+
+        public Builder algorithms(Collection<Algorithm> algorithms) {
+            if (algorithms.isEmpty()) {
+                throw new IllegalArgumentException("Select at least one algorithm");
+            }
+            this.algorithms = EnumSet.copyOf(algorithms);
+            return this;
+        }
+
+        public Builder timeQuantum(long timeQuantum) {
+            this.timeQuantum = timeQuantum;
+            return this;
+        }
+
+        public Builder cores(CoreConfig cores) {
+            this.cores = Objects.requireNonNull(cores);
+            return this;
+        }
+
+        public Builder policies(PolicyConfig policies) {
+            this.policies = Objects.requireNonNull(policies);
+            return this;
+        }
+
+        // Confidence level of the intervals, e.g. 0.95
+        public Builder confidence(double confidence) {
+            if (!(confidence > 0 && confidence < 1)) {
+                throw new IllegalArgumentException("Confidence must be between 0 and 1: " + confidence);
+            }
+            this.confidence = confidence;
+            return this;
+        }
+
+        // Stop an algorithm once each target metric's half-width is at most this fraction of its mean
+        public Builder precision(double precision, Metric... targets) {
+            if (!(precision >= 0)) {
+                throw new IllegalArgumentException("Precision must not be negative: " + precision);
+            }
+            this.precision = precision;
+            if (targets.length > 0) {
+                this.targets = EnumSet.copyOf(Arrays.asList(targets));
+            }
+            return this;
+        }
+
+        public Builder replications(int min, int max) {
+            if (min < 2 || max < min) {
+                throw new IllegalArgumentException("Replications must satisfy 2 <= min <= max: " + min + ", " + max);
+            }
+            this.minReplications = min;
+            this.maxReplications = max;
+            return this;
+        }
+
+        // Replications run between two convergence checks; also bounds the rows held in memory
+        public Builder roundSize(int roundSize) {
+            if (roundSize < 1) {
+                throw new IllegalArgumentException("Round size must be positive: " + roundSize);
+            }
+            this.roundSize = roundSize;
+            return this;
+        }
+
+        public MonteCarlo build() {
+            if (algorithms.contains(Algorithm.ROUND_ROBIN) && timeQuantum <= 0) {
+                throw new IllegalArgumentException("Time quantum must be positive");
+            }
+            if (algorithms.contains(Algorithm.MLFQ)) {
+                // Fails here rather than in every replication when the quanta derive from a bad quantum
+                policies.mlfqQuanta(timeQuantum);
+            }
+            return new MonteCarlo(this);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.cpuscheduler;
+
+import java.util.Arrays;
+
+/**
+ * Tuning knobs of the scheduling policies beyond the time quantum, with
+ * defaults that suit workloads whose bursts are around ten time units.
+ * Each policy only reads its own settings; the rest are ignored.
+ */
+public final class PolicyConfig {
+    public static final PolicyConfig DEFAULT = builder().build();
+
+    // Levels are tracked in a 64-bit mask of non-empty queues
+    public static final int MAX_MLFQ_LEVELS = 64;
+    // Keeps nice * interval + time far from overflow
+    public static final long MAX_AGING_INTERVAL = 1L << 40;
+
+    private final int mlfqLevels;
+    private final long[] mlfqQuanta;
+    private final long mlfqBoostPeriod;
+    private final long cfsTargetLatency;
+    private final long cfsMinGranularity;
+    private final long agingInterval;
+
+    private PolicyConfig(Builder builder) {
+        this.mlfqLevels = builder.mlfqLevels;
+        this.mlfqQuanta = builder.mlfqQuanta;
+        this.mlfqBoostPeriod = builder.mlfqBoostPeriod;
+        this.cfsTargetLatency = builder.cfsTargetLatency;
+        this.cfsMinGranularity = builder.cfsMinGranularity;
+        this.agingInterval = builder.agingInterval;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getMlfqLevels() { return mlfqLevels; }
+    public long getMlfqBoostPeriod() { return mlfqBoostPeriod; }
+    public long getCfsTargetLatency() { return cfsTargetLatency; }
+    public long getCfsMinGranularity() { return cfsMinGranularity; }
+    public long getAgingInterval() { return agingInterval; }
+
+    // Quantum of each MLFQ level: the configured quanta, or the base quantum doubled at every level
+    public long[] mlfqQuanta(long baseQuantum) {
+        if (mlfqQuanta != null) {
+            return mlfqQuanta.clone();
+        }
+        if (baseQuantum <= 0) {
+            throw new IllegalArgumentException("Time quantum must be positive");
+        }
+        long[] quanta = new long[mlfqLevels];
+        for (int level = 0; level < mlfqLevels; level++) {
+            quanta[level] = baseQuantum > Long.MAX_VALUE >> level ? Long.MAX_VALUE : baseQuantum << level;
+        }
+        return quanta;
+    }
+
+    @Override
+    public String toString() {
+        return "MLFQ " + (mlfqQuanta != null ? "quanta " + Arrays.toString(mlfqQuanta) : mlfqLevels + " levels")
+            + ", boost period " + mlfqBoostPeriod + "; CFS target latency " + cfsTargetLatency
+            + ", min granularity " + cfsMinGranularity + "; priority aging interval " + agingInterval;
+    }
+
+    public static class Builder {
+        private int mlfqLevels = 3;
+        private long[] mlfqQuanta;
+        private long mlfqBoostPeriod = 100;
+        private long cfsTargetLatency = 24;
+        private long cfsMinGranularity = 3;
+        private long agingInterval = 10;
+
+        private Builder() {
+        }
+
+        // Number of MLFQ levels when their quanta derive from the time quantum
+        public Builder mlfqLevels(int levels) {
+            if (levels < 1 || levels > MAX_MLFQ_LEVELS) {
+                throw new IllegalArgumentException("MLFQ levels must be between 1 and " + MAX_MLFQ_LEVELS
+                    + ": " + levels);
+            }
+            this.mlfqLevels = levels;
+            this.mlfqQuanta = null;
+            return this;
+        }
+
+        // Explicit quantum per MLFQ level, top level first; sets the number of levels
+        public Builder mlfqQuanta(long... quanta) {
+            if (quanta.length < 1 || quanta.length > MAX_MLFQ_LEVELS) {
+                throw new IllegalArgumentException("MLFQ levels must be between 1 and " + MAX_MLFQ_LEVELS
+                    + ": " + quanta.length);
+            }
+            for (long quantum : quanta) {
+                if (quantum <= 0) {
+                    throw new IllegalArgumentException("MLFQ quanta must be positive: " + quantum);
+                }
+            }
+            this.mlfqQuanta = quanta.clone();
+            this.mlfqLevels = quanta.length;
+            return this;
+        }
+
+        // Every this many time units all processes move back to the top level; 0 never boosts
+        public Builder mlfqBoostPeriod(long period) {
+            if (period < 0) {
+                throw new IllegalArgumentException("MLFQ boost period must not be negative: " + period);
+            }
+            this.mlfqBoostPeriod = period;
+            return this;
+        }
+
+        // Period in which every runnable CFS process should get a slice, while they fit
+        public Builder cfsTargetLatency(long latency) {
+            if (latency <= 0) {
+                throw new IllegalArgumentException("CFS target latency must be positive: " + latency);
+            }
+            this.cfsTargetLatency = latency;
+            return this;
+        }
+
+        // Shortest CFS slice; the latency period stretches when slices would get shorter
+        public Builder cfsMinGranularity(long granularity) {
+            if (granularity <= 0) {
+                throw new IllegalArgumentException("CFS minimum granularity must be positive: " + granularity);
+            }
+            this.cfsMinGranularity = granularity;
+            return this;
+        }
+
+        // Waiting this long raises a process one nice level under priority scheduling; 0 never ages
+        public Builder agingInterval(long interval) {
+            if (interval < 0 || interval > MAX_AGING_INTERVAL) {
+                throw new IllegalArgumentException("Aging interval must be between 0 and " + MAX_AGING_INTERVAL
+                    + ": " + interval);
+            }
+            this.agingInterval = interval;
+            return this;
+        }
+
+        public PolicyConfig build() {
+            return new PolicyConfig(this);
+        }
+    }
+}
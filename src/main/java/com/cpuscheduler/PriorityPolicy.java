@@ -0,0 +1,274 @@
+package com.cpuscheduler;
+
+/**
+ * Priority scheduling by nice value (lower runs first), optionally preemptive,
+ * with aging: a waiting process gains one level for every full aging interval
+ * it has waited, up to the top level MIN_NICE. A dispatched process keeps the
+ * level it had reached while it runs, and a preempted one starts aging again
+ * from there. Equal levels run in queue order. Waiting processes are kept in
+ * one heap per level they were queued at, ordered by queue time, so the head
+ * of each heap is the one that has aged furthest and picking compares only
+ * those heads. Processes that reach the top level move to a heap in queue
+ * order, from which busy queues mostly pick without comparing. The preemptive
+ * variant also displaces the running process when a waiting one ages strictly
+ * past it, at the time overtakeTime reports.
+ */
+public final class PriorityPolicy implements SchedulingPolicy {
+    private static final int LEVELS = Workload.MAX_NICE - Workload.MIN_NICE + 1;
+
+    private final Workload workload;
+    private final long agingInterval;
+    private final boolean preemptive;
+    private final PriorityKeys keys;
+    // Waiting processes by the level they were queued at, MIN_NICE first; created when first used
+    private final IntHeap[] readyQueues = new IntHeap[LEVELS];
+    // Bit per level whose heap is non-empty
+    private long queuedLevels;
+    // With aging: waiting processes that have reached MIN_NICE, in queue order, and no earlier than
+    // when the next one in readyQueues does
+    private final IntHeap topQueue;
+    private long nextTopTime = Long.MAX_VALUE;
+    private int size;
+
+    public PriorityPolicy(Workload workload, long agingInterval, boolean preemptive) {
+        this(workload, agingInterval, preemptive, new PriorityKeys(workload.size()));
+    }
+
+    // Per-core queues of one run share the keys, since processes move between cores
+    PriorityPolicy(Workload workload, long agingInterval, boolean preemptive, PriorityKeys keys) {
+        if (agingInterval < 0 || agingInterval > PolicyConfig.MAX_AGING_INTERVAL) {
+            throw new IllegalArgumentException("Aging interval must be between 0 and "
+                + PolicyConfig.MAX_AGING_INTERVAL + ": " + agingInterval);
+        }
+        this.workload = workload;
+        this.agingInterval = agingInterval;
+        this.preemptive = preemptive;
+        this.keys = keys;
+        this.topQueue = new IntHeap(keys.order, null, 16);
+    }
+
+    @Override
+    public void onArrival(int process, long time) {
+        enqueue(process, workload.nice(process), time);
+    }
+
+    @Override
+    public int pickNext(long time) {
+        int process = peekNext(time);
+        if (process == -1) {
+            return -1;
+        }
+        if (!topQueue.isEmpty()) {
+            topQueue.poll();
+            keys.levels[process] = Workload.MIN_NICE;
+        } else {
+            poll(keys.levels[process] - Workload.MIN_NICE);
+            // While running, the process holds the level it had aged to
+            keys.levels[process] = levelAt(process, time);
+        }
+        size--;
+        keys.running[process] = true;
+        return process;
+    }
+
+    @Override
+    public int peekNext(long time) {
+        promote(time);
+        if (!topQueue.isEmpty()) {
+            return topQueue.peek();
+        }
+        int best = -1;
+        int bestLevel = 0;
+        for (long levels = queuedLevels; levels != 0; levels &= levels - 1) {
+            int head = readyQueues[Long.numberOfTrailingZeros(levels)].peek();
+            int level = levelAt(head, time);
+            if (best == -1 || level < bestLevel || level == bestLevel && keys.order[head] < keys.order[best]) {
+                best = head;
+                bestLevel = level;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long timeSlice(int process, long time) {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public void onQuantumExpired(int process, long time) {
+        throw new IllegalStateException("Priority scheduling only stops a process on completion or preemption");
+    }
+
+    @Override
+    public boolean isPreemptive() {
+        return preemptive;
+    }
+
+    @Override
+    public boolean precedes(int a, int b, long time) {
+        return levelAt(a, time) < levelAt(b, time);
+    }
+
+    // The first time the head of some level's heap, the one there that has waited longest, ages a level
+    // past the running process
+    @Override
+    public long overtakeTime(int running, long time) {
+        int target = keys.levels[running] - 1;
+        if (!preemptive || agingInterval == 0 || target < Workload.MIN_NICE) {
+            return Long.MAX_VALUE;
+        }
+        long earliest = Long.MAX_VALUE;
+        for (long levels = queuedLevels; levels != 0; levels &= levels - 1) {
+            int level = Long.numberOfTrailingZeros(levels);
+            int head = readyQueues[level].peek();
+            long steps = level + Workload.MIN_NICE - target;
+            earliest = Math.min(earliest, keys.queuedAt[head] + steps * agingInterval);
+        }
+        return earliest;
+    }
+
+    @Override
+    public void onPreempt(int process, long time) {
+        keys.running[process] = false;
+        enqueue(process, keys.levels[process], time);
+    }
+
+    @Override
+    public void onCompletion(int process, long time) {
+        keys.running[process] = false;
+    }
+
+    @Override
+    public State saveState() {
+        int[] queued = new int[size];
+        int[] top = topQueue.toArray();
+        System.arraycopy(top, 0, queued, 0, top.length);
+        int count = top.length;
+        for (long levels = queuedLevels; levels != 0; levels &= levels - 1) {
+            int[] members = readyQueues[Long.numberOfTrailingZeros(levels)].toArray();
+            System.arraycopy(members, 0, queued, count, members.length);
+            count += members.length;
+        }
+        byte[] levels = new byte[queued.length];
+        long[] queuedAt = new long[queued.length];
+        long[] order = new long[queued.length];
+        for (int i = 0; i < queued.length; i++) {
+            levels[i] = (byte) keys.levels[queued[i]];
+            queuedAt[i] = keys.queuedAt[queued[i]];
+            order[i] = keys.order[queued[i]];
+        }
+        return new PriorityState(queued, levels, queuedAt, order, keys.enqueued);
+    }
+
+    @Override
+    public void restoreState(State saved) {
+        PriorityState state = (PriorityState) saved;
+        int[] queued = state.queued();
+        for (int i = 0; i < queued.length; i++) {
+            int process = queued[i];
+            keys.levels[process] = state.levels[i];
+            keys.queuedAt[process] = state.queuedAt[i];
+            keys.order[process] = state.order[i];
+            add(process);
+        }
+        keys.enqueued = state.enqueued;
+    }
+
+    private void enqueue(int process, int level, long time) {
+        keys.levels[process] = level;
+        keys.queuedAt[process] = time;
+        keys.order[process] = keys.enqueued++;
+        add(process);
+    }
+
+    private void add(int process) {
+        int level = keys.levels[process] - Workload.MIN_NICE;
+        if (readyQueues[level] == null) {
+            readyQueues[level] = new IntHeap(keys.queuedAt, keys.order, 16);
+        }
+        readyQueues[level].add(process);
+        queuedLevels |= 1L << level;
+        if (agingInterval != 0) {
+            nextTopTime = Math.min(nextTopTime, keys.queuedAt[process] + level * agingInterval);
+        }
+        size++;
+    }
+
+    private void poll(int level) {
+        readyQueues[level].poll();
+        if (readyQueues[level].isEmpty()) {
+            queuedLevels &= ~(1L << level);
+        }
+    }
+
+    // Moves the waiting processes that have aged to MIN_NICE by time to topQueue; a level's are the first
+    // ones in its heap
+    private void promote(long time) {
+        if (time < nextTopTime) {
+            return;
+        }
+        nextTopTime = Long.MAX_VALUE;
+        for (long levels = queuedLevels; levels != 0; levels &= levels - 1) {
+            int level = Long.numberOfTrailingZeros(levels);
+            IntHeap readyQueue = readyQueues[level];
+            long span = level * agingInterval;
+            while (!readyQueue.isEmpty() && keys.queuedAt[readyQueue.peek()] + span <= time) {
+                topQueue.add(readyQueue.poll());
+            }
+            if (readyQueue.isEmpty()) {
+                queuedLevels &= ~(1L << level);
+            } else {
+                nextTopTime = Math.min(nextTopTime, keys.queuedAt[readyQueue.peek()] + span);
+            }
+        }
+    }
+
+    // Level the process runs at, or has aged to while waiting; lower runs first
+    private int levelAt(int process, long time) {
+        int level = keys.levels[process];
+        if (keys.running[process] || agingInterval == 0) {
+            return level;
+        }
+        long steps = (time - keys.queuedAt[process]) / agingInterval;
+        return (int) Math.max(Workload.MIN_NICE, level - steps);
+    }
+
+    // Queued processes by level, each level's in heap order, with their levels, queue times and order
+    private static final class PriorityState extends State {
+        final byte[] levels;
+        final long[] queuedAt;
+        final long[] order;
+        final long enqueued;
+
+        PriorityState(int[] queued, byte[] levels, long[] queuedAt, long[] order, long enqueued) {
+            super(queued);
+            this.levels = levels;
+            this.queuedAt = queuedAt;
+            this.order = order;
+            this.enqueued = enqueued;
+        }
+    }
+
+    // Per process: the level it was queued at or runs at, when it was queued, its queue order and whether
+    // it is running
+    static final class PriorityKeys {
+        final int[] levels;
+        final long[] queuedAt;
+        final long[] order;
+        final boolean[] running;
+        long enqueued;
+
+        PriorityKeys(int processCount) {
+            this.levels = new int[processCount];
+            this.queuedAt = new long[processCount];
+            this.order = new long[processCount];
+            this.running = new boolean[processCount];
+        }
+    }
+}
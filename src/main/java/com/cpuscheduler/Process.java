@@ -2,18 +2,28 @@ package com.cpuscheduler;
 
 public class Process {
     private String processId;
-    private int arrivalTime;
-    private int burstTime;
-    private int remainingTime;
-    private int completionTime;
-    private int waitingTime;
-    private int turnaroundTime;
-    private int startTime;
-
-    public Process(String processId, int arrivalTime, int burstTime) {
+    private long arrivalTime;
+    private long burstTime;
+    // Null for a single CPU burst
+    private BurstSequence bursts;
+    private int nice;
+    private long remainingTime;
+    private long completionTime;
+    private long waitingTime;
+    private long turnaroundTime;
+    private long startTime;
+    // Time spent blocked on I/O, which does not count as waiting
+    private long blockedTime;
+
+    public Process(String processId, long arrivalTime, long burstTime) {
+        this(processId, arrivalTime, burstTime, 0);
+    }
+
+    public Process(String processId, long arrivalTime, long burstTime, int nice) {
         this.processId = processId;
         this.arrivalTime = arrivalTime;
         this.burstTime = burstTime;
+        this.nice = nice;
         this.remainingTime = burstTime;
         this.completionTime = 0;
         this.waitingTime = 0;
@@ -21,27 +31,51 @@ public class Process {
         this.startTime = -1;
     }
 
+    // Burst time is the total CPU time of the sequence
+    public Process(String processId, long arrivalTime, BurstSequence bursts, int nice) {
+        this(processId, arrivalTime, bursts.cpuTime(), nice);
+        this.bursts = bursts.ioCount() > 0 ? bursts : null;
+    }
+
+    // Snapshot of a Workload row, including the results of the last run; bursts is null without I/O
+    Process(String processId, long arrivalTime, long burstTime, BurstSequence bursts, int nice,
+            long remainingTime, long startTime, long completionTime, long blockedTime) {
+        this(processId, arrivalTime, burstTime, nice);
+        this.bursts = bursts;
+        this.remainingTime = remainingTime;
+        this.blockedTime = blockedTime;
+        this.startTime = startTime;
+        if (startTime != -1 && remainingTime == 0) {
+            setCompletionTime(completionTime);
+        }
+    }
+
     // Getters and setters
     public String getProcessId() { return processId; }
-    public int getArrivalTime() { return arrivalTime; }
-    public int getBurstTime() { return burstTime; }
-    public int getRemainingTime() { return remainingTime; }
-    public int getCompletionTime() { return completionTime; }
-    public int getWaitingTime() { return waitingTime; }
-    public int getTurnaroundTime() { return turnaroundTime; }
-    public int getStartTime() { return startTime; }
-
-    public void setCompletionTime(int completionTime) {
+    public long getArrivalTime() { return arrivalTime; }
+    public long getBurstTime() { return burstTime; }
+    // CPU and I/O bursts, or null for a single CPU burst
+    public BurstSequence getBursts() { return bursts; }
+    public boolean hasIo() { return bursts != null; }
+    public long getBlockedTime() { return blockedTime; }
+    public int getNice() { return nice; }
+    public long getRemainingTime() { return remainingTime; }
+    public long getCompletionTime() { return completionTime; }
+    public long getWaitingTime() { return waitingTime; }
+    public long getTurnaroundTime() { return turnaroundTime; }
+    public long getStartTime() { return startTime; }
+
+    public void setCompletionTime(long completionTime) {
         this.completionTime = completionTime;
         this.turnaroundTime = completionTime - arrivalTime;
-        this.waitingTime = turnaroundTime - burstTime;
+        this.waitingTime = turnaroundTime - burstTime - blockedTime;
     }
 
-    public void setRemainingTime(int remainingTime) {
+    public void setRemainingTime(long remainingTime) {
         this.remainingTime = remainingTime;
     }
 
-    public void setStartTime(int startTime) {
+    public void setStartTime(long startTime) {
         if (this.startTime == -1) {
             this.startTime = startTime;
         }
@@ -52,4 +86,4 @@ public class Process {
         return String.format("Process[ID=%s, Arrival=%d, Burst=%d]",
                 processId, arrivalTime, burstTime);
     }
-} 
\ No newline at end of file
+}
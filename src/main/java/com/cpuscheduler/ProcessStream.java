@@ -0,0 +1,77 @@
+package com.cpuscheduler;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Pull-based source of processes in non-decreasing arrival order, consumed one
+ * process at a time by the StreamingSimulator. The accessors describe the
+ * process the last successful advance() moved to.
+ */
+public interface ProcessStream {
+
+    // Moves to the next process; returns false once the stream is exhausted
+    boolean advance() throws IOException;
+
+    // May return null, in which case the process is named "P" + (sequence + 1)
+    String processId();
+
+    long arrivalTime();
+
+    long burstTime();
+
+    default int nice() {
+        return 0;
+    }
+
+    static ProcessStream of(Iterator<Process> processes) {
+        return new ProcessStream() {
+            private Process current;
+
+            @Override
+            public boolean advance() {
+                if (!processes.hasNext()) {
+                    current = null;
+                    return false;
+                }
+                current = processes.next();
+                return true;
+            }
+
+            @Override
+            public String processId() { return current.getProcessId(); }
+
+            @Override
+            public long arrivalTime() { return current.getArrivalTime(); }
+
+            @Override
+            public long burstTime() { return current.getBurstTime(); }
+
+            @Override
+            public int nice() { return current.getNice(); }
+        };
+    }
+
+    static ProcessStream of(Workload workload) {
+        return new ProcessStream() {
+            private int index = -1;
+
+            @Override
+            public boolean advance() {
+                return ++index < workload.size();
+            }
+
+            @Override
+            public String processId() { return workload.processId(index); }
+
+            @Override
+            public long arrivalTime() { return workload.arrivalTimes[index]; }
+
+            @Override
+            public long burstTime() { return workload.burstTimes[index]; }
+
+            @Override
+            public int nice() { return workload.nice(index); }
+        };
+    }
+}
@@ -0,0 +1,119 @@
+package com.cpuscheduler;
+
+import java.util.stream.IntStream;
+
+/**
+ * Runs Round Robin once per time quantum, in parallel across all cores, and keeps
+ * only one row of metrics per quantum. Execution steps are never recorded, so
+ * memory stays flat no matter how many quanta are swept.
+ */
+public class QuantumSweep {
+
+    private QuantumSweep() {
+    }
+
+    public static Table run(Workload workload, long fromQuantum, long toQuantum, long step) {
+        if (fromQuantum <= 0 || toQuantum < fromQuantum || step <= 0) {
+            throw new IllegalArgumentException("Invalid quantum range: " + fromQuantum + ".." 
+                + toQuantum + " step " + step);
+        }
+        long count = (toQuantum - fromQuantum) / step + 1;
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many quanta to sweep: " + count);
+        }
+        long[] quanta = new long[(int) count];
+        for (int i = 0; i < quanta.length; i++) {
+            quanta[i] = fromQuantum + i * step;
+        }
+        return run(workload, quanta);
+    }
+
+    public static Table run(Workload workload, long... quanta) {
+        for (long quantum : quanta) {
+            if (quantum <= 0) {
+                throw new IllegalArgumentException("Time quantum must be positive: " + quantum);
+            }
+        }
+        Table table = new Table(quanta.clone());
+        // Every job writes only its own row, so no locking is needed
+        IntStream.range(0, quanta.length).parallel().forEach(row -> {
+            SweepJobEvent event = new SweepJobEvent();
+            event.begin();
+            SimulationResult result = SchedulerSimulator.simulate(
+                workload, Algorithm.ROUND_ROBIN, table.quanta[row], false);
+            table.averageWaitingTimes[row] = result.getAverageWaitingTime();
+            table.averageTurnaroundTimes[row] = result.getAverageTurnaroundTime();
+            table.throughputs[row] = result.getThroughput();
+            table.cpuUtilizations[row] = result.getCpuUtilization();
+            table.contextSwitches[row] = result.getContextSwitches();
+            table.p99WaitingTimes[row] = result.getLatency().getWaitingTimes().getPercentile(99);
+            if (event.shouldCommit()) {
+                event.sweep = "quantum sweep";
+                event.job = row;
+                event.algorithm = Algorithm.ROUND_ROBIN.getShortName();
+                event.timeQuantum = table.quanta[row];
+                event.processes = workload.size();
+                event.commit();
+            }
+        });
+        return table;
+    }
+
+    // Column-oriented quantum -> metrics table, one row per swept quantum
+    public static class Table {
+        private final long[] quanta;
+        private final double[] averageWaitingTimes;
+        private final double[] averageTurnaroundTimes;
+        private final double[] throughputs;
+        private final double[] cpuUtilizations;
+        private final long[] contextSwitches;
+        private final long[] p99WaitingTimes;
+
+        private Table(long[] quanta) {
+            int rows = quanta.length;
+            this.quanta = quanta;
+            this.averageWaitingTimes = new double[rows];
+            this.averageTurnaroundTimes = new double[rows];
+            this.throughputs = new double[rows];
+            this.cpuUtilizations = new double[rows];
+            this.contextSwitches = new long[rows];
+            this.p99WaitingTimes = new long[rows];
+        }
+
+        public int size() { return quanta.length; }
+        public long quantum(int row) { return quanta[row]; }
+        public double averageWaitingTime(int row) { return averageWaitingTimes[row]; }
+        public double averageTurnaroundTime(int row) { return averageTurnaroundTimes[row]; }
+        public double throughput(int row) { return throughputs[row]; }
+        public double cpuUtilization(int row) { return cpuUtilizations[row]; }
+        public long contextSwitches(int row) { return contextSwitches[row]; }
+        public long p99WaitingTime(int row) { return p99WaitingTimes[row]; }
+
+        // Row with the lowest average waiting time, or -1 for an empty table
+        public int bestRowByWaitingTime() {
+            int best = -1;
+            for (int row = 0; row < quanta.length; row++) {
+                if (best == -1 || averageWaitingTimes[row] < averageWaitingTimes[best]) {
+                    best = row;
+                }
+            }
+            return best;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(
+                "quantum,avg_waiting,avg_turnaround,throughput,cpu_utilization,context_switches,p99_waiting\n");
+            for (int row = 0; row < quanta.length; row++) {
+                sb.append(quanta[row]).append(',')
+                    .append(averageWaitingTimes[row]).append(',')
+                    .append(averageTurnaroundTimes[row]).append(',')
+                    .append(throughputs[row]).append(',')
+                    .append(cpuUtilizations[row]).append(',')
+                    .append(contextSwitches[row]).append(',')
+                    .append(p99WaitingTimes[row]).append('\n');
+            }
+            return sb.toString();
+        }
+    }
+}
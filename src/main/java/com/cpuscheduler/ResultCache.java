@@ -0,0 +1,243 @@
+package com.cpuscheduler;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Finished runs keyed by workload content and the parameters the algorithm
+ * actually reads, so running an algorithm again on the same processes, or
+ * switching back to one that already ran, returns the earlier result at once.
+ * The memory tier is an LRU bounded by the estimated size of its results rather
+ * than their number, so one run with a long trace pushes out many small ones.
+ * With a directory, results are also written there and survive restarts; a
+ * memory miss then reads the file back. Only the memory tier is locked: files
+ * are read and written outside it, each write to a file of its own that is then
+ * atomically moved into place. Cached results are shared between callers and
+ * must be treated as read-only.
+ */
+public final class ResultCache {
+    private static final int MAGIC = 0x43505352;
+    private static final int VERSION = 2;
+
+    private final long maxBytes;
+    private final Path directory;
+    private final LinkedHashMap<String, SimulationResult> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long diskHits;
+    private long diskWrites;
+
+    public ResultCache(long maxBytes) {
+        this(maxBytes, null);
+    }
+
+    // Directory may be null for a memory-only cache
+    public ResultCache(long maxBytes, Path directory) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        this.directory = directory;
+    }
+
+    // Finished result for the prepared run's workload and parameters, or null if none is cached
+    public SimulationResult get(SimulationResult prepared) {
+        String key = key(prepared);
+        synchronized (this) {
+            SimulationResult result = entries.get(key);
+            if (result != null && (result.recordsSteps() || !prepared.recordsSteps())) {
+                hits++;
+                return result;
+            }
+        }
+        // Files are read outside the lock, so other threads' memory hits never wait on the disk
+        SimulationResult result = read(key, prepared);
+        synchronized (this) {
+            if (result == null) {
+                misses++;
+                return null;
+            }
+            diskHits++;
+            hits++;
+            remember(key, result);
+            return result;
+        }
+    }
+
+    // Caches a finished run; unfinished or cancelled runs are ignored
+    public void put(SimulationResult result) {
+        if (!result.isFinished()) {
+            return;
+        }
+        String key = key(result);
+        synchronized (this) {
+            SimulationResult cached = entries.get(key);
+            if (cached != null && cached.recordsSteps() && !result.recordsSteps()) {
+                return;
+            }
+            remember(key, result);
+        }
+        if (write(key, result)) {
+            synchronized (this) {
+                diskWrites++;
+            }
+        }
+    }
+
+    // Cached result of the prepared run, or the prepared run executed and cached
+    public SimulationResult run(SimulationResult prepared) {
+        SimulationResult cached = get(prepared);
+        if (cached != null) {
+            return cached;
+        }
+        SimulationResult result = SchedulerSimulator.execute(prepared);
+        put(result);
+        return result;
+    }
+
+    // Empties the memory tier; files in the directory are kept
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+    public synchronized long getDiskHits() { return diskHits; }
+    public synchronized long getDiskWrites() { return diskWrites; }
+    public synchronized int size() { return entries.size(); }
+    public synchronized long getBytes() { return bytes; }
+    public long getMaxBytes() { return maxBytes; }
+
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d hits (%d from disk), %d misses, %d evictions, %d results in %.1f of %.1f MB",
+            hits, diskHits, misses, evictions, entries.size(), bytes / 1048576.0, maxBytes / 1048576.0);
+    }
+
+    private void remember(String key, SimulationResult result) {
+        long size = result.memoryFootprint();
+        SimulationResult replaced = entries.remove(key);
+        if (replaced != null) {
+            bytes -= replaced.memoryFootprint();
+        }
+        if (size > maxBytes) {
+            return;
+        }
+        entries.put(key, result);
+        bytes += size;
+        // Least recently used first
+        Iterator<SimulationResult> eldest = entries.values().iterator();
+        while (bytes > maxBytes) {
+            bytes -= eldest.next().memoryFootprint();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    // Workload fingerprint, algorithm and only the settings that algorithm reads
+    static String key(SimulationResult run) {
+        return run.getWorkload().fingerprint() + " " + settings(run);
+    }
+
+    // Algorithm and the settings it reads, equal for runs that differ only in their workload
+    static String settings(SimulationResult run) {
+        Algorithm algorithm = run.getAlgorithm();
+        PolicyConfig policies = run.getPolicyConfig();
+        StringBuilder settings = new StringBuilder(algorithm.getShortName());
+        switch (algorithm) {
+            case ROUND_ROBIN:
+                settings.append(" quantum ").append(run.getTimeQuantum());
+                break;
+            case MLFQ:
+                settings.append(" quanta ").append(Arrays.toString(policies.mlfqQuanta(run.getTimeQuantum())))
+                    .append(" boost ").append(policies.getMlfqBoostPeriod());
+                break;
+            case CFS:
+                settings.append(" latency ").append(policies.getCfsTargetLatency())
+                    .append(" granularity ").append(policies.getCfsMinGranularity());
+                break;
+            case PRIORITY:
+            case PRIORITY_PREEMPTIVE:
+                settings.append(" aging ").append(policies.getAgingInterval());
+                break;
+            default:
+                break;
+        }
+        CoreConfig cores = run.getCoreConfig();
+        // Queue mode and migration cost make no difference on one core
+        return settings.append(cores.getCores() == 1 ? "; 1 core" : "; " + cores).toString();
+    }
+
+    private Path file(String key) {
+        // The fingerprint spreads files well; the key itself is stored and checked on read
+        return directory.resolve(key.substring(0, 32) + "-" + Integer.toHexString(key.hashCode()) + ".result");
+    }
+
+    private SimulationResult read(String key, SimulationResult prepared) {
+        if (directory == null) {
+            return null;
+        }
+        Path file = file(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(key)) {
+                return null;
+            }
+            boolean recordedSteps = in.readBoolean();
+            if (prepared.recordsSteps() && !recordedSteps) {
+                return null;
+            }
+            return SimulationResult.readFrom(in, prepared);
+        } catch (IOException e) {
+            // An unreadable file is a miss; the next put overwrites it
+            return null;
+        }
+    }
+
+    // Writes the result to a file of its own and moves it into place; false if that failed
+    private boolean write(String key, SimulationResult result) {
+        if (directory == null) {
+            return false;
+        }
+        Path file = file(key);
+        Path partial = null;
+        try {
+            Files.createDirectories(directory);
+            // Every write has its own partial file, so concurrent writers of one key never mix their bytes
+            partial = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(partial)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(key);
+                out.writeBoolean(result.recordsSteps());
+                result.writeTo(out);
+            }
+            // Readers see the old file or a whole new one, never a partial write
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            // The disk tier is best effort; the result stays cached in memory
+            if (partial != null) {
+                try {
+                    Files.deleteIfExists(partial);
+                } catch (IOException ignored) {
+                    // Nothing more to clean up
+                }
+            }
+            return false;
+        }
+    }
+}
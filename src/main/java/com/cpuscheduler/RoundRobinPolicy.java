@@ -0,0 +1,71 @@
+package com.cpuscheduler;
+
+// FIFO with a fixed time quantum; an expired process rejoins the back of the queue
+public final class RoundRobinPolicy implements SchedulingPolicy {
+    private final long timeQuantum;
+    private final IntRingBuffer readyQueue = new IntRingBuffer();
+
+    public RoundRobinPolicy(long timeQuantum) {
+        if (timeQuantum <= 0) {
+            throw new IllegalArgumentException("Time quantum must be positive");
+        }
+        this.timeQuantum = timeQuantum;
+    }
+
+    @Override
+    public void onArrival(int process, long time) {
+        readyQueue.add(process);
+    }
+
+    @Override
+    public int pickNext(long time) {
+        return readyQueue.isEmpty() ? -1 : readyQueue.poll();
+    }
+
+    @Override
+    public int peekNext(long time) {
+        return readyQueue.isEmpty() ? -1 : readyQueue.peek();
+    }
+
+    @Override
+    public int size() {
+        return readyQueue.size();
+    }
+
+    @Override
+    public long timeSlice(int process, long time) {
+        return timeQuantum;
+    }
+
+    @Override
+    public void onQuantumExpired(int process, long time) {
+        readyQueue.add(process);
+    }
+
+    @Override
+    public boolean isPreemptive() {
+        return false;
+    }
+
+    @Override
+    public boolean precedes(int a, int b, long time) {
+        return false;
+    }
+
+    @Override
+    public void onPreempt(int process, long time) {
+        readyQueue.add(process);
+    }
+
+    @Override
+    public State saveState() {
+        return new State(readyQueue.toArray());
+    }
+
+    @Override
+    public void restoreState(State state) {
+        for (int process : state.queued()) {
+            readyQueue.add(process);
+        }
+    }
+}
@@ -1,283 +1,305 @@
 package com.cpuscheduler;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 public class SchedulerSimulator {
-    private List<Process> processes;
-    private List<ExecutionStep> executionSteps;
-    private Map<String, Double> metrics;
+    private final Workload.Builder workloadBuilder;
+    private Workload workload;
+    private SimulationResult lastResult;
+    // Latest run of each algorithm, whose checkpoints the next run of it may continue from
+    private final Map<Algorithm, SimulationResult> latestRuns = new EnumMap<>(Algorithm.class);
+    // Optional; runs then reuse earlier results for the same processes and parameters
+    private volatile ResultCache cache;
+    // After setWorkload the builder is only filled in once a process is added by hand
+    private boolean builderBehind;
     
     public SchedulerSimulator() {
-        this.processes = new ArrayList<>();
-        this.executionSteps = new ArrayList<>();
-        this.metrics = new HashMap<>();
+        this.workloadBuilder = Workload.builder();
     }
 
-    public void addProcess(Process process) {
-        processes.add(process);
+    public synchronized void addProcess(Process process) {
+        if (builderBehind) {
+            workloadBuilder.addAll(workload);
+            builderBehind = false;
+        }
+        add(process);
+        workload = null;
     }
 
-    public void clearProcesses() {
-        processes.clear();
-        executionSteps.clear();
-        metrics.clear();
+    // Removes the process at index in getWorkload(), i.e. in arrival order. The latest runs are kept,
+    // so the next run continues from their last checkpoint before the removed process arrived.
+    public synchronized void removeProcess(int index) {
+        Workload current = getWorkload();
+        Objects.checkIndex(index, current.size());
+        workloadBuilder.clear().addAll(current, 0, index).addAll(current, index + 1, current.size());
+        builderBehind = false;
+        workload = null;
     }
 
-    public List<ExecutionStep> runFCFS() {
-        executionSteps.clear();
-        metrics.clear();
-        
-        List<Process> sortedProcesses = new ArrayList<>(processes);
-        sortedProcesses.sort(Comparator.comparingInt(Process::getArrivalTime));
-        
-        int currentTime = 0;
-        double totalWaitingTime = 0;
-        double totalTurnaroundTime = 0;
-        
-        for (Process process : sortedProcesses) {
-            if (currentTime < process.getArrivalTime()) {
-                currentTime = process.getArrivalTime();
-            }
-            
-            process.setStartTime(currentTime);
-            executionSteps.add(new ExecutionStep(process.getProcessId(), currentTime, 
-                currentTime + process.getBurstTime()));
-            
-            currentTime += process.getBurstTime();
-            process.setCompletionTime(currentTime);
-            
-            totalWaitingTime += process.getWaitingTime();
-            totalTurnaroundTime += process.getTurnaroundTime();
+    // Replaces the process at index in getWorkload(); the next run continues from the last checkpoint
+    // before the old or the new process arrives, whichever is earlier
+    public synchronized void replaceProcess(int index, Process process) {
+        Workload current = getWorkload();
+        Objects.checkIndex(index, current.size());
+        workloadBuilder.clear().addAll(current, 0, index);
+        try {
+            // In place, so an unchanged arrival keeps its position among equal ones
+            add(process);
+        } catch (IllegalArgumentException e) {
+            // The processes stay as they were
+            workloadBuilder.clear();
+            builderBehind = true;
+            throw e;
         }
-        
-        // Calculate metrics
-        calculateMetrics(totalWaitingTime, totalTurnaroundTime, currentTime);
-        
-        return executionSteps;
+        workloadBuilder.addAll(current, index + 1, current.size());
+        builderBehind = false;
+        workload = null;
     }
 
-    public List<ExecutionStep> runSJF() {
-        executionSteps.clear();
-        metrics.clear();
-        
-        List<Process> remainingProcesses = new ArrayList<>(processes);
-        PriorityQueue<Process> readyQueue = new PriorityQueue<>(
-            Comparator.comparingInt(Process::getBurstTime));
-        
-        int currentTime = 0;
-        double totalWaitingTime = 0;
-        double totalTurnaroundTime = 0;
-        
-        while (!remainingProcesses.isEmpty() || !readyQueue.isEmpty()) {
-            // Add processes that have arrived to ready queue
-            Iterator<Process> iterator = remainingProcesses.iterator();
-            while (iterator.hasNext()) {
-                Process process = iterator.next();
-                if (process.getArrivalTime() <= currentTime) {
-                    readyQueue.add(process);
-                    iterator.remove();
-                }
-            }
-            
-            if (readyQueue.isEmpty()) {
-                currentTime = remainingProcesses.get(0).getArrivalTime();
-                continue;
-            }
-            
-            Process currentProcess = readyQueue.poll();
-            currentProcess.setStartTime(currentTime);
-            executionSteps.add(new ExecutionStep(currentProcess.getProcessId(), currentTime, 
-                currentTime + currentProcess.getBurstTime()));
-            
-            currentTime += currentProcess.getBurstTime();
-            currentProcess.setCompletionTime(currentTime);
-            
-            totalWaitingTime += currentProcess.getWaitingTime();
-            totalTurnaroundTime += currentProcess.getTurnaroundTime();
+    private void add(Process process) {
+        if (process.hasIo()) {
+            workloadBuilder.add(process.getProcessId(), process.getArrivalTime(), process.getBursts(),
+                process.getNice());
+        } else {
+            workloadBuilder.add(process.getProcessId(), process.getArrivalTime(), process.getBurstTime(),
+                process.getNice());
         }
-        
-        calculateMetrics(totalWaitingTime, totalTurnaroundTime, currentTime);
-        
-        return executionSteps;
     }
 
-    public List<ExecutionStep> runSRTF() {
-        executionSteps.clear();
-        metrics.clear();
-        
-        List<Process> remainingProcesses = new ArrayList<>(processes);
-        for (Process p : remainingProcesses) {
-            p.setRemainingTime(p.getBurstTime());
+    public synchronized void clearProcesses() {
+        workloadBuilder.clear();
+        workload = null;
+        lastResult = null;
+        latestRuns.clear();
+        builderBehind = false;
+    }
+
+    // Replaces all processes, e.g. with a generated workload, without copying it
+    public synchronized void setWorkload(Workload workload) {
+        workloadBuilder.clear();
+        this.workload = workload;
+        lastResult = null;
+        latestRuns.clear();
+        builderBehind = true;
+    }
+
+    // Immutable snapshot of the processes added so far
+    public synchronized Workload getWorkload() {
+        if (workload == null) {
+            workload = workloadBuilder.build();
         }
-        
-        PriorityQueue<Process> readyQueue = new PriorityQueue<>(
-            Comparator.comparingInt(Process::getRemainingTime));
-        
-        int currentTime = 0;
-        double totalWaitingTime = 0;
-        double totalTurnaroundTime = 0;
-        Process currentProcess = null;
-        int lastSwitchTime = 0;
-        
-        while (!remainingProcesses.isEmpty() || !readyQueue.isEmpty() || currentProcess != null) {
-            // Add newly arrived processes to ready queue
-            Iterator<Process> iterator = remainingProcesses.iterator();
-            while (iterator.hasNext()) {
-                Process process = iterator.next();
-                if (process.getArrivalTime() <= currentTime) {
-                    readyQueue.add(process);
-                    iterator.remove();
-                }
-            }
-            
-            // Check if we need to switch processes
-            boolean switchRequired = false;
-            if (currentProcess == null) {
-                switchRequired = true;
-            } else if (!readyQueue.isEmpty() && 
-                      readyQueue.peek().getRemainingTime() < currentProcess.getRemainingTime()) {
-                readyQueue.add(currentProcess);
-                switchRequired = true;
-            }
-            
-            if (switchRequired) {
-                if (currentProcess != null && lastSwitchTime != currentTime) {
-                    executionSteps.add(new ExecutionStep(currentProcess.getProcessId(), 
-                        lastSwitchTime, currentTime));
-                }
-                
-                currentProcess = readyQueue.poll();
-                if (currentProcess != null) {
-                    currentProcess.setStartTime(currentTime);
-                    lastSwitchTime = currentTime;
-                }
+        return workload;
+    }
+
+    public List<ExecutionStep> runFCFS() {
+        return run(Algorithm.FCFS, 0).getExecutionSteps();
+    }
+
+    public List<ExecutionStep> runSJF() {
+        return run(Algorithm.SJF, 0).getExecutionSteps();
+    }
+
+    public List<ExecutionStep> runSRTF() {
+        return run(Algorithm.SRTF, 0).getExecutionSteps();
+    }
+
+    public List<ExecutionStep> runRoundRobin(long timeQuantum) {
+        return run(Algorithm.ROUND_ROBIN, timeQuantum).getExecutionSteps();
+    }
+
+    public SimulationResult run(Algorithm algorithm, long timeQuantum) {
+        return run(prepare(getWorkload(), algorithm, timeQuantum, true));
+    }
+
+    // Executes a prepared run, e.g. on a background thread while the caller watches its progress.
+    // Single-core runs record checkpoints; after processes were added, removed or replaced, a run with
+    // the same settings as the last one only simulates from the last checkpoint before the first edit.
+    public SimulationResult run(SimulationResult prepared) {
+        ResultCache cache = this.cache;
+        SimulationResult result = cache != null ? cache.get(prepared) : null;
+        if (result == null) {
+            SimulationResult previous;
+            synchronized (this) {
+                previous = latestRuns.get(prepared.getAlgorithm());
             }
-            
-            if (currentProcess == null) {
-                currentTime = remainingProcesses.isEmpty() ? currentTime : 
-                    remainingProcesses.get(0).getArrivalTime();
-                continue;
+            prepared.recordCheckpoints(previous);
+            result = execute(prepared);
+            if (cache != null) {
+                cache.put(result);
             }
-            
-            // Execute for 1 time unit
-            currentTime++;
-            currentProcess.setRemainingTime(currentProcess.getRemainingTime() - 1);
-            
-            // Check if process is completed
-            if (currentProcess.getRemainingTime() == 0) {
-                executionSteps.add(new ExecutionStep(currentProcess.getProcessId(), 
-                    lastSwitchTime, currentTime));
-                currentProcess.setCompletionTime(currentTime);
-                totalWaitingTime += currentProcess.getWaitingTime();
-                totalTurnaroundTime += currentProcess.getTurnaroundTime();
-                currentProcess = null;
+        }
+        synchronized (this) {
+            lastResult = result;
+            latestRuns.put(result.getAlgorithm(), result);
+        }
+        return result;
+    }
+
+    // Cached result of a prepared run, which becomes the last result; null when the run has to execute
+    public SimulationResult runCached(SimulationResult prepared) {
+        ResultCache cache = this.cache;
+        SimulationResult result = cache != null ? cache.get(prepared) : null;
+        if (result != null) {
+            synchronized (this) {
+                lastResult = result;
+                latestRuns.put(result.getAlgorithm(), result);
             }
         }
-        
-        calculateMetrics(totalWaitingTime, totalTurnaroundTime, currentTime);
-        
-        return executionSteps;
+        return result;
     }
 
-    public List<ExecutionStep> runRoundRobin(int timeQuantum) {
-        executionSteps.clear();
-        metrics.clear();
-        
-        Queue<Process> readyQueue = new LinkedList<>();
-        List<Process> remainingProcesses = new ArrayList<>(processes);
-        for (Process p : remainingProcesses) {
-            p.setRemainingTime(p.getBurstTime());
+    public void setResultCache(ResultCache cache) {
+        this.cache = cache;
+    }
+
+    public ResultCache getResultCache() {
+        return cache;
+    }
+
+    // Runs every algorithm on the same workload in parallel; finishes in about the time of the slowest one
+    public Map<Algorithm, SimulationResult> compareAll(long timeQuantum) {
+        return simulateAll(getWorkload(), EnumSet.allOf(Algorithm.class), timeQuantum);
+    }
+
+    public static Map<Algorithm, SimulationResult> simulateAll(Workload workload,
+                                                               Collection<Algorithm> algorithms,
+                                                               long timeQuantum) {
+        return simulateAll(workload, algorithms, timeQuantum, CoreConfig.SINGLE);
+    }
+
+    public static Map<Algorithm, SimulationResult> simulateAll(Workload workload,
+                                                               Collection<Algorithm> algorithms,
+                                                               long timeQuantum, CoreConfig cores) {
+        return simulateAll(workload, algorithms, timeQuantum, cores, PolicyConfig.DEFAULT);
+    }
+
+    public static Map<Algorithm, SimulationResult> simulateAll(Workload workload,
+                                                               Collection<Algorithm> algorithms,
+                                                               long timeQuantum, CoreConfig cores,
+                                                               PolicyConfig policies) {
+        return simulateAll(workload, algorithms, timeQuantum, cores, policies, null);
+    }
+
+    // With a cache, algorithms whose result is cached are not run again; cache may be null
+    public static Map<Algorithm, SimulationResult> simulateAll(Workload workload,
+                                                               Collection<Algorithm> algorithms,
+                                                               long timeQuantum, CoreConfig cores,
+                                                               PolicyConfig policies, ResultCache cache) {
+        List<Callable<SimulationResult>> runs = new ArrayList<>();
+        for (Algorithm algorithm : algorithms) {
+            runs.add(() -> {
+                SweepJobEvent event = new SweepJobEvent();
+                event.begin();
+                SimulationResult prepared = prepare(workload, algorithm, timeQuantum, cores, policies, true);
+                SimulationResult result = cache != null ? cache.run(prepared) : execute(prepared);
+                if (event.shouldCommit()) {
+                    event.sweep = "compare";
+                    event.job = algorithm.ordinal();
+                    event.algorithm = algorithm.getShortName();
+                    event.timeQuantum = timeQuantum;
+                    event.processes = workload.size();
+                    event.commit();
+                }
+                return result;
+            });
         }
         
-        int currentTime = 0;
-        double totalWaitingTime = 0;
-        double totalTurnaroundTime = 0;
-        
-        while (!remainingProcesses.isEmpty() || !readyQueue.isEmpty()) {
-            // Add newly arrived processes to ready queue
-            Iterator<Process> iterator = remainingProcesses.iterator();
-            while (iterator.hasNext()) {
-                Process process = iterator.next();
-                if (process.getArrivalTime() <= currentTime) {
-                    readyQueue.add(process);
-                    iterator.remove();
-                }
-            }
-            
-            if (readyQueue.isEmpty()) {
-                currentTime = remainingProcesses.get(0).getArrivalTime();
-                continue;
+        Map<Algorithm, SimulationResult> results = new EnumMap<>(Algorithm.class);
+        try {
+            for (Future<SimulationResult> future : ForkJoinPool.commonPool().invokeAll(runs)) {
+                SimulationResult result = future.get();
+                results.put(result.getAlgorithm(), result);
             }
-            
-            Process currentProcess = readyQueue.poll();
-            currentProcess.setStartTime(currentTime);
-            
-            int executeTime = Math.min(timeQuantum, currentProcess.getRemainingTime());
-            executionSteps.add(new ExecutionStep(currentProcess.getProcessId(), 
-                currentTime, currentTime + executeTime));
-            
-            currentTime += executeTime;
-            currentProcess.setRemainingTime(currentProcess.getRemainingTime() - executeTime);
-            
-            // Add newly arrived processes during this time quantum
-            iterator = remainingProcesses.iterator();
-            while (iterator.hasNext()) {
-                Process process = iterator.next();
-                if (process.getArrivalTime() <= currentTime) {
-                    readyQueue.add(process);
-                    iterator.remove();
-                }
-            }
-            
-            if (currentProcess.getRemainingTime() > 0) {
-                readyQueue.add(currentProcess);
-            } else {
-                currentProcess.setCompletionTime(currentTime);
-                totalWaitingTime += currentProcess.getWaitingTime();
-                totalTurnaroundTime += currentProcess.getTurnaroundTime();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Simulation interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
+            throw new IllegalStateException("Simulation failed", e.getCause());
         }
-        
-        calculateMetrics(totalWaitingTime, totalTurnaroundTime, currentTime);
-        
-        return executionSteps;
+        return results;
     }
 
-    private void calculateMetrics(double totalWaitingTime, double totalTurnaroundTime, int totalTime) {
-        double avgWaitingTime = totalWaitingTime / processes.size();
-        double avgTurnaroundTime = totalTurnaroundTime / processes.size();
-        double throughput = (double) processes.size() / totalTime;
-        double cpuUtilization = processes.stream()
-            .mapToInt(Process::getBurstTime)
-            .sum() * 100.0 / totalTime;
-        
-        metrics.put("Average Waiting Time", avgWaitingTime);
-        metrics.put("Average Turnaround Time", avgTurnaroundTime);
-        metrics.put("Throughput", throughput);
-        metrics.put("CPU Utilization (%)", cpuUtilization);
+    public static SimulationResult simulate(Workload workload, Algorithm algorithm, long timeQuantum) {
+        return simulate(workload, algorithm, timeQuantum, true);
+    }
+
+    public static SimulationResult simulate(Workload workload, Algorithm algorithm, long timeQuantum,
+                                            boolean recordSteps) {
+        return execute(prepare(workload, algorithm, timeQuantum, recordSteps));
+    }
+
+    public static SimulationResult simulate(Workload workload, Algorithm algorithm, long timeQuantum,
+                                            CoreConfig cores) {
+        return execute(prepare(workload, algorithm, timeQuantum, cores, true));
     }
 
-    public Map<String, Double> getMetrics() {
-        return metrics;
+    public static SimulationResult simulate(Workload workload, Algorithm algorithm, long timeQuantum,
+                                            CoreConfig cores, PolicyConfig policies) {
+        return execute(prepare(workload, algorithm, timeQuantum, cores, policies, true));
     }
 
-    public List<Process> getProcesses() {
-        return processes;
+    // Sets up a run without executing it, so it can be observed or cancelled from another thread
+    public static SimulationResult prepare(Workload workload, Algorithm algorithm, long timeQuantum,
+                                           boolean recordSteps) {
+        return new SimulationResult(workload, algorithm, timeQuantum, recordSteps);
+    }
+
+    public static SimulationResult prepare(Workload workload, Algorithm algorithm, long timeQuantum,
+                                           CoreConfig cores, boolean recordSteps) {
+        return new SimulationResult(workload, algorithm, timeQuantum, cores, recordSteps);
+    }
+
+    public static SimulationResult prepare(Workload workload, Algorithm algorithm, long timeQuantum,
+                                           CoreConfig cores, PolicyConfig policies, boolean recordSteps) {
+        return new SimulationResult(workload, algorithm, timeQuantum, cores, policies, recordSteps);
+    }
+
+    // Runs a prepared simulation to completion; throws CancellationException if it is cancelled
+    public static SimulationResult execute(SimulationResult result) {
+        if (result.getAlgorithm() == Algorithm.ROUND_ROBIN && result.getTimeQuantum() <= 0) {
+            throw new IllegalArgumentException("Time quantum must be positive");
+        }
+        EventLoop.run(result);
+        return result;
+    }
+
+    public synchronized Map<String, Double> getMetrics() {
+        return lastResult != null ? lastResult.getMetrics() : new HashMap<>();
+    }
+
+    public synchronized SimulationResult getLastResult() {
+        return lastResult;
+    }
+
+    // Rows for the process table, with the last run's results when it matches the current processes
+    public synchronized List<Process> getProcesses() {
+        Workload current = getWorkload();
+        // A cached result may belong to an equal workload built separately
+        if (lastResult != null && (lastResult.getWorkload() == current
+                || lastResult.getWorkload().size() == current.size()
+                && lastResult.getWorkload().fingerprint().equals(current.fingerprint()))) {
+            return lastResult.asProcessList();
+        }
+        return current.asProcessList();
     }
 
     public static class ExecutionStep {
         private String processId;
-        private int startTime;
-        private int endTime;
+        private long startTime;
+        private long endTime;
 
-        public ExecutionStep(String processId, int startTime, int endTime) {
+        public ExecutionStep(String processId, long startTime, long endTime) {
             this.processId = processId;
             this.startTime = startTime;
             this.endTime = endTime;
         }
 
         public String getProcessId() { return processId; }
-        public int getStartTime() { return startTime; }
-        public int getEndTime() { return endTime; }
+        public long getStartTime() { return startTime; }
+        public long getEndTime() { return endTime; }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,91 @@
+package com.cpuscheduler;
+
+/**
+ * A scheduling policy plugged into the shared event loop. The loop owns the clock,
+ * arrivals, cores, preemption, tracing and metrics; a policy only holds the runnable
+ * processes it is handed and decides which runs next and for how long. Processes are
+ * workload indices and every call happens on the simulation thread.
+ */
+public interface SchedulingPolicy {
+
+    // A process arrived and is runnable; time is its arrival time, even if the loop admits it later
+    void onArrival(int process, long time);
+
+    // Removes and returns the process to run next, or -1 when none is runnable
+    int pickNext(long time);
+
+    // The process pickNext would return, without removing it, or -1
+    int peekNext(long time);
+
+    // Number of runnable processes the policy holds
+    int size();
+
+    // Longest the process may run before onQuantumExpired; Long.MAX_VALUE runs it to completion
+    long timeSlice(int process, long time);
+
+    // The process used up its time slice and is runnable again
+    void onQuantumExpired(int process, long time);
+
+    // Whether a process that becomes runnable may displace a running one
+    boolean isPreemptive();
+
+    // For preemptive policies: whether process a should run before process b
+    boolean precedes(int a, int b, long time);
+
+    // For preemptive policies whose order changes while processes wait: the earliest time from which a queued
+    // process precedes the running one if nothing else happens, or Long.MAX_VALUE if none comes to
+    default long overtakeTime(int running, long time) {
+        return Long.MAX_VALUE;
+    }
+
+    // The process was displaced by one that precedes it and is runnable again
+    void onPreempt(int process, long time);
+
+    // The process finished; policies with per-process state can drop it here
+    default void onCompletion(int process, long time) {
+    }
+
+    // The process ended a CPU burst and waits for I/O; the policy does not hold it until onWake
+    default void onBlock(int process, long time) {
+        onCompletion(process, time);
+    }
+
+    // The process finished its I/O and is runnable again, with its next CPU burst as remaining time
+    default void onWake(int process, long time) {
+        onArrival(process, time);
+    }
+
+    // Called between slices, while every runnable process is queued: a copy of the state needed to
+    // continue later, or null if the policy cannot be checkpointed
+    default State saveState() {
+        return null;
+    }
+
+    // Continues from a saved state in a fresh policy of the same kind and settings, whose workload may
+    // differ from the saved one only in processes that had not arrived yet
+    default void restoreState(State state) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot be checkpointed");
+    }
+
+    // Saved policy state; policies with more than a queue extend it
+    class State {
+        private final int[] queued;
+
+        protected State(int[] queued) {
+            this.queued = queued;
+        }
+
+        // Every runnable process, in the order that rebuilds the queue when added back one by one
+        public int[] queued() {
+            return queued;
+        }
+
+        // Gives every queued process its index in newIndexes, which must keep them in the same order,
+        // e.g. when a streaming run packs its live processes into fewer slots
+        void renumber(int[] newIndexes) {
+            for (int i = 0; i < queued.length; i++) {
+                queued[i] = newIndexes[queued[i]];
+            }
+        }
+    }
+}
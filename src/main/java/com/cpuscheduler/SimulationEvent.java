@@ -0,0 +1,34 @@
+package com.cpuscheduler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning one event loop run, from setup to the final metrics. When
+ * no recording has it enabled, begin and commit return at once.
+ */
+@Name("com.cpuscheduler.Simulation")
+@Label("Simulation")
+@Category("CPU Scheduler")
+@Description("One run of a scheduling algorithm over a workload")
+final class SimulationEvent extends jdk.jfr.Event {
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Processes")
+    int processes;
+
+    @Label("Cores")
+    int cores;
+
+    @Label("Resumed From Checkpoint")
+    boolean resumed;
+
+    @Label("Simulated Time")
+    long simulatedTime;
+
+    @Label("Context Switches")
+    long contextSwitches;
+}
@@ -0,0 +1,576 @@
+package com.cpuscheduler;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Everything one run produces: per-process remaining/start/completion times,
+ * the execution trace and the metrics. Engines fill it in while they run;
+ * the shared Workload is never written to, so runs can proceed in parallel.
+ * While a run is in progress, another thread can follow its progress and
+ * cancel it; the engine publishes a snapshot every PUBLISH_INTERVAL steps.
+ * A single-core run can also record checkpoints, about CHECKPOINTS of them
+ * spread over the arrivals, so that a run of an edited workload continues from
+ * the last one taken before the first edited process arrived.
+ * Workloads with I/O also get one trace per device and each process's time
+ * blocked on I/O, which counts towards turnaround but not waiting time; their
+ * runs take no checkpoints.
+ */
+public class SimulationResult {
+    private static final int PUBLISH_INTERVAL = 4096;
+    private static final int CHECKPOINTS = 32;
+
+    private final Workload workload;
+    private final Algorithm algorithm;
+    private final long timeQuantum;
+    private final CoreConfig coreConfig;
+    private final PolicyConfig policyConfig;
+    private final boolean recordSteps;
+
+    final long[] remainingTimes;
+    final long[] startTimes;
+    final long[] completionTimes;
+    // One trace per core; a single-core run only has traces[0]
+    private final ExecutionTrace[] traces;
+    private final long[] busyTimes;
+    private final int[] lastProcesses;
+    // One trace and busy time per I/O device, and per process the time spent blocked; empty or null without I/O
+    private final ExecutionTrace[] ioTraces;
+    private final long[] ioBusyTimes;
+    private final long[] blockedTimes;
+    private final Map<String, Double> metrics;
+    private final LatencyStats latency;
+    private final EngineStats engineStats = EngineStats.create();
+
+    // Oldest first; null unless recording. The queued processes they hold stay within a budget.
+    private List<Checkpoint> checkpoints;
+    private int checkpointSpacing;
+    private long checkpointEntries;
+    private Checkpoint resumePoint;
+
+    private double totalWaitingTime;
+    private double totalTurnaroundTime;
+    private long totalTime;
+    private long contextSwitches;
+    private long migrations;
+    private int completedCount;
+    private int unpublishedSteps;
+
+    // Written by the engine at publish points, read by observers on other threads
+    private volatile boolean cancelled;
+    private volatile boolean finished;
+    private volatile int publishedCompleted;
+    private volatile long publishedTime;
+    private volatile double publishedWaitingTime;
+    private volatile double publishedTurnaroundTime;
+
+    private double averageWaitingTime;
+    private double averageTurnaroundTime;
+    private double throughput;
+    private double cpuUtilization;
+
+    // With recordSteps off only the metrics are kept, e.g. for parameter sweeps
+    SimulationResult(Workload workload, Algorithm algorithm, long timeQuantum, boolean recordSteps) {
+        this(workload, algorithm, timeQuantum, CoreConfig.SINGLE, recordSteps);
+    }
+
+    SimulationResult(Workload workload, Algorithm algorithm, long timeQuantum, CoreConfig coreConfig,
+                     boolean recordSteps) {
+        this(workload, algorithm, timeQuantum, coreConfig, PolicyConfig.DEFAULT, recordSteps);
+    }
+
+    SimulationResult(Workload workload, Algorithm algorithm, long timeQuantum, CoreConfig coreConfig,
+                     PolicyConfig policyConfig, boolean recordSteps) {
+        int n = workload.size();
+        int cores = coreConfig.getCores();
+        this.workload = workload;
+        this.algorithm = algorithm;
+        this.timeQuantum = timeQuantum;
+        this.coreConfig = coreConfig;
+        this.policyConfig = policyConfig;
+        this.recordSteps = recordSteps;
+        this.remainingTimes = Arrays.copyOf(workload.burstTimes, n);
+        if (workload.hasIo()) {
+            for (int i = 0; i < n; i++) {
+                remainingTimes[i] = workload.firstBurstTime(i);
+            }
+        }
+        this.startTimes = new long[n];
+        Arrays.fill(startTimes, -1);
+        this.completionTimes = new long[n];
+        this.traces = new ExecutionTrace[cores];
+        for (int core = 0; core < cores; core++) {
+            traces[core] = new ExecutionTrace();
+        }
+        this.busyTimes = new long[cores];
+        this.lastProcesses = new int[cores];
+        Arrays.fill(lastProcesses, -1);
+        this.ioTraces = new ExecutionTrace[workload.deviceCount()];
+        for (int device = 0; device < ioTraces.length; device++) {
+            ioTraces[device] = new ExecutionTrace();
+        }
+        this.ioBusyTimes = new long[ioTraces.length];
+        this.blockedTimes = workload.hasIo() ? new long[n] : null;
+        this.metrics = new HashMap<>();
+        this.latency = new LatencyStats();
+    }
+
+    void addStep(int process, long startTime, long endTime) {
+        addStep(0, process, startTime, endTime);
+    }
+
+    void addStep(int core, int process, long startTime, long endTime) {
+        long started = EngineStats.ENABLED ? System.nanoTime() : 0;
+        int lastProcess = lastProcesses[core];
+        if (process != lastProcess) {
+            if (lastProcess != -1) {
+                contextSwitches++;
+            }
+            lastProcesses[core] = process;
+        }
+        busyTimes[core] += endTime - startTime;
+        if (recordSteps) {
+            traces[core].add(process, startTime, endTime);
+        }
+        if (++unpublishedSteps == PUBLISH_INTERVAL) {
+            publish(endTime);
+        }
+        if (EngineStats.ENABLED) {
+            engineStats.add(EngineStats.Phase.TRACING, started);
+        }
+    }
+
+    // A device served the process's I/O burst
+    void addIoStep(int device, int process, long startTime, long endTime) {
+        ioBusyTimes[device] += endTime - startTime;
+        if (recordSteps) {
+            ioTraces[device].add(process, startTime, endTime);
+        }
+    }
+
+    // The process was blocked on I/O, queueing or being served, for this long
+    void addBlockedTime(int process, long time) {
+        blockedTimes[process] += time;
+    }
+
+    // Makes a single-core run record checkpoints, continuing from the latest usable one of an earlier run
+    // with the same algorithm and settings; previous may be null
+    void recordCheckpoints(SimulationResult previous) {
+        if (traces.length != 1 || workload.hasIo()) {
+            return;
+        }
+        checkpoints = new ArrayList<>();
+        checkpointSpacing = Math.max(1, workload.size() / CHECKPOINTS);
+        if (previous == null || previous.checkpoints == null || !previous.finished
+                || previous.algorithm != algorithm || recordSteps && !previous.recordSteps
+                || !ResultCache.settings(previous).equals(ResultCache.settings(this))) {
+            return;
+        }
+        Workload before = previous.workload;
+        int changedRow = workload.firstDifference(before);
+        long changedArrival = Math.min(
+            changedRow < workload.size() ? workload.arrivalTimes[changedRow] : Long.MAX_VALUE,
+            changedRow < before.size() ? before.arrivalTimes[changedRow] : Long.MAX_VALUE);
+        for (Checkpoint checkpoint : previous.checkpoints) {
+            if (!checkpoint.precedes(changedRow, changedArrival)) {
+                break;
+            }
+            checkpoints.add(checkpoint);
+            checkpointEntries += checkpoint.entries();
+        }
+        if (!checkpoints.isEmpty()) {
+            resume(previous, checkpoints.get(checkpoints.size() - 1));
+        }
+    }
+
+    // Copies the earlier run's state at the checkpoint; the engine then continues from resumePoint()
+    private void resume(SimulationResult previous, Checkpoint checkpoint) {
+        int position = checkpoint.position;
+        System.arraycopy(previous.startTimes, 0, startTimes, 0, position);
+        System.arraycopy(previous.completionTimes, 0, completionTimes, 0, position);
+        Arrays.fill(remainingTimes, 0, position, 0);
+        if (recordSteps) {
+            traces[0].copyPrefix(previous.traces[0], checkpoint.traceSize, checkpoint.lastSliceEnd);
+        }
+        resumeFrom(checkpoint);
+    }
+
+    // Takes over the checkpoint's queued processes and partial metrics, so the engine continues from it
+    void resumeFrom(Checkpoint checkpoint) {
+        int[] queued = checkpoint.policy.queued();
+        for (int i = 0; i < queued.length; i++) {
+            int process = queued[i];
+            remainingTimes[process] = checkpoint.remainingTimes[i];
+            startTimes[process] = checkpoint.startTimes[i];
+            completionTimes[process] = 0;
+        }
+        latency.restore(checkpoint.latency);
+        totalWaitingTime = checkpoint.totalWaitingTime;
+        totalTurnaroundTime = checkpoint.totalTurnaroundTime;
+        contextSwitches = checkpoint.contextSwitches;
+        busyTimes[0] = checkpoint.busyTime;
+        lastProcesses[0] = checkpoint.lastProcess;
+        completedCount = checkpoint.completed;
+        resumePoint = checkpoint;
+        publish(checkpoint.time);
+    }
+
+    // Checkpoint to continue from, or null to start at time 0
+    Checkpoint resumePoint() {
+        return resumePoint;
+    }
+
+    // Arrival position at which the engine takes its next checkpoint
+    int nextCheckpointPosition() {
+        if (checkpoints == null) {
+            return Integer.MAX_VALUE;
+        }
+        return (resumePoint != null ? resumePoint.position : 0) + checkpointSpacing;
+    }
+
+    // Called between slices with every runnable process queued; returns the position of the next checkpoint,
+    // or -1 to end the run here without finishing it, to be continued from a checkpoint
+    int checkpoint(long time, int position, int completed, SchedulingPolicy policy) {
+        SchedulingPolicy.State state = policy.saveState();
+        if (state == null) {
+            checkpoints = null;
+            return Integer.MAX_VALUE;
+        }
+        int[] queued = state.queued();
+        long budget = 4L * workload.size() + 4096;
+        if (queued.length <= budget) {
+            while (checkpointEntries + queued.length > budget) {
+                checkpointEntries -= checkpoints.remove(0).entries();
+            }
+            checkpoints.add(snapshot(time, position, completed, state));
+            checkpointEntries += queued.length;
+        }
+        return position + checkpointSpacing;
+    }
+
+    // The run's state between two slices, with the policy's saved state
+    Checkpoint snapshot(long time, int position, int completed, SchedulingPolicy.State state) {
+        int[] queued = state.queued();
+        long[] remaining = new long[queued.length];
+        long[] starts = new long[queued.length];
+        for (int i = 0; i < queued.length; i++) {
+            remaining[i] = remainingTimes[queued[i]];
+            starts[i] = startTimes[queued[i]];
+        }
+        ExecutionTrace trace = traces[0];
+        return new Checkpoint(time, position, completed, state, remaining, starts,
+            latency.snapshot(), totalWaitingTime, totalTurnaroundTime, contextSwitches, busyTimes[0], lastProcesses[0],
+            trace.size(), trace.isEmpty() ? 0 : trace.endTime(trace.size() - 1));
+    }
+
+    // Cursor over the arrivals the engine admits
+    ArrivalIndex newArrivalIndex() {
+        return new ArrivalIndex(workload);
+    }
+
+    // Makes progress visible to observers and stops the engine if the run was cancelled
+    private void publish(long time) {
+        unpublishedSteps = 0;
+        if (cancelled) {
+            throw new CancellationException("Simulation cancelled");
+        }
+        publishedWaitingTime = totalWaitingTime;
+        publishedTurnaroundTime = totalTurnaroundTime;
+        publishedTime = time;
+        for (ExecutionTrace trace : traces) {
+            trace.publish(false);
+        }
+        for (ExecutionTrace trace : ioTraces) {
+            trace.publish(false);
+        }
+        publishedCompleted = completedCount;
+    }
+
+    void markStarted(int process, long time) {
+        long started = EngineStats.ENABLED ? System.nanoTime() : 0;
+        if (startTimes[process] == -1) {
+            startTimes[process] = time;
+        }
+        if (EngineStats.ENABLED) {
+            engineStats.add(EngineStats.Phase.METRICS, started);
+        }
+    }
+
+    void markCompleted(int process, long time) {
+        long started = EngineStats.ENABLED ? System.nanoTime() : 0;
+        remainingTimes[process] = 0;
+        completionTimes[process] = time;
+        long turnaroundTime = time - workload.arrivalTimes[process];
+        // Time blocked on I/O counts like running: only time in the ready queue is waiting
+        long serviceTime = workload.burstTimes[process] + (blockedTimes != null ? blockedTimes[process] : 0);
+        totalWaitingTime += turnaroundTime - serviceTime;
+        totalTurnaroundTime += turnaroundTime;
+        latency.record(workload.arrivalTimes[process], serviceTime, startTimes[process], time);
+        completedCount++;
+        if (EngineStats.ENABLED) {
+            engineStats.add(EngineStats.Phase.METRICS, started);
+        }
+    }
+
+    // A process resumed on a different core than it last ran on
+    void addMigration() {
+        migrations++;
+    }
+
+    void finish(long totalTime) {
+        long started = EngineStats.ENABLED ? System.nanoTime() : 0;
+        this.totalTime = totalTime;
+        int processCount = workload.size();
+        averageWaitingTime = totalWaitingTime / processCount;
+        averageTurnaroundTime = totalTurnaroundTime / processCount;
+        throughput = (double) processCount / totalTime;
+        cpuUtilization = workload.totalBurstTime() * 100.0 / totalTime / traces.length;
+        
+        metrics.put("Average Waiting Time", averageWaitingTime);
+        metrics.put("Average Turnaround Time", averageTurnaroundTime);
+        metrics.put("Throughput", throughput);
+        metrics.put("CPU Utilization (%)", cpuUtilization);
+        if (ioTraces.length > 0) {
+            metrics.put("I/O Utilization (%)", getIoUtilization());
+        }
+        
+        publish(totalTime);
+        for (ExecutionTrace trace : traces) {
+            trace.publish(true);
+        }
+        for (ExecutionTrace trace : ioTraces) {
+            trace.publish(true);
+        }
+        if (EngineStats.ENABLED) {
+            engineStats.add(EngineStats.Phase.METRICS, started);
+        }
+        finished = true;
+    }
+
+    // Asks the engine to stop; it throws CancellationException at its next publish point
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() { return cancelled; }
+    public boolean isFinished() { return finished; }
+
+    // Progress as seen from another thread, trailing the engine by at most PUBLISH_INTERVAL steps
+    public int getCompletedCount() { return publishedCompleted; }
+    public long getSimulatedTime() { return publishedTime; }
+
+    public double getProgress() {
+        return workload.isEmpty() ? 1 : (double) publishedCompleted / workload.size();
+    }
+
+    // Averages over the processes completed so far
+    public double getPartialAverageWaitingTime() {
+        int completed = publishedCompleted;
+        return completed == 0 ? 0 : publishedWaitingTime / completed;
+    }
+
+    public double getPartialAverageTurnaroundTime() {
+        int completed = publishedCompleted;
+        return completed == 0 ? 0 : publishedTurnaroundTime / completed;
+    }
+
+    public boolean recordsSteps() { return recordSteps; }
+    public Workload getWorkload() { return workload; }
+    public Algorithm getAlgorithm() { return algorithm; }
+    public long getTimeQuantum() { return timeQuantum; }
+    public CoreConfig getCoreConfig() { return coreConfig; }
+    public PolicyConfig getPolicyConfig() { return policyConfig; }
+    public long getTotalTime() { return totalTime; }
+
+    // Trace of the first core, the only one in a single-core run
+    public ExecutionTrace getTrace() { return traces[0]; }
+    public ExecutionTrace getTrace(int core) { return traces[core]; }
+    public ExecutionTrace[] getTraces() { return traces.clone(); }
+    public int getCores() { return traces.length; }
+
+    // Trace of each I/O device, device 1 first; empty without I/O
+    public ExecutionTrace[] getIoTraces() { return ioTraces.clone(); }
+    public int getDevices() { return ioTraces.length; }
+
+    // Percentage of the run the device spent serving I/O bursts, device numbered from 1
+    public double getDeviceUtilization(int device) {
+        return totalTime == 0 ? 0 : ioBusyTimes[device - 1] * 100.0 / totalTime;
+    }
+
+    // Average over the devices
+    public double getIoUtilization() {
+        long busy = 0;
+        for (long time : ioBusyTimes) {
+            busy += time;
+        }
+        return totalTime == 0 || ioBusyTimes.length == 0 ? 0 : busy * 100.0 / totalTime / ioBusyTimes.length;
+    }
+
+    public long blockedTime(int process) { return blockedTimes != null ? blockedTimes[process] : 0; }
+
+    public List<SchedulerSimulator.ExecutionStep> getExecutionSteps() {
+        return traces[0].asExecutionSteps(workload);
+    }
+    public Map<String, Double> getMetrics() { return metrics; }
+    public LatencyStats getLatency() { return latency; }
+    // Engine counters and phase timers; empty unless instrumentation is on
+    public EngineStats getEngineStats() { return engineStats; }
+    public double getAverageWaitingTime() { return averageWaitingTime; }
+    public double getAverageTurnaroundTime() { return averageTurnaroundTime; }
+    public double getThroughput() { return throughput; }
+    public double getCpuUtilization() { return cpuUtilization; }
+
+    // Percentage of the run the core spent executing processes
+    public double getCoreUtilization(int core) {
+        return totalTime == 0 ? 0 : busyTimes[core] * 100.0 / totalTime;
+    }
+
+    public long getMigrations() { return migrations; }
+
+    // Number of times a core switched from one process to a different one
+    public long getContextSwitches() { return contextSwitches; }
+
+    double totalWaitingTime() { return totalWaitingTime; }
+    double totalTurnaroundTime() { return totalTurnaroundTime; }
+    long busyTime(int core) { return busyTimes[core]; }
+
+    public long startTime(int process) { return startTimes[process]; }
+    public long completionTime(int process) { return completionTimes[process]; }
+
+    // Approximate heap bytes this result holds on top of its workload
+    long memoryFootprint() {
+        long bytes = 3L * Long.BYTES * workload.size() + 3 * LatencyHistogram.MEMORY_FOOTPRINT + 1024;
+        for (ExecutionTrace trace : traces) {
+            bytes += trace.memoryFootprint() + 2 * Long.BYTES;
+        }
+        for (ExecutionTrace trace : ioTraces) {
+            bytes += trace.memoryFootprint() + Long.BYTES;
+        }
+        if (blockedTimes != null) {
+            bytes += (long) Long.BYTES * blockedTimes.length;
+        }
+        if (checkpoints != null) {
+            for (Checkpoint checkpoint : checkpoints) {
+                bytes += checkpoint.memoryFootprint();
+            }
+        }
+        return bytes;
+    }
+
+    // Writes what a finished run computed; readFrom rebuilds the rest from the workload
+    void writeTo(DataOutputStream out) throws IOException {
+        int n = workload.size();
+        out.writeInt(n);
+        out.writeInt(traces.length);
+        for (int i = 0; i < n; i++) {
+            out.writeLong(startTimes[i]);
+            out.writeLong(completionTimes[i]);
+        }
+        out.writeLong(totalTime);
+        out.writeLong(contextSwitches);
+        out.writeLong(migrations);
+        out.writeDouble(totalWaitingTime);
+        out.writeDouble(totalTurnaroundTime);
+        for (int core = 0; core < traces.length; core++) {
+            writeTrace(out, traces[core], busyTimes[core]);
+        }
+        out.writeInt(ioTraces.length);
+        for (int device = 0; device < ioTraces.length; device++) {
+            writeTrace(out, ioTraces[device], ioBusyTimes[device]);
+        }
+        if (blockedTimes != null) {
+            for (long time : blockedTimes) {
+                out.writeLong(time);
+            }
+        }
+    }
+
+    private static void writeTrace(DataOutputStream out, ExecutionTrace trace, long busyTime) throws IOException {
+        out.writeLong(busyTime);
+        out.writeInt(trace.size());
+        for (int slice = 0; slice < trace.size(); slice++) {
+            out.writeInt(trace.process(slice));
+            out.writeLong(trace.startTime(slice));
+            out.writeLong(trace.endTime(slice));
+        }
+    }
+
+    private static void readTrace(DataInputStream in, ExecutionTrace trace, int processCount) throws IOException {
+        int slices = in.readInt();
+        for (int slice = 0; slice < slices; slice++) {
+            int process = in.readInt();
+            if (process < 0 || process >= processCount) {
+                throw new IOException("Stored trace refers to process " + process);
+            }
+            long startTime = in.readLong();
+            trace.add(process, startTime, in.readLong());
+        }
+    }
+
+    // Finished result of the prepared run's parameters, as written by writeTo
+    static SimulationResult readFrom(DataInputStream in, SimulationResult prepared) throws IOException {
+        SimulationResult result = new SimulationResult(prepared.workload, prepared.algorithm,
+            prepared.timeQuantum, prepared.coreConfig, prepared.policyConfig, prepared.recordSteps);
+        int n = result.workload.size();
+        if (in.readInt() != n || in.readInt() != result.traces.length) {
+            throw new IOException("Stored result does not match the workload or core count");
+        }
+        Arrays.fill(result.remainingTimes, 0);
+        for (int i = 0; i < n; i++) {
+            result.startTimes[i] = in.readLong();
+            result.completionTimes[i] = in.readLong();
+        }
+        long totalTime = in.readLong();
+        result.contextSwitches = in.readLong();
+        result.migrations = in.readLong();
+        result.totalWaitingTime = in.readDouble();
+        result.totalTurnaroundTime = in.readDouble();
+        for (int core = 0; core < result.traces.length; core++) {
+            result.busyTimes[core] = in.readLong();
+            readTrace(in, result.traces[core], n);
+        }
+        if (in.readInt() != result.ioTraces.length) {
+            throw new IOException("Stored result does not match the workload's I/O devices");
+        }
+        for (int device = 0; device < result.ioTraces.length; device++) {
+            result.ioBusyTimes[device] = in.readLong();
+            readTrace(in, result.ioTraces[device], n);
+        }
+        for (int i = 0; i < n; i++) {
+            long blocked = 0;
+            if (result.blockedTimes != null) {
+                blocked = in.readLong();
+                result.blockedTimes[i] = blocked;
+            }
+            result.latency.record(result.workload.arrivalTimes[i], result.workload.burstTimes[i] + blocked,
+                result.startTimes[i], result.completionTimes[i]);
+        }
+        result.completedCount = n;
+        result.finish(totalTime);
+        return result;
+    }
+
+    public Process toProcess(int index) {
+        return new Process(workload.processId(index), workload.arrivalTimes[index],
+            workload.burstTimes[index], workload.ioBurstCount(index) > 0 ? workload.bursts(index) : null,
+            workload.nice(index), remainingTimes[index], startTimes[index], completionTimes[index],
+            blockedTime(index));
+    }
+
+    // Process table view with this run's results; rows are materialized on demand
+    public List<Process> asProcessList() {
+        return new AbstractList<Process>() {
+            @Override
+            public Process get(int index) {
+                Objects.checkIndex(index, workload.size());
+                return toProcess(index);
+            }
+
+            @Override
+            public int size() {
+                return workload.size();
+            }
+        };
+    }
+}
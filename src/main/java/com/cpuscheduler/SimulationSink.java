@@ -0,0 +1,19 @@
+package com.cpuscheduler;
+
+/**
+ * Receives a streaming simulation's output as it happens. Processes are identified
+ * by their sequence number, i.e. their position in the arrival stream.
+ */
+public interface SimulationSink {
+
+    // The CPU ran the process over [startTime, endTime)
+    default void onSlice(long sequence, String processId, long startTime, long endTime) {
+    }
+
+    default void onCompletion(long sequence, String processId, long arrivalTime, long burstTime,
+                              long startTime, long completionTime) {
+    }
+
+    SimulationSink NONE = new SimulationSink() {
+    };
+}
@@ -0,0 +1,73 @@
+package com.cpuscheduler;
+
+/**
+ * Shortest remaining time first; ties go to arrival order. Remaining times only
+ * change while a process runs, i.e. outside the heap, so heap keys stay valid.
+ * An arrival displaces a running process only if it is strictly shorter.
+ */
+public final class SrtfPolicy implements SchedulingPolicy {
+    private final long[] remainingTimes;
+    private final IntHeap readyQueue;
+
+    public SrtfPolicy(long[] remainingTimes) {
+        this.remainingTimes = remainingTimes;
+        this.readyQueue = new IntHeap(remainingTimes);
+    }
+
+    @Override
+    public void onArrival(int process, long time) {
+        readyQueue.add(process);
+    }
+
+    @Override
+    public int pickNext(long time) {
+        return readyQueue.isEmpty() ? -1 : readyQueue.poll();
+    }
+
+    @Override
+    public int peekNext(long time) {
+        return readyQueue.isEmpty() ? -1 : readyQueue.peek();
+    }
+
+    @Override
+    public int size() {
+        return readyQueue.size();
+    }
+
+    @Override
+    public long timeSlice(int process, long time) {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public void onQuantumExpired(int process, long time) {
+        throw new IllegalStateException("SRTF only stops a process on completion or preemption");
+    }
+
+    @Override
+    public boolean isPreemptive() {
+        return true;
+    }
+
+    @Override
+    public boolean precedes(int a, int b, long time) {
+        return remainingTimes[a] < remainingTimes[b];
+    }
+
+    @Override
+    public void onPreempt(int process, long time) {
+        readyQueue.add(process);
+    }
+
+    @Override
+    public State saveState() {
+        return new State(readyQueue.toArray());
+    }
+
+    @Override
+    public void restoreState(State state) {
+        for (int process : state.queued()) {
+            readyQueue.add(process);
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.cpuscheduler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Runs an algorithm over a ProcessStream that may be far too large to hold in memory,
+ * on the same EventLoop and policies as an in-memory single-core run. The run goes
+ * through windows, each over a table of slots that holds the live and read-ahead
+ * processes in arrival order; the window's ArrivalIndex reads processes from the
+ * stream only when the clock reaches their arrival time. Once three quarters of the
+ * free slots are taken, the window stops at a checkpoint between two slices, and the next window
+ * continues from it with only the live processes, renumbered in the same order so
+ * that ties break as they would in memory. A window that fills its slots in the middle
+ * of a slice starts over from its checkpoint with twice the slots, and the output it
+ * already gave is not given again. Memory thus grows with the number of processes that
+ * are live at once, never with the length of the trace. Output goes to a
+ * SimulationSink as it is produced; only running totals are kept.
+ */
+public class StreamingSimulator {
+    private static final int MIN_SLOTS = 1 << 14;
+
+    private final ProcessStream source;
+    private final Algorithm algorithm;
+    private final long timeQuantum;
+    private final PolicyConfig policyConfig;
+    private final SimulationSink sink;
+    private long read;
+    private long lastArrival;
+
+    // Slices and completions the sink has had, which a window that starts over skips
+    private long slicesGiven;
+    private long completed;
+    private int peakLiveProcesses;
+
+    // Last slice, held back so a continuation by the same process can be merged into it
+    private boolean sliceOpen;
+    private long openSequence;
+    private String openId;
+    private long openStart;
+    private long openEnd;
+
+    private StreamingSimulator(ProcessStream source, Algorithm algorithm, long timeQuantum,
+                               PolicyConfig policyConfig, SimulationSink sink) {
+        this.source = source;
+        this.algorithm = algorithm;
+        this.timeQuantum = timeQuantum;
+        this.policyConfig = policyConfig;
+        this.sink = sink;
+    }
+
+    public static Summary run(ProcessStream source, Algorithm algorithm, long timeQuantum,
+                              SimulationSink sink) throws IOException {
+        return run(source, algorithm, timeQuantum, PolicyConfig.DEFAULT, sink);
+    }
+
+    public static Summary run(ProcessStream source, Algorithm algorithm, long timeQuantum,
+                              PolicyConfig policyConfig, SimulationSink sink) throws IOException {
+        return run(source, algorithm, timeQuantum, policyConfig, sink, MIN_SLOTS);
+    }
+
+    // With the first window over the given number of slots; tests use a few to go through many windows
+    static Summary run(ProcessStream source, Algorithm algorithm, long timeQuantum, PolicyConfig policyConfig,
+                       SimulationSink sink, int slots) throws IOException {
+        StreamingSimulator simulator = new StreamingSimulator(source, algorithm, timeQuantum, policyConfig, sink);
+        try {
+            return simulator.run(slots);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Summary run(int slots) {
+        Window window = new Window(slots, null, new int[0], null, 0, 0);
+        while (true) {
+            try {
+                SchedulerSimulator.execute(window);
+            } catch (SlotsExhausted e) {
+                window = window.restart();
+                continue;
+            }
+            if (window.isFinished()) {
+                break;
+            }
+            window = window.next();
+        }
+        flushSlice();
+        return new Summary(algorithm, completed, window.totalWaitingTime(), window.totalTurnaroundTime(),
+            window.busyTime(0), window.getTotalTime(), window.getContextSwitches(), peakLiveProcesses,
+            window.getLatency());
+    }
+
+    // Reads the next process from the source into the window's row; false once the source is exhausted
+    private boolean read(Window window, int row) {
+        try {
+            if (!source.advance()) {
+                return false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long arrivalTime = source.arrivalTime();
+        long burstTime = source.burstTime();
+        int nice = source.nice();
+        if (read > 0 && arrivalTime < lastArrival) {
+            throw new IllegalStateException("Process stream is not sorted by arrival time at process "
+                + (read + 1));
+        }
+        if (arrivalTime < 0 || burstTime <= 0) {
+            throw new IllegalStateException("Negative arrival or non-positive burst time at process "
+                + (read + 1));
+        }
+        if (nice < Workload.MIN_NICE || nice > Workload.MAX_NICE) {
+            throw new IllegalStateException("Nice value out of range at process " + (read + 1));
+        }
+        Workload slots = window.getWorkload();
+        slots.arrivalTimes[row] = arrivalTime;
+        slots.burstTimes[row] = burstTime;
+        slots.nices[row] = (byte) nice;
+        window.remainingTimes[row] = burstTime;
+        window.sequences[row] = read++;
+        window.ids[row] = source.processId();
+        lastArrival = arrivalTime;
+        return true;
+    }
+
+    private void slice(long sequence, String id, long startTime, long endTime) {
+        if (sliceOpen && openSequence == sequence && openEnd == startTime) {
+            openEnd = endTime;
+            return;
+        }
+        flushSlice();
+        sliceOpen = true;
+        openSequence = sequence;
+        openId = id;
+        openStart = startTime;
+        openEnd = endTime;
+    }
+
+    private void flushSlice() {
+        if (sliceOpen) {
+            sliceOpen = false;
+            sink.onSlice(openSequence, processId(openId, openSequence), openStart, openEnd);
+        }
+    }
+
+    private static String processId(String id, long sequence) {
+        return id != null ? id : "P" + (sequence + 1);
+    }
+
+    // Empty slots whose first rows are copied from the given rows of the window before
+    private static Workload slots(int slotCount, Window before, int[] rows) {
+        long[] arrivalTimes = new long[slotCount];
+        long[] burstTimes = new long[slotCount];
+        byte[] nices = new byte[slotCount];
+        for (int i = 0; i < rows.length; i++) {
+            Workload from = before.getWorkload();
+            arrivalTimes[i] = from.arrivalTimes[rows[i]];
+            burstTimes[i] = from.burstTimes[rows[i]];
+            nices[i] = from.nices[rows[i]];
+        }
+        return Workload.wrap(null, arrivalTimes, burstTimes, nices);
+    }
+
+    /**
+     * One window of the run: a single-core SimulationResult whose workload is the
+     * slots. It starts from the checkpoint the previous window stopped at, renumbered
+     * to its slots, and gives the sink only the output it has not had yet.
+     */
+    private final class Window extends SimulationResult {
+        final long[] sequences;
+        final String[] ids;
+        // Rows filled when the window starts, and the checkpoint it starts from (null at time 0)
+        private final int carried;
+        private final Checkpoint start;
+        // Output the sink had when the window started, and what the window produced since
+        private final long slicesAtStart;
+        private final long completedAtStart;
+        private long slices;
+        private long completions;
+        private final int checkpointAt;
+        private int loaded;
+        // Set when the window stops: where the next one continues, and the rows it takes over
+        private Checkpoint end;
+        private int[] carriedRows;
+
+        // Over slotCount slots, the first ones copied from rows of the window before (which may be null)
+        Window(int slotCount, Window before, int[] rows, Checkpoint start, long slicesAtStart,
+               long completedAtStart) {
+            super(slots(slotCount, before, rows), algorithm, timeQuantum, CoreConfig.SINGLE, policyConfig, false);
+            this.sequences = new long[slotCount];
+            this.ids = new String[slotCount];
+            for (int i = 0; i < rows.length; i++) {
+                sequences[i] = before.sequences[rows[i]];
+                ids[i] = before.ids[rows[i]];
+            }
+            this.carried = before != null && start == before.start ? before.carried : rows.length;
+            this.start = start;
+            this.slicesAtStart = slicesAtStart;
+            this.completedAtStart = completedAtStart;
+            // Stops once three quarters of the slots that were free are taken, and after at least one more arrival
+            this.checkpointAt = slotCount - (slotCount - carried) / 4;
+            this.loaded = rows.length;
+            if (start != null) {
+                resumeFrom(start);
+            }
+        }
+
+        // This window from its start, with twice the slots and every process read so far
+        Window restart() {
+            int[] rows = new int[loaded];
+            for (int row = 0; row < loaded; row++) {
+                rows[row] = row;
+            }
+            return new Window(2 * sequences.length, this, rows, start, slicesAtStart, completedAtStart);
+        }
+
+        // The window that continues where this one stopped, with twice the slots while they would be
+        // over half full
+        Window next() {
+            int slotCount = sequences.length;
+            while (2 * carriedRows.length > slotCount) {
+                slotCount *= 2;
+            }
+            return new Window(slotCount, this, carriedRows, end, slicesGiven, completed);
+        }
+
+        @Override
+        ArrivalIndex newArrivalIndex() {
+            return new ArrivalIndex(getWorkload().arrivalTimes, loaded) {
+                @Override
+                boolean load(int row) {
+                    if (row == sequences.length) {
+                        throw new SlotsExhausted();
+                    }
+                    if (!read(Window.this, row)) {
+                        return false;
+                    }
+                    loaded++;
+                    peakLiveProcesses = (int) Math.max(peakLiveProcesses, loaded - completions);
+                    return true;
+                }
+            };
+        }
+
+        @Override
+        int nextCheckpointPosition() {
+            return checkpointAt;
+        }
+
+        // Stops the window: its live processes, in arrival order, and those read ahead go to the next one
+        @Override
+        int checkpoint(long time, int position, int completedHere, SchedulingPolicy policy) {
+            SchedulingPolicy.State state = policy.saveState();
+            Checkpoint taken = snapshot(time, position, completedHere, state);
+            int[] live = state.queued().clone();
+            Arrays.sort(live);
+            carriedRows = Arrays.copyOf(live, live.length + loaded - position);
+            int[] newIndexes = new int[loaded];
+            Arrays.fill(newIndexes, -2);
+            for (int i = 0; i < live.length; i++) {
+                newIndexes[live[i]] = i;
+            }
+            for (int row = position; row < loaded; row++) {
+                newIndexes[row] = live.length + row - position;
+                carriedRows[newIndexes[row]] = row;
+            }
+            state.renumber(newIndexes);
+            // A last process that finished maps to -2, which like it differs from every process and from -1
+            int lastProcess = taken.lastProcess < 0 ? taken.lastProcess : newIndexes[taken.lastProcess];
+            end = new Checkpoint(time, live.length, 0, state, taken.remainingTimes, taken.startTimes,
+                taken.latency, taken.totalWaitingTime, taken.totalTurnaroundTime, taken.contextSwitches,
+                taken.busyTime, lastProcess, 0, 0);
+            return -1;
+        }
+
+        @Override
+        void addStep(int core, int process, long startTime, long endTime) {
+            super.addStep(core, process, startTime, endTime);
+            if (slicesAtStart + ++slices > slicesGiven) {
+                slicesGiven++;
+                slice(sequences[process], ids[process], startTime, endTime);
+            }
+        }
+
+        @Override
+        void markCompleted(int process, long time) {
+            super.markCompleted(process, time);
+            if (completedAtStart + ++completions > completed) {
+                completed++;
+                // A finished process never runs again, so its last slice can be given now
+                flushSlice();
+                Workload slots = getWorkload();
+                sink.onCompletion(sequences[process], processId(ids[process], sequences[process]),
+                    slots.arrivalTimes[process], slots.burstTimes[process], startTimes[process], time);
+            }
+        }
+    }
+
+    // Thrown when a window fills its slots; the run starts the window over with more
+    private static final class SlotsExhausted extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        SlotsExhausted() {
+            super(null, null, false, false);
+        }
+    }
+
+    // Totals of a streaming run; the per-process results went to the sink
+    public static class Summary {
+        private final Algorithm algorithm;
+        private final long processCount;
+        private final double averageWaitingTime;
+        private final double averageTurnaroundTime;
+        private final double throughput;
+        private final double cpuUtilization;
+        private final long totalTime;
+        private final long contextSwitches;
+        private final int peakLiveProcesses;
+        private final LatencyStats latency;
+
+        Summary(Algorithm algorithm, long processCount, double totalWaitingTime,
+                double totalTurnaroundTime, long busyTime, long totalTime, long contextSwitches,
+                int peakLiveProcesses, LatencyStats latency) {
+            this.algorithm = algorithm;
+            this.processCount = processCount;
+            this.averageWaitingTime = totalWaitingTime / processCount;
+            this.averageTurnaroundTime = totalTurnaroundTime / processCount;
+            this.throughput = (double) processCount / totalTime;
+            this.cpuUtilization = busyTime * 100.0 / totalTime;
+            this.totalTime = totalTime;
+            this.contextSwitches = contextSwitches;
+            this.peakLiveProcesses = peakLiveProcesses;
+            this.latency = latency;
+        }
+
+        public Algorithm getAlgorithm() { return algorithm; }
+        public long getProcessCount() { return processCount; }
+        public double getAverageWaitingTime() { return averageWaitingTime; }
+        public double getAverageTurnaroundTime() { return averageTurnaroundTime; }
+        public double getThroughput() { return throughput; }
+        public double getCpuUtilization() { return cpuUtilization; }
+        public long getTotalTime() { return totalTime; }
+        public long getContextSwitches() { return contextSwitches; }
+        public LatencyStats getLatency() { return latency; }
+
+        // Largest number of processes held in memory at once
+        public int getPeakLiveProcesses() { return peakLiveProcesses; }
+    }
+}
@@ -0,0 +1,31 @@
+package com.cpuscheduler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning one job of a batch of runs: a quantum of a sweep, one
+ * algorithm of a comparison, or one Monte Carlo replication.
+ */
+@Name("com.cpuscheduler.SweepJob")
+@Label("Sweep Job")
+@Category("CPU Scheduler")
+@Description("One job of a quantum sweep, algorithm comparison or Monte Carlo study")
+final class SweepJobEvent extends jdk.jfr.Event {
+    @Label("Sweep")
+    String sweep;
+
+    @Label("Job")
+    long job;
+
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Time Quantum")
+    long timeQuantum;
+
+    @Label("Processes")
+    int processes;
+}
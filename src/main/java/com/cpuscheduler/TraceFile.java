@@ -0,0 +1,340 @@
+package com.cpuscheduler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Versioned binary columnar trace file (see BinaryFiles for the layout) holding
+ * the traces of one or more runs, read through a memory mapping so the Gantt
+ * chart can show a trace of any size without loading it onto the heap. After
+ * the header come records with a 16-byte header: a run record (its number of
+ * cores and I/O devices and its name in UTF-8) or a block of one lane of a run
+ * (start, end and process index columns). A run has a lane per core followed
+ * by a lane per device; processes are indexes into the run's workload.
+ */
+public final class TraceFile {
+    static final int MAGIC = 0x54555043; // "CPUT"
+    private static final String KIND = "binary trace";
+    private static final int RECORD_HEADER_BYTES = 16;
+    private static final int RUN = 1;
+    private static final int SLICES = 2;
+
+    private final List<Run> runs;
+
+    private TraceFile(List<Run> runs) {
+        this.runs = runs;
+    }
+
+    // Maps the file; its records are checked once, slices are read on demand
+    public static TraceFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            BinaryFiles.checkHeader(channel, MAGIC, KIND);
+            long fileSize = channel.size();
+            List<Run> runs = new ArrayList<>();
+            long[] offsets = new long[16];
+            int[] lengths = new int[16];
+            int count = 0;
+            long position = BinaryFiles.HEADER_BYTES;
+            while (position < fileSize) {
+                ByteBuffer header = BinaryFiles.read(channel, position, RECORD_HEADER_BYTES, KIND);
+                int type = header.getInt(0);
+                int length;
+                if (type == RUN) {
+                    int cores = header.getInt(4);
+                    int devices = header.getInt(8);
+                    int nameBytes = header.getInt(12);
+                    if (cores < 1 || devices < 0 || nameBytes < 0) {
+                        throw new IOException("Corrupt " + KIND + " record at byte " + position);
+                    }
+                    length = BinaryFiles.padded((long) RECORD_HEADER_BYTES + nameBytes);
+                    ByteBuffer name = BinaryFiles.read(channel, position + RECORD_HEADER_BYTES, nameBytes, KIND);
+                    runs.add(new Run(new String(name.array(), StandardCharsets.UTF_8), cores, devices));
+                } else if (type == SLICES) {
+                    int run = header.getInt(4);
+                    int lane = header.getInt(8);
+                    int rows = header.getInt(12);
+                    if (run < 0 || run >= runs.size() || lane < 0 || lane >= runs.get(run).lanes.length
+                            || rows <= 0 || rows > BinaryFiles.BLOCK_ROWS
+                            || !runs.get(run).lanes[lane].addBlock(count, rows)) {
+                        throw new IOException("Corrupt " + KIND + " record at byte " + position);
+                    }
+                    length = sliceBytes(rows);
+                    if (count == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, count * 2);
+                        lengths = Arrays.copyOf(lengths, count * 2);
+                    }
+                    offsets[count] = position;
+                    lengths[count] = length;
+                    count++;
+                } else {
+                    throw new IOException("Corrupt " + KIND + " record at byte " + position);
+                }
+                if (position + length > fileSize) {
+                    throw new IOException("Truncated " + KIND + " file");
+                }
+                position += length;
+            }
+            ByteBuffer[] blocks = BinaryFiles.map(channel, offsets, lengths, count);
+            for (Run run : runs) {
+                for (Lane lane : run.lanes) {
+                    lane.resolve(blocks);
+                }
+            }
+            return new TraceFile(runs);
+        }
+    }
+
+    private static int sliceBytes(int rows) {
+        return BinaryFiles.padded(RECORD_HEADER_BYTES + 20L * rows);
+    }
+
+    public static Writer writer(Path path) throws IOException {
+        return new Writer(BinaryFiles.create(path, MAGIC));
+    }
+
+    public int runCount() {
+        return runs.size();
+    }
+
+    public Run run(int index) {
+        return runs.get(index);
+    }
+
+    /** The lanes of one run, in the order of SimulationResult's traces and I/O traces. */
+    public static final class Run {
+        private final String name;
+        private final int cores;
+        private final Lane[] lanes;
+
+        private Run(String name, int cores, int devices) {
+            this.name = name;
+            this.cores = cores;
+            this.lanes = new Lane[cores + devices];
+            for (int lane = 0; lane < lanes.length; lane++) {
+                lanes[lane] = new Lane();
+            }
+        }
+
+        public String getName() { return name; }
+        public int getCores() { return cores; }
+        public int getDevices() { return lanes.length - cores; }
+
+        public TraceView[] getTraces() {
+            return Arrays.copyOf(lanes, cores, TraceView[].class);
+        }
+
+        public TraceView[] getIoTraces() {
+            return Arrays.copyOfRange(lanes, cores, lanes.length, TraceView[].class);
+        }
+    }
+
+    // One lane read in place from its mapped blocks
+    private static final class Lane implements TraceView {
+        private int[] blockIndexes = new int[4];
+        private ByteBuffer[] blocks;
+        private int blockCount;
+        private int size;
+
+        // Only the last block of a lane may be partly filled
+        boolean addBlock(int block, int rows) {
+            if (size % BinaryFiles.BLOCK_ROWS != 0 || (long) size + rows > Integer.MAX_VALUE) {
+                return false;
+            }
+            if (blockCount == blockIndexes.length) {
+                blockIndexes = Arrays.copyOf(blockIndexes, blockCount * 2);
+            }
+            blockIndexes[blockCount++] = block;
+            size += rows;
+            return true;
+        }
+
+        void resolve(ByteBuffer[] mapped) {
+            blocks = new ByteBuffer[blockCount];
+            for (int i = 0; i < blocks.length; i++) {
+                blocks[i] = mapped[blockIndexes[i]];
+            }
+            blockIndexes = null;
+        }
+
+        @Override
+        public int publishedSize() {
+            return size;
+        }
+
+        @Override
+        public int process(int slice) {
+            ByteBuffer block = block(slice);
+            return block.getInt(RECORD_HEADER_BYTES + 16 * block.getInt(12) + 4 * (slice & BinaryFiles.BLOCK_MASK));
+        }
+
+        @Override
+        public long startTime(int slice) {
+            return block(slice).getLong(RECORD_HEADER_BYTES + 8 * (slice & BinaryFiles.BLOCK_MASK));
+        }
+
+        @Override
+        public long endTime(int slice) {
+            ByteBuffer block = block(slice);
+            return block.getLong(RECORD_HEADER_BYTES + 8 * (block.getInt(12) + (slice & BinaryFiles.BLOCK_MASK)));
+        }
+
+        private ByteBuffer block(int slice) {
+            if (slice < 0 || slice >= size) {
+                throw new IndexOutOfBoundsException("Slice " + slice + " of " + size);
+            }
+            return blocks[slice >>> BinaryFiles.BLOCK_BITS];
+        }
+    }
+
+    /**
+     * Appends the traces of runs as they are produced: every lane buffers one
+     * block and writes it once full, so a run is written while it is still
+     * going and memory stays constant. Closing writes the partly filled blocks.
+     * A finished run is written one lane at a time through a single block.
+     */
+    public static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final List<LaneBuffer[]> runs = new ArrayList<>();
+        // Buffer of a lane that was written out, taken by the next lane that needs one
+        private LaneBuffer spare;
+
+        private Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        // Starts a run with a lane per core and per device and returns its number
+        public int startRun(String name, int cores, int devices) throws IOException {
+            if (cores < 1 || devices < 0) {
+                throw new IllegalArgumentException("A run needs at least one core");
+            }
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer record = BinaryFiles.allocate(BinaryFiles.padded((long) RECORD_HEADER_BYTES + nameBytes.length));
+            record.putInt(RUN).putInt(cores).putInt(devices).putInt(nameBytes.length).put(nameBytes);
+            record.clear();
+            BinaryFiles.write(channel, record);
+            runs.add(new LaneBuffer[cores + devices]);
+            return runs.size() - 1;
+        }
+
+        // Appends a slice to a lane of a started run; a lane's slices come in time order
+        public void add(int run, int lane, int process, long startTime, long endTime) throws IOException {
+            LaneBuffer[] lanes = runs.get(run);
+            if (lanes == null) {
+                throw new IllegalStateException("Run " + run + " is finished");
+            }
+            LaneBuffer buffer = lanes[lane];
+            if (buffer == null) {
+                buffer = lanes[lane] = spare != null ? spare : new LaneBuffer();
+                spare = null;
+            }
+            buffer.processes[buffer.rows] = process;
+            buffer.startTimes[buffer.rows] = startTime;
+            buffer.endTimes[buffer.rows] = endTime;
+            if (++buffer.rows == BinaryFiles.BLOCK_ROWS) {
+                flush(run, lane, buffer);
+            }
+        }
+
+        // Writes a finished run's traces
+        public void write(String name, SimulationResult result) throws IOException {
+            int run = startRun(name, result.getCores(), result.getDevices());
+            int lane = 0;
+            for (ExecutionTrace trace : result.getTraces()) {
+                addAll(run, lane++, trace);
+            }
+            for (ExecutionTrace trace : result.getIoTraces()) {
+                addAll(run, lane++, trace);
+            }
+            finishRun(run);
+        }
+
+        // Writes a whole lane and hands its buffer on, so a run of any number of lanes holds one block
+        private void addAll(int run, int lane, ExecutionTrace trace) throws IOException {
+            for (int slice = 0; slice < trace.size(); slice++) {
+                add(run, lane, trace.process(slice), trace.startTime(slice), trace.endTime(slice));
+            }
+            LaneBuffer[] lanes = runs.get(run);
+            if (lanes[lane] != null) {
+                flush(run, lane, lanes[lane]);
+                spare = lanes[lane];
+                lanes[lane] = null;
+            }
+        }
+
+        // Writes the run's partly filled blocks; it takes no more slices
+        public void finishRun(int run) throws IOException {
+            LaneBuffer[] lanes = runs.get(run);
+            if (lanes == null) {
+                return;
+            }
+            for (int lane = 0; lane < lanes.length; lane++) {
+                if (lanes[lane] != null) {
+                    flush(run, lane, lanes[lane]);
+                }
+            }
+            runs.set(run, null);
+        }
+
+        /**
+         * Sink for a single-core streaming run: slices are written as the
+         * simulator emits them, with the process's sequence number as its index.
+         * Errors are rethrown as UncheckedIOException.
+         */
+        public SimulationSink sink(int run) {
+            return new SimulationSink() {
+                @Override
+                public void onSlice(long sequence, String processId, long startTime, long endTime) {
+                    try {
+                        add(run, 0, Math.toIntExact(sequence), startTime, endTime);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+        }
+
+        private void flush(int run, int lane, LaneBuffer buffer) throws IOException {
+            int rows = buffer.rows;
+            if (rows == 0) {
+                return;
+            }
+            ByteBuffer block = BinaryFiles.allocate(sliceBytes(rows));
+            block.putInt(SLICES).putInt(run).putInt(lane).putInt(rows);
+            block.asLongBuffer().put(buffer.startTimes, 0, rows);
+            block.position(RECORD_HEADER_BYTES + 8 * rows);
+            block.asLongBuffer().put(buffer.endTimes, 0, rows);
+            block.position(RECORD_HEADER_BYTES + 16 * rows);
+            block.asIntBuffer().put(buffer.processes, 0, rows);
+            block.clear();
+            BinaryFiles.write(channel, block);
+            buffer.rows = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                for (int run = 0; run < runs.size(); run++) {
+                    finishRun(run);
+                }
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    private static final class LaneBuffer {
+        final int[] processes = new int[BinaryFiles.BLOCK_ROWS];
+        final long[] startTimes = new long[BinaryFiles.BLOCK_ROWS];
+        final long[] endTimes = new long[BinaryFiles.BLOCK_ROWS];
+        int rows;
+    }
+}
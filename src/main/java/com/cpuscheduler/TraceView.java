@@ -0,0 +1,68 @@
+package com.cpuscheduler;
+
+/**
+ * Read-only slices of one lane in time order: an ExecutionTrace in memory or a
+ * lane of a memory-mapped TraceFile. Slices below publishedSize() are safe to
+ * read while the lane is still being written.
+ * Slices never overlap, so the start and end columns are both sorted and serve
+ * as the lane's time index: what ran at a time, and which slices overlap a
+ * range, are binary searches over the published slices. The slices overlapping
+ * [a, b) are the contiguous run from firstSliceEndingAfter(a) up to
+ * firstSliceStartingFrom(b), so a range query costs O(log n + k).
+ */
+public interface TraceView {
+
+    int publishedSize();
+
+    int process(int slice);
+
+    long startTime(int slice);
+
+    long endTime(int slice);
+
+    // The slice running at time, or -1 when the lane was idle
+    default int sliceAt(long time) {
+        return sliceAt(time, 0, publishedSize());
+    }
+
+    // First slice that ends after time, or publishedSize() when none does
+    default int firstSliceEndingAfter(long time) {
+        return firstSliceEndingAfter(time, 0, publishedSize());
+    }
+
+    // First slice that starts at or after time, or publishedSize() when none does
+    default int firstSliceStartingFrom(long time) {
+        int lo = 0;
+        int hi = publishedSize();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (startTime(mid) < time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // First slice in [from, limit) that ends after time, or limit; time may fall between units, e.g. a pixel
+    default int firstSliceEndingAfter(double time, int from, int limit) {
+        int lo = from;
+        int hi = limit;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (endTime(mid) <= time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Slice in [from, limit) covering time, or -1
+    default int sliceAt(double time, int from, int limit) {
+        int slice = firstSliceEndingAfter(time, from, limit);
+        return slice < limit && startTime(slice) <= time ? slice : -1;
+    }
+}
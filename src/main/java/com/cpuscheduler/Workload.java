@@ -0,0 +1,465 @@
+package com.cpuscheduler;
+
+import java.util.*;
+
+/**
+ * Immutable struct-of-arrays process table. Every process is an int index into
+ * parallel primitive arrays, so engines never touch per-process heap objects and
+ * any number of runs can read the same workload concurrently.
+ * Rows are stored sorted by arrival time (stable with respect to insertion
+ * order), so index order is arrival order and doubles as the FCFS tie-breaker.
+ * Ids live in a symbol table; a null entry (or a null table) means the process
+ * has the generated id "P" + (index + 1) and costs no String at all.
+ * Nice values (-20 highest priority to 19 lowest, 0 by default) weight fair-share
+ * and priority scheduling; a null column means every process is nice 0.
+ * A process may alternate CPU bursts with I/O bursts (see BurstSequence); its
+ * burst time is then its total CPU time, and its I/O bursts are stored for all
+ * processes together in ioStarts order. Workloads without I/O have null columns.
+ */
+public final class Workload {
+    public static final int MIN_NICE = -20;
+    public static final int MAX_NICE = 19;
+
+    private final String[] ids;
+    final long[] arrivalTimes;
+    final long[] burstTimes;
+    final byte[] nices;
+    // Process i's I/O bursts are ioStarts[i] until ioStarts[i + 1]; burst j waits ioTimes[j] on
+    // device ioDevices[j] and is followed by a CPU burst of cpuAfterIo[j]
+    final int[] ioStarts;
+    final long[] ioTimes;
+    final byte[] ioDevices;
+    final long[] cpuAfterIo;
+    private final int deviceCount;
+    private final int size;
+    private final long totalBurstTime;
+    // Computed on first use; racing threads compute the same value
+    private volatile String fingerprint;
+
+    private Workload(String[] ids, long[] arrivalTimes, long[] burstTimes, byte[] nices, int size) {
+        this(ids, arrivalTimes, burstTimes, nices, null, null, null, null, size);
+    }
+
+    private Workload(String[] ids, long[] arrivalTimes, long[] burstTimes, byte[] nices, int[] ioStarts,
+                     long[] ioTimes, byte[] ioDevices, long[] cpuAfterIo, int size) {
+        this.ids = ids;
+        this.arrivalTimes = arrivalTimes;
+        this.burstTimes = burstTimes;
+        this.nices = nices;
+        this.ioStarts = ioStarts;
+        this.ioTimes = ioTimes;
+        this.ioDevices = ioDevices;
+        this.cpuAfterIo = cpuAfterIo;
+        this.size = size;
+
+        int devices = 0;
+        if (ioDevices != null) {
+            for (byte device : ioDevices) {
+                devices = Math.max(devices, device + 1);
+            }
+        }
+        this.deviceCount = devices;
+
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += burstTimes[i];
+        }
+        this.totalBurstTime = total;
+    }
+
+    // Adopts arrays that are already sorted by arrival time, without copying; ids and nices may be null
+    static Workload wrap(String[] ids, long[] arrivalTimes, long[] burstTimes, byte[] nices) {
+        return new Workload(ids, arrivalTimes, burstTimes, nices, arrivalTimes.length);
+    }
+
+    public static Builder builder() {
+        return new Builder(16);
+    }
+
+    public static Builder builder(int capacity) {
+        return new Builder(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public String processId(int index) {
+        String id = ids != null ? ids[index] : null;
+        return id != null ? id : "P" + (index + 1);
+    }
+
+    // The id the process was given, or null when it has the generated one
+    String givenId(int index) {
+        return ids != null ? ids[index] : null;
+    }
+
+    public long arrivalTime(int index) { return arrivalTimes[index]; }
+    public long burstTime(int index) { return burstTimes[index]; }
+    public int nice(int index) { return nices != null ? nices[index] : 0; }
+
+    public long totalBurstTime() {
+        return totalBurstTime;
+    }
+
+    // Whether any process does I/O
+    public boolean hasIo() {
+        return ioStarts != null;
+    }
+
+    // Devices the I/O bursts use, numbered 1 to deviceCount()
+    public int deviceCount() {
+        return deviceCount;
+    }
+
+    public int ioBurstCount(int index) {
+        return ioStarts != null ? ioStarts[index + 1] - ioStarts[index] : 0;
+    }
+
+    // Length of the process's first CPU burst; its whole burst time when it does no I/O
+    public long firstBurstTime(int index) {
+        long burst = burstTimes[index];
+        if (ioStarts != null) {
+            for (int j = ioStarts[index]; j < ioStarts[index + 1]; j++) {
+                burst -= cpuAfterIo[j];
+            }
+        }
+        return burst;
+    }
+
+    public BurstSequence bursts(int index) {
+        int count = ioBurstCount(index);
+        long[] cpu = new long[count + 1];
+        long[] io = new long[count];
+        int[] devices = new int[count];
+        cpu[0] = firstBurstTime(index);
+        for (int k = 0; k < count; k++) {
+            int j = ioStarts[index] + k;
+            io[k] = ioTimes[j];
+            devices[k] = ioDevices[j] + 1;
+            cpu[k + 1] = cpuAfterIo[j];
+        }
+        return new BurstSequence(cpu, io, devices);
+    }
+
+    public Process toProcess(int index) {
+        if (ioBurstCount(index) > 0) {
+            return new Process(processId(index), arrivalTimes[index], bursts(index), nice(index));
+        }
+        return new Process(processId(index), arrivalTimes[index], burstTimes[index], nice(index));
+    }
+
+    // First row whose arrival, burst or nice value differs from the other workload's, or the smaller
+    // size if one extends the other; ids are ignored since no run depends on them
+    int firstDifference(Workload other) {
+        int common = Math.min(size, other.size);
+        for (int i = 0; i < common; i++) {
+            if (arrivalTimes[i] != other.arrivalTimes[i] || burstTimes[i] != other.burstTimes[i]
+                    || nice(i) != other.nice(i) || !sameIo(i, other)) {
+                return i;
+            }
+        }
+        return common;
+    }
+
+    private boolean sameIo(int index, Workload other) {
+        int count = ioBurstCount(index);
+        if (count != other.ioBurstCount(index)) {
+            return false;
+        }
+        for (int k = 0; k < count; k++) {
+            int j = ioStarts[index] + k;
+            int o = other.ioStarts[index] + k;
+            if (ioTimes[j] != other.ioTimes[o] || ioDevices[j] != other.ioDevices[o]
+                    || cpuAfterIo[j] != other.cpuAfterIo[o]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 128-bit content hash as 32 hex digits: equal workloads get equal fingerprints, whichever instance they are
+    public String fingerprint() {
+        String result = fingerprint;
+        if (result == null) {
+            long h1 = 0x243F6A8885A308D3L ^ size;
+            long h2 = 0x13198A2E03707344L ^ size;
+            for (int i = 0; i < size; i++) {
+                String id = ids != null ? ids[i] : null;
+                // Every character of a given id rather than its hashCode, so ids like "Aa" and "BB" differ
+                h1 = mix(h1, id != null ? id.length() : -1);
+                if (id != null) {
+                    for (int k = 0; k < id.length(); k++) {
+                        h1 = mix(h1, id.charAt(k));
+                    }
+                }
+                long row = (nice(i) & 0xFFL) * 0x9E3779B97F4A7C15L ^ h1;
+                h1 = mix(h1, arrivalTimes[i] ^ row);
+                h2 = mix(h2 ^ burstTimes[i], arrivalTimes[i] + row);
+                h1 += burstTimes[i] * 0xC2B2AE3D27D4EB4FL;
+            }
+            if (ioStarts != null) {
+                for (int i = 0; i < size; i++) {
+                    h2 = mix(h2, ioStarts[i + 1] - ioStarts[i]);
+                }
+                for (int j = 0; j < ioTimes.length; j++) {
+                    h1 = mix(h1, ioTimes[j] << 8 ^ ioDevices[j]);
+                    h2 = mix(h2, cpuAfterIo[j]);
+                }
+            }
+            result = String.format("%016x%016x", finish(h1 ^ h2 >>> 1), finish(h2));
+            fingerprint = result;
+        }
+        return result;
+    }
+
+    private static long mix(long hash, long value) {
+        return Long.rotateLeft(hash ^ value * 0xBF58476D1CE4E5B9L, 29) * 0x94D049BB133111EBL;
+    }
+
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB93FE5EC4E53L;
+        return hash ^ hash >>> 33;
+    }
+
+    // Read-only view for the process table; rows are materialized on demand
+    public List<Process> asProcessList() {
+        return new AbstractList<Process>() {
+            @Override
+            public Process get(int index) {
+                Objects.checkIndex(index, size);
+                return toProcess(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    public static class Builder {
+        private String[] ids;
+        private long[] arrivalTimes;
+        private long[] burstTimes;
+        private byte[] nices;
+        // Whether any process added so far has a non-zero nice value
+        private boolean niced;
+        private int size;
+        // Null until a process with I/O is added: per row where its I/O bursts start in the pool and how many
+        private int[] ioOffsets;
+        private int[] ioCounts;
+        private long[] ioTimes;
+        private byte[] ioDevices;
+        private long[] cpuAfterIo;
+        private int ioSize;
+
+        private Builder(int capacity) {
+            capacity = Math.max(capacity, 1);
+            this.ids = new String[capacity];
+            this.arrivalTimes = new long[capacity];
+            this.burstTimes = new long[capacity];
+            this.nices = new byte[capacity];
+        }
+
+        public Builder add(String processId, long arrivalTime, long burstTime) {
+            return add(processId, arrivalTime, burstTime, 0);
+        }
+
+        public Builder add(String processId, long arrivalTime, long burstTime, int nice) {
+            if (arrivalTime < 0) {
+                throw new IllegalArgumentException("Process " + nameOf(processId)
+                    + ": arrival time must not be negative: " + arrivalTime);
+            }
+            if (burstTime <= 0) {
+                throw new IllegalArgumentException("Process " + nameOf(processId) + ": burst time must be positive: "
+                    + burstTime);
+            }
+            if (nice < MIN_NICE || nice > MAX_NICE) {
+                throw new IllegalArgumentException("Process " + nameOf(processId) + ": nice value must be between "
+                    + MIN_NICE + " and " + MAX_NICE + ": " + nice);
+            }
+            if (size == arrivalTimes.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                arrivalTimes = Arrays.copyOf(arrivalTimes, capacity);
+                burstTimes = Arrays.copyOf(burstTimes, capacity);
+                nices = Arrays.copyOf(nices, capacity);
+                if (ioCounts != null) {
+                    ioOffsets = Arrays.copyOf(ioOffsets, capacity);
+                    ioCounts = Arrays.copyOf(ioCounts, capacity);
+                }
+            }
+            ids[size] = processId;
+            arrivalTimes[size] = arrivalTime;
+            burstTimes[size] = burstTime;
+            nices[size] = (byte) nice;
+            niced |= nice != 0;
+            if (ioCounts != null) {
+                ioCounts[size] = 0;
+            }
+            size++;
+            return this;
+        }
+
+        // The id of the process being added; a generated one is named after its row
+        private String nameOf(String processId) {
+            return processId != null ? processId : "P" + (size + 1);
+        }
+
+        public Builder add(String processId, long arrivalTime, BurstSequence bursts, int nice) {
+            add(processId, arrivalTime, bursts.cpuTime(), nice);
+            int count = bursts.ioCount();
+            if (count == 0) {
+                return this;
+            }
+            if (ioCounts == null) {
+                ioOffsets = new int[arrivalTimes.length];
+                ioCounts = new int[arrivalTimes.length];
+                ioTimes = new long[Math.max(16, count)];
+                ioDevices = new byte[ioTimes.length];
+                cpuAfterIo = new long[ioTimes.length];
+            }
+            if (ioSize + count > ioTimes.length) {
+                int capacity = Math.max(ioTimes.length * 2, ioSize + count);
+                ioTimes = Arrays.copyOf(ioTimes, capacity);
+                ioDevices = Arrays.copyOf(ioDevices, capacity);
+                cpuAfterIo = Arrays.copyOf(cpuAfterIo, capacity);
+            }
+            int row = size - 1;
+            ioOffsets[row] = ioSize;
+            ioCounts[row] = count;
+            for (int k = 0; k < count; k++) {
+                ioTimes[ioSize] = bursts.ioBurst(k);
+                ioDevices[ioSize] = bursts.deviceIndex(k);
+                cpuAfterIo[ioSize++] = bursts.cpuBurst(k + 1);
+            }
+            return this;
+        }
+
+        // Appends every process of the workload, keeping generated ids generated
+        public Builder addAll(Workload workload) {
+            return addAll(workload, 0, workload.size);
+        }
+
+        // Appends the workload's processes from row from up to row to; a generated id that its new row
+        // would change is kept as an explicit one
+        public Builder addAll(Workload workload, int from, int to) {
+            for (int i = from; i < to; i++) {
+                String id = workload.ids != null ? workload.ids[i] : null;
+                if (id == null && size != i) {
+                    id = "P" + (i + 1);
+                }
+                if (workload.ioBurstCount(i) > 0) {
+                    add(id, workload.arrivalTimes[i], workload.bursts(i), workload.nice(i));
+                } else {
+                    add(id, workload.arrivalTimes[i], workload.burstTimes[i], workload.nice(i));
+                }
+            }
+            return this;
+        }
+
+        public Builder clear() {
+            Arrays.fill(ids, 0, size, null);
+            niced = false;
+            size = 0;
+            ioOffsets = null;
+            ioCounts = null;
+            ioTimes = null;
+            ioDevices = null;
+            cpuAfterIo = null;
+            ioSize = 0;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        // Copies the rows in arrival order, so the builder can keep growing after a snapshot is taken
+        public Workload build() {
+            int[] order = arrivalOrder();
+            String[] sortedIds = new String[size];
+            long[] sortedArrivals = new long[size];
+            long[] sortedBursts = new long[size];
+            byte[] sortedNices = niced ? new byte[size] : null;
+            for (int i = 0; i < size; i++) {
+                int row = order == null ? i : order[i];
+                // Generated ids keep the number of the row they were added as
+                sortedIds[i] = ids[row] != null || row == i ? ids[row] : "P" + (row + 1);
+                sortedArrivals[i] = arrivalTimes[row];
+                sortedBursts[i] = burstTimes[row];
+                if (niced) {
+                    sortedNices[i] = nices[row];
+                }
+            }
+            if (ioSize == 0) {
+                return new Workload(sortedIds, sortedArrivals, sortedBursts, sortedNices, size);
+            }
+            int[] sortedStarts = new int[size + 1];
+            long[] sortedIoTimes = new long[ioSize];
+            byte[] sortedDevices = new byte[ioSize];
+            long[] sortedCpu = new long[ioSize];
+            int next = 0;
+            for (int i = 0; i < size; i++) {
+                int row = order == null ? i : order[i];
+                int count = ioCounts[row];
+                System.arraycopy(ioTimes, ioOffsets[row], sortedIoTimes, next, count);
+                System.arraycopy(ioDevices, ioOffsets[row], sortedDevices, next, count);
+                System.arraycopy(cpuAfterIo, ioOffsets[row], sortedCpu, next, count);
+                sortedStarts[i] = next;
+                next += count;
+            }
+            sortedStarts[size] = next;
+            return new Workload(sortedIds, sortedArrivals, sortedBursts, sortedNices, sortedStarts, sortedIoTimes,
+                sortedDevices, sortedCpu, size);
+        }
+
+        // Rows sorted by (arrival time, insertion order), or null when they already are
+        private int[] arrivalOrder() {
+            boolean sorted = true;
+            long minArrival = 0;
+            long maxArrival = 0;
+            for (int i = 0; i < size; i++) {
+                if (i > 0 && arrivalTimes[i] < arrivalTimes[i - 1]) {
+                    sorted = false;
+                }
+                minArrival = Math.min(minArrival, arrivalTimes[i]);
+                maxArrival = Math.max(maxArrival, arrivalTimes[i]);
+            }
+            if (sorted) {
+                return null;
+            }
+
+            int[] order = new int[size];
+            if (minArrival >= 0 && maxArrival < (1L << 32)) {
+                // Pack (arrival, row) into one long so a primitive sort is stable by row
+                long[] keys = new long[size];
+                for (int i = 0; i < size; i++) {
+                    keys[i] = (arrivalTimes[i] << 31) | i;
+                }
+                Arrays.parallelSort(keys);
+                for (int i = 0; i < size; i++) {
+                    order[i] = (int) (keys[i] & Integer.MAX_VALUE);
+                }
+            } else {
+                Integer[] boxed = new Integer[size];
+                for (int i = 0; i < size; i++) {
+                    boxed[i] = i;
+                }
+                Arrays.sort(boxed, Comparator.comparingLong(i -> arrivalTimes[i]));
+                for (int i = 0; i < size; i++) {
+                    order[i] = boxed[i];
+                }
+            }
+            return order;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.cpuscheduler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Versioned binary columnar workload file (see BinaryFiles for the layout),
+ * read through a memory mapping so a workload of any size is streamed or
+ * indexed without loading it onto the heap. Processes are stored in arrival
+ * order. Each block holds the arrival, burst, id end offset and nice columns
+ * followed by the block's ids in UTF-8; an empty id stands for the generated
+ * "P" + (index + 1). Workloads with I/O bursts cannot be stored.
+ */
+public final class WorkloadFile {
+    static final int MAGIC = 0x57555043; // "CPUW"
+    private static final String KIND = "binary workload";
+    // Rows and id bytes
+    private static final int BLOCK_HEADER_BYTES = 8;
+
+    private final ByteBuffer[] blocks;
+    private final long size;
+
+    private WorkloadFile(ByteBuffer[] blocks, long size) {
+        this.blocks = blocks;
+        this.size = size;
+    }
+
+    // Maps the file; its blocks are checked once, rows are read on demand
+    public static WorkloadFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            BinaryFiles.checkHeader(channel, MAGIC, KIND);
+            long fileSize = channel.size();
+            long[] offsets = new long[16];
+            int[] lengths = new int[16];
+            int count = 0;
+            long size = 0;
+            long position = BinaryFiles.HEADER_BYTES;
+            while (position < fileSize) {
+                ByteBuffer header = BinaryFiles.read(channel, position, BLOCK_HEADER_BYTES, KIND);
+                int rows = header.getInt(0);
+                int idBytes = header.getInt(4);
+                // Only the last block may be partly filled
+                if (rows <= 0 || rows > BinaryFiles.BLOCK_ROWS || idBytes < 0
+                        || count > 0 && rowsOf(size, count) != BinaryFiles.BLOCK_ROWS) {
+                    throw new IOException("Corrupt " + KIND + " block at byte " + position);
+                }
+                int length = blockBytes(rows, idBytes);
+                if (position + length > fileSize) {
+                    throw new IOException("Truncated " + KIND + " file");
+                }
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                    lengths = Arrays.copyOf(lengths, count * 2);
+                }
+                offsets[count] = position;
+                lengths[count] = length;
+                count++;
+                size += rows;
+                position += length;
+            }
+            return new WorkloadFile(BinaryFiles.map(channel, offsets, lengths, count), size);
+        }
+    }
+
+    // Rows in the last of count blocks holding size rows
+    private static long rowsOf(long size, int count) {
+        return size - (long) (count - 1) * BinaryFiles.BLOCK_ROWS;
+    }
+
+    private static int blockBytes(int rows, long idBytes) {
+        return BinaryFiles.padded(BLOCK_HEADER_BYTES + 21L * rows + idBytes);
+    }
+
+    // Writes a whole workload
+    public static void write(Workload workload, Path path) throws IOException {
+        if (workload.hasIo()) {
+            throw new IllegalArgumentException("I/O bursts cannot be stored in a " + KIND + " file");
+        }
+        try (Writer writer = writer(path)) {
+            for (int i = 0; i < workload.size(); i++) {
+                writer.add(workload.givenId(i), workload.arrivalTimes[i], workload.burstTimes[i], workload.nice(i));
+            }
+        }
+    }
+
+    public static Writer writer(Path path) throws IOException {
+        return new Writer(BinaryFiles.create(path, MAGIC));
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long arrivalTime(long index) {
+        ByteBuffer block = block(index);
+        return block.getLong(BLOCK_HEADER_BYTES + 8 * row(index));
+    }
+
+    public long burstTime(long index) {
+        ByteBuffer block = block(index);
+        return block.getLong(BLOCK_HEADER_BYTES + 8 * (block.getInt(0) + row(index)));
+    }
+
+    public int nice(long index) {
+        ByteBuffer block = block(index);
+        return block.get(BLOCK_HEADER_BYTES + 20 * block.getInt(0) + row(index));
+    }
+
+    public String processId(long index) {
+        String id = givenId(block(index), row(index));
+        return id != null ? id : "P" + (index + 1);
+    }
+
+    private String givenId(ByteBuffer block, int row) {
+        int rows = block.getInt(0);
+        int ends = BLOCK_HEADER_BYTES + 16 * rows;
+        int start = row == 0 ? 0 : block.getInt(ends + 4 * (row - 1));
+        int end = block.getInt(ends + 4 * row);
+        if (start == end) {
+            return null;
+        }
+        byte[] bytes = new byte[end - start];
+        ByteBuffer ids = block.duplicate();
+        ids.position(BLOCK_HEADER_BYTES + 21 * rows + start);
+        ids.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private ByteBuffer block(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Process " + index + " of " + size);
+        }
+        return blocks[(int) (index >>> BinaryFiles.BLOCK_BITS)];
+    }
+
+    private static int row(long index) {
+        return (int) (index & BinaryFiles.BLOCK_MASK);
+    }
+
+    // Streams the processes straight from the mapping, for the StreamingSimulator
+    public ProcessStream stream() {
+        return new ProcessStream() {
+            private long index = -1;
+            private ByteBuffer block;
+            private int row;
+            private int rows;
+
+            @Override
+            public boolean advance() {
+                if (index + 1 >= size) {
+                    return false;
+                }
+                index++;
+                row = WorkloadFile.row(index);
+                if (row == 0) {
+                    block = blocks[(int) (index >>> BinaryFiles.BLOCK_BITS)];
+                    rows = block.getInt(0);
+                }
+                return true;
+            }
+
+            @Override
+            public String processId() { return givenId(block, row); }
+
+            @Override
+            public long arrivalTime() { return block.getLong(BLOCK_HEADER_BYTES + 8 * row); }
+
+            @Override
+            public long burstTime() { return block.getLong(BLOCK_HEADER_BYTES + 8 * (rows + row)); }
+
+            @Override
+            public int nice() { return block.get(BLOCK_HEADER_BYTES + 20 * rows + row); }
+        };
+    }
+
+    // Copies the columns onto the heap, column by column, for the in-memory engines, checking each row as
+    // the engines and the streaming reader expect it
+    public Workload toWorkload() throws IOException {
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Workload of " + size + " processes is too large to load; stream it");
+        }
+        int count = (int) size;
+        long[] arrivals = new long[count];
+        long[] bursts = new long[count];
+        byte[] nices = new byte[count];
+        String[] ids = null;
+        boolean niced = false;
+        for (int b = 0, offset = 0; offset < count; b++) {
+            ByteBuffer block = blocks[b].duplicate().order(blocks[b].order());
+            int rows = block.getInt(0);
+            block.position(BLOCK_HEADER_BYTES);
+            block.asLongBuffer().get(arrivals, offset, rows);
+            block.position(BLOCK_HEADER_BYTES + 8 * rows);
+            block.asLongBuffer().get(bursts, offset, rows);
+            block.position(BLOCK_HEADER_BYTES + 20 * rows);
+            block.get(nices, offset, rows);
+            for (int row = 0; row < rows; row++) {
+                checkRow(arrivals, bursts, nices, offset + row);
+                niced |= nices[offset + row] != 0;
+                String id = givenId(blocks[b], row);
+                if (id != null) {
+                    if (ids == null) {
+                        ids = new String[count];
+                    }
+                    ids[offset + row] = id;
+                }
+            }
+            offset += rows;
+        }
+        return Workload.wrap(ids, arrivals, bursts, niced ? nices : null);
+    }
+
+    private static void checkRow(long[] arrivals, long[] bursts, byte[] nices, int index) throws IOException {
+        String problem = index > 0 && arrivals[index] < arrivals[index - 1] ? "arrivals not sorted"
+            : arrivals[index] < 0 ? "negative arrival time"
+            : bursts[index] <= 0 ? "non-positive burst time"
+            : nices[index] < Workload.MIN_NICE || nices[index] > Workload.MAX_NICE ? "nice value out of range"
+            : null;
+        if (problem != null) {
+            throw new IOException("Corrupt " + KIND + ": " + problem + " at process " + (index + 1));
+        }
+    }
+
+    /**
+     * Appends processes in arrival order, one block at a time, so a workload of
+     * any size is written in constant memory. Closing writes the last block.
+     */
+    public static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final String[] ids = new String[BinaryFiles.BLOCK_ROWS];
+        private final long[] arrivalTimes = new long[BinaryFiles.BLOCK_ROWS];
+        private final long[] burstTimes = new long[BinaryFiles.BLOCK_ROWS];
+        private final byte[] nices = new byte[BinaryFiles.BLOCK_ROWS];
+        private int rows;
+        private long lastArrival;
+        private long written;
+
+        private Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        // processId may be null for the generated id
+        public Writer add(String processId, long arrivalTime, long burstTime, int nice) throws IOException {
+            if (arrivalTime < lastArrival || arrivalTime < 0) {
+                throw new IllegalArgumentException("Processes must be added in arrival order: " + arrivalTime
+                    + " after " + lastArrival);
+            }
+            if (burstTime <= 0) {
+                throw new IllegalArgumentException("Burst time must be positive: " + burstTime);
+            }
+            if (nice < Workload.MIN_NICE || nice > Workload.MAX_NICE) {
+                throw new IllegalArgumentException("Nice value must be between " + Workload.MIN_NICE + " and "
+                    + Workload.MAX_NICE + ": " + nice);
+            }
+            ids[rows] = processId;
+            arrivalTimes[rows] = arrivalTime;
+            burstTimes[rows] = burstTime;
+            nices[rows] = (byte) nice;
+            lastArrival = arrivalTime;
+            if (++rows == BinaryFiles.BLOCK_ROWS) {
+                flush();
+            }
+            return this;
+        }
+
+        // Processes written so far
+        public long size() {
+            return written + rows;
+        }
+
+        private void flush() throws IOException {
+            if (rows == 0) {
+                return;
+            }
+            byte[][] idBytes = new byte[rows][];
+            long idTotal = 0;
+            for (int row = 0; row < rows; row++) {
+                idBytes[row] = ids[row] == null ? null : ids[row].getBytes(StandardCharsets.UTF_8);
+                idTotal += idBytes[row] == null ? 0 : idBytes[row].length;
+            }
+            ByteBuffer block = BinaryFiles.allocate(blockBytes(rows, idTotal));
+            block.putInt(rows).putInt((int) idTotal);
+            block.asLongBuffer().put(arrivalTimes, 0, rows);
+            block.position(BLOCK_HEADER_BYTES + 8 * rows);
+            block.asLongBuffer().put(burstTimes, 0, rows);
+            block.position(BLOCK_HEADER_BYTES + 16 * rows);
+            int end = 0;
+            for (int row = 0; row < rows; row++) {
+                end += idBytes[row] == null ? 0 : idBytes[row].length;
+                block.putInt(end);
+            }
+            block.put(nices, 0, rows);
+            for (byte[] id : idBytes) {
+                if (id != null) {
+                    block.put(id);
+                }
+            }
+            block.clear();
+            BinaryFiles.write(channel, block);
+            Arrays.fill(ids, 0, rows, null);
+            written += rows;
+            rows = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
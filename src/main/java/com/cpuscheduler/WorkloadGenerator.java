@@ -0,0 +1,220 @@
+package com.cpuscheduler;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Seeded synthetic workloads. The same settings and seed always produce the same
+ * workload, however many threads fill it: processes are generated in fixed-size
+ * chunks, each drawing from its own stream split off the seed in chunk order.
+ * Inter-arrival gaps and bursts are written straight into the Workload's
+ * columns and the arrival times are then a parallel prefix sum of the gaps.
+ * Gaps are summed in fixed point and rounded afterwards, so mean gaps below
+ * one time unit still give the requested arrival rate.
+ */
+public final class WorkloadGenerator {
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int FRACTION_BITS = 16;
+
+    public enum ArrivalPattern {
+        // Exponential inter-arrival times
+        POISSON,
+        // Clumps of processes arriving together, separated by exponential gaps
+        BURSTY
+    }
+
+    public enum BurstDistribution {
+        EXPONENTIAL,
+        // Uniform in [1, 2 * mean - 1]
+        UNIFORM,
+        // 90% short jobs around half the mean, 10% long jobs around 5.5 times the mean
+        BIMODAL,
+        // Heavy-tailed; most jobs are short and a few run very long
+        PARETO
+    }
+
+    private final ArrivalPattern arrivalPattern;
+    private final double meanInterArrivalTime;
+    private final double meanClumpSize;
+    private final BurstDistribution burstDistribution;
+    private final double meanBurstTime;
+    private final double paretoShape;
+    private final long seed;
+
+    private WorkloadGenerator(Builder builder) {
+        this.arrivalPattern = builder.arrivalPattern;
+        this.meanInterArrivalTime = builder.meanInterArrivalTime;
+        this.meanClumpSize = builder.meanClumpSize;
+        this.burstDistribution = builder.burstDistribution;
+        this.meanBurstTime = builder.meanBurstTime;
+        this.paretoShape = builder.paretoShape;
+        this.seed = builder.seed;
+    }
+
+    private WorkloadGenerator(WorkloadGenerator settings, long seed) {
+        this.arrivalPattern = settings.arrivalPattern;
+        this.meanInterArrivalTime = settings.meanInterArrivalTime;
+        this.meanClumpSize = settings.meanClumpSize;
+        this.burstDistribution = settings.burstDistribution;
+        this.meanBurstTime = settings.meanBurstTime;
+        this.paretoShape = settings.paretoShape;
+        this.seed = seed;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // Same settings with another seed, e.g. one per replication
+    public WorkloadGenerator withSeed(long seed) {
+        return new WorkloadGenerator(this, seed);
+    }
+
+    public Workload generate(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Workload size must not be negative: " + size);
+        }
+        long[] arrivalTimes = new long[size];
+        long[] burstTimes = new long[size];
+
+        // Split sequentially so chunk k always gets the same stream
+        int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[chunks];
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            streams[chunk] = root.split();
+        }
+
+        // Every chunk writes only its own range, so no locking is needed
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            SplittableRandom random = streams[chunk];
+            int from = chunk * CHUNK_SIZE;
+            int to = Math.min(size, from + CHUNK_SIZE);
+            for (int i = from; i < to; i++) {
+                arrivalTimes[i] = nextGap(random);
+                burstTimes[i] = nextBurst(random);
+            }
+        });
+        Arrays.parallelPrefix(arrivalTimes, Long::sum);
+        Arrays.parallelSetAll(arrivalTimes, i -> (arrivalTimes[i] + (1L << (FRACTION_BITS - 1))) >> FRACTION_BITS);
+
+        return Workload.wrap(null, arrivalTimes, burstTimes, null);
+    }
+
+    // Gap to the previous arrival in fixed point with FRACTION_BITS fractional bits
+    private long nextGap(SplittableRandom random) {
+        switch (arrivalPattern) {
+            case BURSTY:
+                // Each process starts a new clump with probability 1 / meanClumpSize,
+                // which gives geometric clump sizes and keeps the overall arrival rate
+                if (random.nextDouble() * meanClumpSize >= 1) {
+                    return 0;
+                }
+                return toFixedPoint(exponential(random, meanInterArrivalTime * meanClumpSize));
+            case POISSON:
+            default:
+                return toFixedPoint(exponential(random, meanInterArrivalTime));
+        }
+    }
+
+    private long nextBurst(SplittableRandom random) {
+        double burst;
+        switch (burstDistribution) {
+            case UNIFORM:
+                burst = 1 + random.nextDouble() * (2 * meanBurstTime - 2);
+                break;
+            case BIMODAL:
+                double center = random.nextDouble() < 0.9 ? 0.5 * meanBurstTime : 5.5 * meanBurstTime;
+                burst = center * (0.5 + random.nextDouble());
+                break;
+            case PARETO:
+                double scale = meanBurstTime * (paretoShape - 1) / paretoShape;
+                burst = scale / Math.pow(1.0 - random.nextDouble(), 1.0 / paretoShape);
+                break;
+            case EXPONENTIAL:
+            default:
+                burst = exponential(random, meanBurstTime);
+                break;
+        }
+        // Every process needs at least one unit of CPU time
+        return Math.max(1L, Math.round(burst));
+    }
+
+    private static long toFixedPoint(double time) {
+        return Math.round(time * (1L << FRACTION_BITS));
+    }
+
+    private static double exponential(SplittableRandom random, double mean) {
+        return -mean * Math.log(1.0 - random.nextDouble());
+    }
+
+    public ArrivalPattern getArrivalPattern() { return arrivalPattern; }
+    public double getMeanInterArrivalTime() { return meanInterArrivalTime; }
+    public double getMeanClumpSize() { return meanClumpSize; }
+    public BurstDistribution getBurstDistribution() { return burstDistribution; }
+    public double getMeanBurstTime() { return meanBurstTime; }
+    public double getParetoShape() { return paretoShape; }
+    public long getSeed() { return seed; }
+
+    // Defaults: Poisson arrivals every 11 units and exponential bursts of 10, i.e. about 90% load
+    public static class Builder {
+        private ArrivalPattern arrivalPattern = ArrivalPattern.POISSON;
+        private double meanInterArrivalTime = 11;
+        private double meanClumpSize = 16;
+        private BurstDistribution burstDistribution = BurstDistribution.EXPONENTIAL;
+        private double meanBurstTime = 10;
+        private double paretoShape = 1.5;
+        private long seed = 42;
+
+        private Builder() {
+        }
+
+        public Builder arrivals(ArrivalPattern pattern, double meanInterArrivalTime) {
+            if (!(meanInterArrivalTime >= 0)) {
+                throw new IllegalArgumentException("Mean inter-arrival time must not be negative: "
+                    + meanInterArrivalTime);
+            }
+            this.arrivalPattern = Objects.requireNonNull(pattern);
+            this.meanInterArrivalTime = meanInterArrivalTime;
+            return this;
+        }
+
+        // Average number of processes per clump for BURSTY arrivals
+        public Builder clumpSize(double meanClumpSize) {
+            if (!(meanClumpSize >= 1)) {
+                throw new IllegalArgumentException("Mean clump size must be at least 1: " + meanClumpSize);
+            }
+            this.meanClumpSize = meanClumpSize;
+            return this;
+        }
+
+        public Builder bursts(BurstDistribution distribution, double meanBurstTime) {
+            if (!(meanBurstTime >= 1)) {
+                throw new IllegalArgumentException("Mean burst time must be at least 1: " + meanBurstTime);
+            }
+            this.burstDistribution = Objects.requireNonNull(distribution);
+            this.meanBurstTime = meanBurstTime;
+            return this;
+        }
+
+        // Tail index for PARETO bursts; must be above 1 for the mean to exist
+        public Builder paretoShape(double shape) {
+            if (!(shape > 1)) {
+                throw new IllegalArgumentException("Pareto shape must be greater than 1: " + shape);
+            }
+            this.paretoShape = shape;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public WorkloadGenerator build() {
+            return new WorkloadGenerator(this);
+        }
+    }
+}
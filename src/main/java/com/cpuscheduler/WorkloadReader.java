@@ -0,0 +1,489 @@
+package com.cpuscheduler;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+
+/**
+ * Reads workloads from CSV or JSON text, or from a binary WorkloadFile.
+ *
+ * CSV: one process per line as {@code id,arrival,burst[,nice]}; an optional header line,
+ * blank lines and lines starting with '#' are skipped. An empty id gets a generated one,
+ * an empty or missing nice value is 0. The burst may be a CPU/IO sequence in
+ * BurstSequence's text form, e.g. {@code 5;3@2;4}.
+ *
+ * JSON: an array of objects, or an object with a "processes" array, where each
+ * object has "id" (or "processId"), "arrival" (or "arrivalTime"), "burst"
+ * (or "burstTime") and optionally "nice". Instead of "burst", "bursts" gives
+ * alternating CPU and I/O bursts, either as an array of numbers with an optional
+ * "devices" array (one per I/O burst) or as a string in the CSV form.
+ */
+public class WorkloadReader {
+
+    // BINARY is a WorkloadFile, which is mapped rather than read as text
+    public enum Format { CSV, JSON, BINARY }
+
+    private WorkloadReader() {
+    }
+
+    public static Format formatOf(Path path) {
+        String name = path.getFileName().toString().toLowerCase();
+        return name.endsWith(".json") ? Format.JSON : name.endsWith(".bin") ? Format.BINARY : Format.CSV;
+    }
+
+    public static Workload read(Path path) throws IOException {
+        return read(path, formatOf(path));
+    }
+
+    public static Workload read(Path path, Format format) throws IOException {
+        if (format == Format.BINARY) {
+            return WorkloadFile.open(path).toWorkload();
+        }
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return read(reader, format);
+        }
+    }
+
+    public static Workload read(Reader reader, Format format) throws IOException {
+        if (format == Format.BINARY) {
+            throw new IOException("Binary workloads can only be read from a file");
+        }
+        return format == Format.JSON ? readJson(reader) : readCsv(reader);
+    }
+
+    public static Workload readCsv(Reader reader) throws IOException {
+        BufferedReader in = reader instanceof BufferedReader
+            ? (BufferedReader) reader : new BufferedReader(reader);
+        Workload.Builder builder = Workload.builder(1024);
+        String line;
+        int lineNumber = 0;
+        boolean firstRecord = true;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            if (fields.length != 3 && fields.length != 4) {
+                throw new IOException("Line " + lineNumber + ": expected id,arrival,burst[,nice] but got: " + line);
+            }
+            String id = fields[0].trim();
+            String arrival = fields[1].trim();
+            String burst = fields[2].trim();
+            if (firstRecord) {
+                firstRecord = false;
+                if (!isInteger(arrival)) {
+                    continue; // header
+                }
+            }
+            long arrivalTime = parseTime(arrival, "arrival", lineNumber, 0);
+            int nice = fields.length == 4 ? parseNice(fields[3].trim(), lineNumber) : 0;
+            if (burst.indexOf(';') >= 0) {
+                builder.add(id.isEmpty() ? null : id, arrivalTime, parseBursts(burst, "Line " + lineNumber), nice);
+            } else {
+                builder.add(id.isEmpty() ? null : id, arrivalTime, parseTime(burst, "burst", lineNumber, 1), nice);
+            }
+        }
+        return builder.build();
+    }
+
+    // Parses CSV lazily, one line per advance(), for traces too large to load
+    public static ProcessStream streamCsv(Reader reader) {
+        BufferedReader in = reader instanceof BufferedReader
+            ? (BufferedReader) reader : new BufferedReader(reader, 1 << 16);
+        return new ProcessStream() {
+            private int lineNumber;
+            private boolean firstRecord = true;
+            private String processId;
+            private long arrivalTime;
+            private long burstTime;
+            private int nice;
+
+            @Override
+            public boolean advance() throws IOException {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    lineNumber++;
+                    line = line.trim();
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+                    String[] fields = line.split(",", -1);
+                    if (fields.length != 3 && fields.length != 4) {
+                        throw new IOException("Line " + lineNumber + ": expected id,arrival,burst[,nice] but got: "
+                            + line);
+                    }
+                    String arrival = fields[1].trim();
+                    if (firstRecord) {
+                        firstRecord = false;
+                        if (!isInteger(arrival)) {
+                            continue; // header
+                        }
+                    }
+                    String id = fields[0].trim();
+                    processId = id.isEmpty() ? null : id;
+                    arrivalTime = parseTime(arrival, "arrival", lineNumber, 0);
+                    if (fields[2].indexOf(';') >= 0) {
+                        throw new IOException("Line " + lineNumber + ": I/O bursts cannot be streamed");
+                    }
+                    burstTime = parseTime(fields[2].trim(), "burst", lineNumber, 1);
+                    nice = fields.length == 4 ? parseNice(fields[3].trim(), lineNumber) : 0;
+                    return true;
+                }
+                return false;
+            }
+
+            @Override
+            public String processId() { return processId; }
+
+            @Override
+            public long arrivalTime() { return arrivalTime; }
+
+            @Override
+            public long burstTime() { return burstTime; }
+
+            @Override
+            public int nice() { return nice; }
+        };
+    }
+
+    public static Workload readJson(Reader reader) throws IOException {
+        JsonParser parser = new JsonParser(reader);
+        Workload.Builder builder = Workload.builder(1024);
+        parser.skipWhitespace();
+        if (parser.peek() == '{') {
+            // {"processes": [...]}
+            parser.expect('{');
+            boolean found = false;
+            while (true) {
+                parser.skipWhitespace();
+                if (parser.peek() == '}') {
+                    parser.read();
+                    break;
+                }
+                String key = parser.readString();
+                parser.expect(':');
+                if (key.equals("processes")) {
+                    readJsonArray(parser, builder);
+                    found = true;
+                } else {
+                    parser.skipValue();
+                }
+                if (!parser.nextMember('}')) {
+                    break;
+                }
+            }
+            if (!found) {
+                throw new IOException("JSON object has no \"processes\" array");
+            }
+        } else {
+            readJsonArray(parser, builder);
+        }
+        return builder.build();
+    }
+
+    private static void readJsonArray(JsonParser parser, Workload.Builder builder) throws IOException {
+        parser.expect('[');
+        parser.skipWhitespace();
+        if (parser.peek() == ']') {
+            parser.read();
+            return;
+        }
+        do {
+            String id = null;
+            long arrival = -1;
+            long burst = -1;
+            BurstSequence bursts = null;
+            long[] burstList = null;
+            long[] devices = null;
+            long nice = 0;
+            parser.expect('{');
+            parser.skipWhitespace();
+            if (parser.peek() == '}') {
+                parser.read();
+            } else {
+                do {
+                    String key = parser.readString();
+                    parser.expect(':');
+                    switch (key) {
+                        case "id":
+                        case "processId":
+                            parser.skipWhitespace();
+                            id = parser.peek() == '"' ? parser.readString() : String.valueOf(parser.readNumber());
+                            break;
+                        case "arrival":
+                        case "arrivalTime":
+                            arrival = parser.readNumber();
+                            break;
+                        case "burst":
+                        case "burstTime":
+                            burst = parser.readNumber();
+                            break;
+                        case "bursts":
+                            parser.skipWhitespace();
+                            if (parser.peek() == '"') {
+                                bursts = parseBursts(parser.readString(), "Process " + (builder.size() + 1));
+                            } else {
+                                burstList = parser.readNumbers();
+                            }
+                            break;
+                        case "devices":
+                            devices = parser.readNumbers();
+                            break;
+                        case "nice":
+                            nice = parser.readNumber();
+                            break;
+                        default:
+                            parser.skipValue();
+                    }
+                } while (parser.nextMember('}'));
+            }
+            int processNumber = builder.size() + 1;
+            if (arrival < 0) {
+                throw new IOException("Process " + processNumber + ": missing or invalid arrival time");
+            }
+            if (burstList != null) {
+                bursts = toBursts(burstList, devices, "Process " + processNumber);
+            }
+            if (nice < Workload.MIN_NICE || nice > Workload.MAX_NICE) {
+                throw new IOException("Process " + processNumber + ": nice value must be between "
+                    + Workload.MIN_NICE + " and " + Workload.MAX_NICE);
+            }
+            if (bursts != null) {
+                builder.add(id, arrival, bursts, (int) nice);
+                continue;
+            }
+            if (burst < 1) {
+                throw new IOException("Process " + processNumber + ": missing or invalid burst time");
+            }
+            if (nice < Workload.MIN_NICE || nice > Workload.MAX_NICE) {
+                throw new IOException("Process " + processNumber + ": nice value must be between "
+                    + Workload.MIN_NICE + " and " + Workload.MAX_NICE);
+            }
+            builder.add(id, arrival, burst, (int) nice);
+        } while (parser.nextMember(']'));
+    }
+
+    private static BurstSequence parseBursts(String text, String where) throws IOException {
+        try {
+            return BurstSequence.parse(text);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(where + ": " + e.getMessage());
+        }
+    }
+
+    // JSON "bursts" array: CPU, IO, CPU, ..., with one device per I/O burst or none for device 1
+    private static BurstSequence toBursts(long[] list, long[] devices, String where) throws IOException {
+        if (list.length % 2 == 0) {
+            throw new IOException(where + ": bursts must alternate CPU, IO, ..., CPU");
+        }
+        long[] cpu = new long[list.length / 2 + 1];
+        long[] io = new long[list.length / 2];
+        for (int i = 0; i < list.length; i++) {
+            if (i % 2 == 0) {
+                cpu[i / 2] = list[i];
+            } else {
+                io[i / 2] = list[i];
+            }
+        }
+        int[] deviceNumbers = null;
+        if (devices != null) {
+            deviceNumbers = new int[devices.length];
+            for (int i = 0; i < devices.length; i++) {
+                deviceNumbers[i] = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, devices[i]));
+            }
+        }
+        try {
+            return new BurstSequence(cpu, io, deviceNumbers);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(where + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean isInteger(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i)) && !(i == 0 && value.charAt(i) == '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int parseNice(String value, int lineNumber) throws IOException {
+        if (value.isEmpty()) {
+            return 0;
+        }
+        try {
+            int nice = Integer.parseInt(value);
+            if (nice < Workload.MIN_NICE || nice > Workload.MAX_NICE) {
+                throw new NumberFormatException();
+            }
+            return nice;
+        } catch (NumberFormatException e) {
+            throw new IOException("Line " + lineNumber + ": invalid nice value (" + Workload.MIN_NICE + " to "
+                + Workload.MAX_NICE + "): " + value);
+        }
+    }
+
+    private static long parseTime(String value, String field, int lineNumber, long minimum) throws IOException {
+        try {
+            long time = Long.parseLong(value);
+            if (time < minimum) {
+                throw new NumberFormatException();
+            }
+            return time;
+        } catch (NumberFormatException e) {
+            throw new IOException("Line " + lineNumber + ": invalid " + field + " time: " + value);
+        }
+    }
+
+    // Just enough JSON to read process lists; numbers must be integers
+    private static class JsonParser {
+        private final Reader reader;
+        private int next = -2;
+
+        JsonParser(Reader reader) {
+            this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+        }
+
+        int peek() throws IOException {
+            if (next == -2) {
+                next = reader.read();
+            }
+            return next;
+        }
+
+        int read() throws IOException {
+            int c = peek();
+            next = -2;
+            return c;
+        }
+
+        void skipWhitespace() throws IOException {
+            while (Character.isWhitespace(peek())) {
+                read();
+            }
+        }
+
+        void expect(char c) throws IOException {
+            skipWhitespace();
+            int actual = read();
+            if (actual != c) {
+                throw new IOException("Invalid JSON: expected '" + c + "' but found "
+                    + (actual == -1 ? "end of input" : "'" + (char) actual + "'"));
+            }
+        }
+
+        // After a value: consumes ',' and returns true, or consumes the closing bracket and returns false
+        boolean nextMember(char close) throws IOException {
+            skipWhitespace();
+            int c = read();
+            if (c == ',') {
+                return true;
+            }
+            if (c == close) {
+                return false;
+            }
+            throw new IOException("Invalid JSON: expected ',' or '" + close + "'");
+        }
+
+        String readString() throws IOException {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                int c = read();
+                if (c == -1) {
+                    throw new IOException("Invalid JSON: unterminated string");
+                }
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c == '\\') {
+                    c = read();
+                    switch (c) {
+                        case 'n': sb.append('\n'); break;
+                        case 't': sb.append('\t'); break;
+                        case 'r': sb.append('\r'); break;
+                        case 'b': sb.append('\b'); break;
+                        case 'f': sb.append('\f'); break;
+                        case 'u':
+                            char[] hex = new char[4];
+                            for (int i = 0; i < 4; i++) {
+                                hex[i] = (char) read();
+                            }
+                            sb.append((char) Integer.parseInt(new String(hex), 16));
+                            break;
+                        default: sb.append((char) c);
+                    }
+                } else {
+                    sb.append((char) c);
+                }
+            }
+        }
+
+        long readNumber() throws IOException {
+            skipWhitespace();
+            StringBuilder sb = new StringBuilder();
+            while (peek() == '-' || Character.isDigit(peek())) {
+                sb.append((char) read());
+            }
+            try {
+                return Long.parseLong(sb.toString());
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid JSON: expected an integer");
+            }
+        }
+
+        long[] readNumbers() throws IOException {
+            expect('[');
+            long[] numbers = new long[4];
+            int count = 0;
+            skipWhitespace();
+            if (peek() == ']') {
+                read();
+                return new long[0];
+            }
+            do {
+                if (count == numbers.length) {
+                    numbers = Arrays.copyOf(numbers, count * 2);
+                }
+                numbers[count++] = readNumber();
+            } while (nextMember(']'));
+            return Arrays.copyOf(numbers, count);
+        }
+
+        void skipValue() throws IOException {
+            skipWhitespace();
+            int c = peek();
+            if (c == '"') {
+                readString();
+            } else if (c == '{' || c == '[') {
+                char close = c == '{' ? '}' : ']';
+                read();
+                skipWhitespace();
+                if (peek() == close) {
+                    read();
+                    return;
+                }
+                do {
+                    if (close == '}') {
+                        readString();
+                        expect(':');
+                    }
+                    skipValue();
+                } while (nextMember(close));
+            } else {
+                // number, true, false or null
+                while (peek() != -1 && peek() != ',' && peek() != '}' && peek() != ']'
+                        && !Character.isWhitespace(peek())) {
+                    read();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.cpuscheduler;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CfsPolicyTest {
+
+    // Once C is done, A and B get slices of 5 * 10^11 units that charge about 2^61 of virtual runtime each at
+    // nice 19; they must keep taking turns rather than one wrapping around past 2^63 to the front of the queue
+    @Test
+    void longRunsStayFair() {
+        long burst = 20_000_000_000_000L;
+        Workload workload = Workload.builder().add("A", 0, burst, 19).add("B", 0, burst, 19)
+            .add("C", 0, burst / 2, 0).build();
+        PolicyConfig policies = PolicyConfig.builder().cfsTargetLatency(1_000_000_000_000L)
+            .cfsMinGranularity(1_000_000_000L).build();
+        SimulationResult result = SchedulerSimulator.simulate(workload, Algorithm.CFS, 1, CoreConfig.SINGLE, policies);
+
+        ExecutionTrace trace = result.getTrace();
+        assertTrue(trace.size() > 40, trace.size() + " slices");
+        long[] ran = new long[3];
+        for (int i = 0; i < trace.size() && trace.endTime(i) <= result.completionTimes[2]; i++) {
+            ran[trace.process(i)] += trace.endTime(i) - trace.startTime(i);
+        }
+        // While all three run, C's weight of 1024 against 15 each gets it nearly all of the CPU
+        assertEquals(burst / 2, ran[2]);
+        assertTrue(ran[0] + ran[1] < burst / 20, ran[0] + " and " + ran[1] + " for A and B");
+        for (int i = 1; i < trace.size(); i++) {
+            if (trace.startTime(i) >= result.completionTimes[2] && trace.endTime(i) <= result.completionTimes[0]) {
+                assertNotEquals(trace.process(i - 1), trace.process(i), "slice " + i);
+            }
+        }
+        assertTrue(Math.abs(result.completionTimes[0] - result.completionTimes[1]) <= 2_000_000_000_000L);
+    }
+}
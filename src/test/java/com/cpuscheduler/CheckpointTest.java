@@ -0,0 +1,74 @@
+package com.cpuscheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointTest {
+
+    // Every algorithm, edited late in the workload so most reruns continue from a checkpoint of the last run
+    @Test
+    void resumedRunsMatchFreshRuns() {
+        Random random = new Random(20);
+        int resumed = 0;
+        for (int iteration = 0; iteration < 150; iteration++) {
+            SchedulerSimulator scheduler = new SchedulerSimulator();
+            int size = 50 + random.nextInt(400);
+            long time = 0;
+            for (int i = 0; i < size; i++) {
+                time += random.nextInt(6);
+                scheduler.addProcess(new Process(random.nextBoolean() ? null : "X" + i, time, 1 + random.nextInt(15),
+                    random.nextInt(40) - 20));
+            }
+            Algorithm algorithm = Algorithm.values()[iteration % Algorithm.values().length];
+            long quantum = 1 + random.nextInt(6);
+            for (int edit = 0; edit < 6; edit++) {
+                SimulationResult result = scheduler.run(algorithm, quantum);
+                if (result.resumePoint() != null) {
+                    resumed++;
+                }
+                String run = algorithm + " after " + edit + " edits in iteration " + iteration;
+                assertSameRun(SchedulerSimulator.simulate(scheduler.getWorkload(), algorithm, quantum), result, run);
+
+                Workload workload = scheduler.getWorkload();
+                int row = workload.size() / 2 + random.nextInt(workload.size() - workload.size() / 2);
+                switch (edit % 3) {
+                    case 0:
+                        scheduler.removeProcess(row);
+                        break;
+                    case 1:
+                        scheduler.replaceProcess(row, new Process(null, workload.arrivalTime(row) + random.nextInt(3),
+                            1 + random.nextInt(15), random.nextInt(40) - 20));
+                        break;
+                    default:
+                        scheduler.addProcess(new Process(null, workload.arrivalTime(row), 1 + random.nextInt(15), 0));
+                }
+            }
+        }
+        assertTrue(resumed > 300, resumed + " resumed runs");
+    }
+
+    private static void assertSameRun(SimulationResult expected, SimulationResult actual, String run) {
+        assertEquals(slices(expected), slices(actual), run + ": slices");
+        assertArrayEquals(expected.startTimes, actual.startTimes, run + ": start times");
+        assertArrayEquals(expected.completionTimes, actual.completionTimes, run + ": completion times");
+        assertEquals(expected.getMetrics(), actual.getMetrics(), run + ": metrics");
+        assertEquals(expected.getContextSwitches(), actual.getContextSwitches(), run + ": context switches");
+        LatencyStats latency = actual.getLatency();
+        assertEquals(expected.getLatency().getWaitingTimes().getMax(), latency.getWaitingTimes().getMax(), run);
+        assertEquals(expected.getLatency().getTurnaroundTimes().getMax(), latency.getTurnaroundTimes().getMax(), run);
+        assertEquals(expected.getLatency().getResponseTimes().getMax(), latency.getResponseTimes().getMax(), run);
+    }
+
+    private static List<String> slices(SimulationResult result) {
+        Workload workload = result.getWorkload();
+        ExecutionTrace trace = result.getTrace();
+        List<String> slices = new ArrayList<>();
+        for (int i = 0; i < trace.size(); i++) {
+            slices.add(workload.processId(trace.process(i)) + " " + trace.startTime(i) + "-" + trace.endTime(i));
+        }
+        return slices;
+    }
+}
@@ -0,0 +1,61 @@
+package com.cpuscheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionTraceTest {
+
+    // Round robin over more slices than a chunk holds, against a scan of the whole trace
+    @Test
+    void listsTheSlicesOfEachProcess() {
+        Random random = new Random(25);
+        Workload.Builder builder = Workload.builder();
+        for (int i = 0; i < 200; i++) {
+            builder.add(null, random.nextInt(500), 1 + random.nextInt(200));
+        }
+        Workload workload = builder.build();
+        ExecutionTrace trace = SchedulerSimulator.simulate(workload, Algorithm.ROUND_ROBIN, 2, CoreConfig.SINGLE,
+            PolicyConfig.DEFAULT).getTrace();
+        assertTrue(trace.size() > 8192);
+
+        for (int process = 0; process < workload.size(); process++) {
+            List<Integer> expected = new ArrayList<>();
+            for (int slice = 0; slice < trace.size(); slice++) {
+                if (trace.process(slice) == process) {
+                    expected.add(slice);
+                }
+            }
+            assertEquals(expected.size(), trace.sliceCountOf(process));
+            List<Long> visited = new ArrayList<>();
+            trace.forEachSliceOf(process, (p, start, end) -> visited.add(start));
+            for (int k = 0; k < expected.size(); k++) {
+                int slice = expected.get(k);
+                assertEquals(slice, trace.sliceOf(process, k));
+                assertEquals(k, trace.sliceRankOf(slice));
+                assertEquals(trace.startTime(slice), visited.get(k));
+            }
+        }
+        assertEquals(0, trace.sliceCountOf(workload.size()));
+    }
+
+    // The last slice may still be extended until the trace is complete, so the index leaves it out until then
+    @Test
+    void indexesOnlyPublishedSlices() {
+        ExecutionTrace trace = new ExecutionTrace();
+        trace.add(0, 0, 2);
+        trace.add(1, 2, 4);
+        trace.add(0, 4, 5);
+        trace.publish(false);
+        assertEquals(1, trace.sliceCountOf(0));
+        assertEquals(1, trace.sliceCountOf(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> trace.sliceRankOf(2));
+
+        trace.publish(true);
+        assertEquals(2, trace.sliceCountOf(0));
+        assertEquals(2, trace.sliceOf(0, 1));
+        assertEquals(1, trace.sliceRankOf(2));
+    }
+}
@@ -0,0 +1,79 @@
+package com.cpuscheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The event loop against runs recorded from the hand-written single-core and multi-core engines it replaced
+class GoldenTraceTest {
+
+    @Test
+    void matchesTheReplacedEngines() throws IOException {
+        int workloads = 0;
+        int runs = 0;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                GoldenTraceTest.class.getResourceAsStream("/golden-traces.txt"), StandardCharsets.UTF_8))) {
+            Workload workload = null;
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(" ");
+                if (fields[0].equals("workload")) {
+                    Workload.Builder builder = Workload.builder();
+                    for (int i = 1; i < fields.length; i++) {
+                        String[] process = fields[i].split(":");
+                        builder.add(process[0], Long.parseLong(process[1]), Long.parseLong(process[2]));
+                    }
+                    workload = builder.build();
+                    workloads++;
+                    continue;
+                }
+                Algorithm algorithm = Algorithm.fromName(fields[0]);
+                long quantum = Long.parseLong(fields[1]);
+                CoreConfig cores = cores(fields[2]);
+                String run = fields[0] + " " + fields[1] + " " + fields[2] + " on workload " + workloads;
+                SimulationResult result = SchedulerSimulator.simulate(workload, algorithm, quantum, cores,
+                    PolicyConfig.DEFAULT);
+
+                int separator = Arrays.asList(fields).indexOf("|");
+                assertEquals(Arrays.asList(fields).subList(3, separator), slices(result), run + ": slices");
+                assertEquals(Double.parseDouble(fields[separator + 1]), result.getAverageWaitingTime(), 1e-9,
+                    run + ": average waiting time");
+                assertEquals(Double.parseDouble(fields[separator + 2]), result.getAverageTurnaroundTime(), 1e-9,
+                    run + ": average turnaround time");
+                runs++;
+            }
+        }
+        assertEquals(24, workloads);
+        assertEquals(24 * 15, runs);
+    }
+
+    // "1" for one core, else the core count followed by g for a shared queue or p for per-core queues
+    private static CoreConfig cores(String spec) {
+        if (spec.equals("1")) {
+            return CoreConfig.SINGLE;
+        }
+        int cores = Integer.parseInt(spec.substring(0, spec.length() - 1));
+        return new CoreConfig(cores, spec.endsWith("p") ? CoreConfig.QueueMode.PER_CORE : CoreConfig.QueueMode.GLOBAL,
+            0);
+    }
+
+    private static List<String> slices(SimulationResult result) {
+        Workload workload = result.getWorkload();
+        List<String> slices = new ArrayList<>();
+        ExecutionTrace[] traces = result.getTraces();
+        for (int core = 0; core < traces.length; core++) {
+            for (int i = 0; i < traces[core].size(); i++) {
+                slices.add(core + "/" + workload.processId(traces[core].process(i)) + ":"
+                    + traces[core].startTime(i) + "-" + traces[core].endTime(i));
+            }
+        }
+        return slices;
+    }
+}
@@ -0,0 +1,99 @@
+package com.cpuscheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiCoreTest {
+
+    // Every algorithm in both queue modes: each core runs one slice at a time, each process runs on one
+    // core at a time, after its arrival and for exactly its burst time
+    @Test
+    void slicesFormAValidSchedule() {
+        Random random = new Random(14);
+        for (int iteration = 0; iteration < 150; iteration++) {
+            Workload workload = randomWorkload(random, 1 + random.nextInt(40));
+            long quantum = 1 + random.nextInt(6);
+            for (int cores : new int[] {2, 3, 8}) {
+                for (CoreConfig.QueueMode mode : CoreConfig.QueueMode.values()) {
+                    CoreConfig config = new CoreConfig(cores, mode, random.nextInt(3));
+                    for (Algorithm algorithm : Algorithm.values()) {
+                        SimulationResult result = SchedulerSimulator.simulate(workload, algorithm, quantum, config,
+                            PolicyConfig.DEFAULT);
+                        checkSchedule(result, algorithm + " on " + config);
+                    }
+                }
+            }
+        }
+    }
+
+    // With one shared queue, FCFS is list scheduling: each process in arrival order starts on the core
+    // that frees up first
+    @Test
+    void globalFcfsMatchesListScheduling() {
+        Random random = new Random(41);
+        for (int iteration = 0; iteration < 500; iteration++) {
+            Workload workload = randomWorkload(random, 1 + random.nextInt(60));
+            int cores = 1 + random.nextInt(8);
+            SimulationResult result = SchedulerSimulator.simulate(workload, Algorithm.FCFS, 1,
+                new CoreConfig(cores, CoreConfig.QueueMode.GLOBAL, 0), PolicyConfig.DEFAULT);
+            long[] free = new long[cores];
+            for (int i = 0; i < workload.size(); i++) {
+                int core = 0;
+                for (int c = 1; c < cores; c++) {
+                    if (free[c] < free[core]) {
+                        core = c;
+                    }
+                }
+                free[core] = Math.max(free[core], workload.arrivalTime(i)) + workload.burstTime(i);
+                assertEquals(free[core], result.completionTimes[i], "completion of " + workload.processId(i)
+                    + " on " + cores + " cores");
+            }
+        }
+    }
+
+    private static void checkSchedule(SimulationResult result, String run) {
+        Workload workload = result.getWorkload();
+        int n = workload.size();
+        long[] ran = new long[n];
+        long[] lastEnd = new long[n];
+        List<long[]> slices = new ArrayList<>();
+        for (ExecutionTrace trace : result.getTraces()) {
+            long coreEnd = 0;
+            for (int i = 0; i < trace.size(); i++) {
+                int process = trace.process(i);
+                long start = trace.startTime(i);
+                long end = trace.endTime(i);
+                assertTrue(start < end, run + ": empty slice");
+                assertTrue(start >= coreEnd, run + ": overlapping slices on one core");
+                assertTrue(start >= workload.arrivalTime(process), run + ": slice before arrival");
+                coreEnd = end;
+                ran[process] += end - start;
+                lastEnd[process] = Math.max(lastEnd[process], end);
+                slices.add(new long[] {process, start, end});
+            }
+        }
+        for (int p = 0; p < n; p++) {
+            assertEquals(workload.burstTime(p), ran[p], run + ": run time of " + workload.processId(p));
+            assertEquals(lastEnd[p], result.completionTimes[p], run + ": completion of " + workload.processId(p));
+        }
+        slices.sort(Comparator.<long[]>comparingLong(slice -> slice[0]).thenComparingLong(slice -> slice[1]));
+        for (int i = 1; i < slices.size(); i++) {
+            if (slices.get(i)[0] == slices.get(i - 1)[0]) {
+                assertTrue(slices.get(i)[1] >= slices.get(i - 1)[2], run + ": process on two cores at once");
+            }
+        }
+    }
+
+    private static Workload randomWorkload(Random random, int size) {
+        Workload.Builder builder = Workload.builder();
+        long time = 0;
+        for (int i = 0; i < size; i++) {
+            time += random.nextInt(6);
+            builder.add("P" + i, time, 1 + random.nextInt(15), random.nextInt(40) - 20);
+        }
+        return builder.build();
+    }
+}
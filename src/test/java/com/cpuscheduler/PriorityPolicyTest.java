@@ -0,0 +1,132 @@
+package com.cpuscheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriorityPolicyTest {
+
+    @Test
+    void matchesUnitStepReference() {
+        Random random = new Random(18);
+        for (int iteration = 0; iteration < 2000; iteration++) {
+            int size = 1 + random.nextInt(12);
+            Workload.Builder builder = Workload.builder();
+            long time = 0;
+            for (int i = 0; i < size; i++) {
+                time += random.nextInt(6);
+                int nice = random.nextInt(3) == 0 ? random.nextInt(40) - 20 : random.nextInt(5);
+                builder.add("P" + i, time, 1 + random.nextInt(15), nice);
+            }
+            Workload workload = builder.build();
+            long interval = new long[] {0, 1, 2, 3, 5, 10}[random.nextInt(6)];
+            for (boolean preemptive : new boolean[] {false, true}) {
+                SimulationResult result = run(workload, preemptive, interval);
+                assertArrayEquals(reference(workload, interval, preemptive), result.completionTimes,
+                    (preemptive ? "preemptive" : "non-preemptive") + " with aging interval " + interval
+                        + " on " + workload.asProcessList());
+            }
+        }
+    }
+
+    // B gains a level every 10 units and first precedes A once it is strictly ahead, at level -1 after 60:
+    // aging alone preempts A, whether or not an unrelated arrival makes the loop look at the queue
+    @Test
+    void agingPreemptsWithoutAnArrival() {
+        for (boolean withUnrelated : new boolean[] {false, true}) {
+            Workload.Builder builder = Workload.builder().add("A", 0, 1000, 0).add("B", 1, 10, 5);
+            if (withUnrelated) {
+                builder.add("C", 500, 1, 19);
+            }
+            SimulationResult result = run(builder.build(), true, 10);
+            ExecutionTrace trace = result.getTrace();
+            assertEquals(0, trace.process(0));
+            assertEquals(61, trace.endTime(0));
+            assertEquals(1, trace.process(1));
+            assertEquals(71, result.completionTimes[1]);
+        }
+    }
+
+    // Equal nice values never overtake a running process, so both variants schedule alike
+    @Test
+    void equalPrioritiesDoNotPreempt() {
+        Workload workload = Workload.builder().add("A", 0, 5, 0).add("B", 0, 5, 0).add("C", 1, 2, 0).build();
+        SimulationResult plain = run(workload, false, 10);
+        SimulationResult preemptive = run(workload, true, 10);
+        assertArrayEquals(new long[] {5, 10, 12}, preemptive.completionTimes);
+        assertArrayEquals(plain.completionTimes, preemptive.completionTimes);
+        assertEquals(14.0 / 3, preemptive.getAverageWaitingTime(), 1e-9);
+    }
+
+    private static SimulationResult run(Workload workload, boolean preemptive, long interval) {
+        return SchedulerSimulator.simulate(workload, preemptive ? Algorithm.PRIORITY_PREEMPTIVE : Algorithm.PRIORITY,
+            1, CoreConfig.SINGLE, PolicyConfig.builder().agingInterval(interval).build());
+    }
+
+    // Completion times from stepping one time unit at a time: every waiting process's level is recomputed
+    // from its queue time at each step, and a running one is displaced by a strictly lower level
+    private static long[] reference(Workload workload, long interval, boolean preemptive) {
+        int size = workload.size();
+        long[] completion = new long[size];
+        long[] remaining = new long[size];
+        int[] level = new int[size];
+        long[] queuedAt = new long[size];
+        long[] order = new long[size];
+        List<Integer> waiting = new ArrayList<>();
+        long enqueued = 0;
+        int running = -1;
+        int next = 0;
+        int done = 0;
+        for (long time = 0; done < size; time++) {
+            while (next < size && workload.arrivalTime(next) <= time) {
+                remaining[next] = workload.burstTime(next);
+                level[next] = workload.nice(next);
+                queuedAt[next] = time;
+                order[next] = enqueued++;
+                waiting.add(next++);
+            }
+            int best = best(waiting, level, queuedAt, order, time, interval);
+            if (running != -1 && preemptive && best != -1
+                    && aged(level[best], queuedAt[best], time, interval) < level[running]) {
+                queuedAt[running] = time;
+                order[running] = enqueued++;
+                waiting.add(running);
+                running = -1;
+                best = best(waiting, level, queuedAt, order, time, interval);
+            }
+            if (running == -1 && best != -1) {
+                waiting.remove((Integer) best);
+                // A dispatched process keeps the level it aged to
+                level[best] = aged(level[best], queuedAt[best], time, interval);
+                running = best;
+            }
+            if (running != -1 && --remaining[running] == 0) {
+                completion[running] = time + 1;
+                done++;
+                running = -1;
+            }
+        }
+        return completion;
+    }
+
+    // Lowest aged level, earliest queued among equals; -1 if none waits
+    private static int best(List<Integer> waiting, int[] level, long[] queuedAt, long[] order, long time,
+                            long interval) {
+        int best = -1;
+        int bestLevel = 0;
+        for (int process : waiting) {
+            int aged = aged(level[process], queuedAt[process], time, interval);
+            if (best == -1 || aged < bestLevel || aged == bestLevel && order[process] < order[best]) {
+                best = process;
+                bestLevel = aged;
+            }
+        }
+        return best;
+    }
+
+    private static int aged(int level, long queuedAt, long time, long interval) {
+        return interval == 0 ? level : (int) Math.max(Workload.MIN_NICE, level - (time - queuedAt) / interval);
+    }
+}
@@ -0,0 +1,35 @@
+package com.cpuscheduler;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTest {
+
+    // "Aa" and "BB" have the same hashCode; a renamed process must not bring back the old name
+    @Test
+    void idsWithEqualHashCodesAreDifferentWorkloads() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        Workload before = Workload.builder().add("Aa", 0, 5).add("C", 1, 3).build();
+        Workload after = Workload.builder().add("BB", 0, 5).add("C", 1, 3).build();
+        assertNotEquals(before.fingerprint(), after.fingerprint());
+
+        SchedulerSimulator scheduler = new SchedulerSimulator();
+        scheduler.setResultCache(new ResultCache(1 << 20));
+        scheduler.addProcess(new Process("Aa", 0, 5));
+        scheduler.addProcess(new Process("C", 1, 3));
+        assertEquals("Aa", scheduler.runFCFS().get(0).getProcessId());
+        scheduler.replaceProcess(0, new Process("BB", 0, 5));
+        assertEquals("BB", scheduler.runFCFS().get(0).getProcessId());
+        assertEquals("BB", scheduler.getProcesses().get(0).getProcessId());
+        assertEquals(0, scheduler.getResultCache().getHits());
+    }
+
+    @Test
+    void equalWorkloadsShareAFingerprint() {
+        Workload built = Workload.builder().add("B", 2, 4, 3).add("A", 0, 5).build();
+        Workload reordered = Workload.builder().add("A", 0, 5).add("B", 2, 4, 3).build();
+        assertEquals(built.fingerprint(), reordered.fingerprint());
+        assertNotEquals(built.fingerprint(), Workload.builder().add("A", 0, 5).add("B", 2, 4, 2).build().fingerprint());
+    }
+}
@@ -0,0 +1,104 @@
+package com.cpuscheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingSimulatorTest {
+
+    // Windows of a few slots compact and restart many times per run; the output must not show it
+    @Test
+    void matchesTheEventLoopForEveryAlgorithm() throws IOException {
+        Random random = new Random(15);
+        int[] slotCounts = {1, 2, 3, 5, 8, 64, 4096};
+        for (int iteration = 0; iteration < 120; iteration++) {
+            int size = 1 + random.nextInt(iteration < 100 ? 60 : 2000);
+            Workload workload = randomWorkload(random, size);
+            long quantum = 1 + random.nextInt(6);
+            PolicyConfig policies = PolicyConfig.builder().agingInterval(random.nextInt(3) * 5).build();
+            for (Algorithm algorithm : Algorithm.values()) {
+                int slots = slotCounts[random.nextInt(slotCounts.length)];
+                String run = algorithm + " over " + size + " processes from " + slots + " slots";
+                SimulationResult expected = SchedulerSimulator.simulate(workload, algorithm, quantum,
+                    CoreConfig.SINGLE, policies);
+                List<String> slices = new ArrayList<>();
+                List<String> completions = new ArrayList<>();
+                StreamingSimulator.Summary summary = StreamingSimulator.run(ProcessStream.of(workload), algorithm,
+                    quantum, policies, new SimulationSink() {
+                        @Override
+                        public void onSlice(long sequence, String processId, long startTime, long endTime) {
+                            slices.add(sequence + " " + processId + " " + startTime + "-" + endTime);
+                        }
+
+                        @Override
+                        public void onCompletion(long sequence, String processId, long arrivalTime, long burstTime,
+                                                 long startTime, long completionTime) {
+                            completions.add(sequence + " " + processId + " " + arrivalTime + " " + burstTime + " "
+                                + startTime + " " + completionTime);
+                        }
+                    }, slots);
+
+                assertEquals(slices(expected), slices, run + ": slices");
+                Collections.sort(completions);
+                assertEquals(completions(expected), completions, run + ": completions");
+                assertEquals(size, summary.getProcessCount(), run);
+                assertEquals(expected.getTotalTime(), summary.getTotalTime(), run + ": total time");
+                assertEquals(expected.getContextSwitches(), summary.getContextSwitches(), run + ": context switches");
+                assertEquals(expected.getAverageWaitingTime(), summary.getAverageWaitingTime(), 1e-9, run);
+                assertEquals(expected.getAverageTurnaroundTime(), summary.getAverageTurnaroundTime(), 1e-9, run);
+                assertEquals(expected.getLatency().getWaitingTimes().getMax(),
+                    summary.getLatency().getWaitingTimes().getMax(), run + ": longest wait");
+            }
+        }
+    }
+
+    @Test
+    void rejectsUnsortedArrivals() {
+        Iterator<Process> processes = List.of(new Process("A", 5, 3), new Process("B", 2, 3)).iterator();
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> StreamingSimulator.run(ProcessStream.of(processes), Algorithm.FCFS, 1, SimulationSink.NONE));
+        assertTrue(e.getMessage().startsWith("Process stream is not sorted by arrival time at process 2"),
+            e.getMessage());
+    }
+
+    private static List<String> slices(SimulationResult result) {
+        Workload workload = result.getWorkload();
+        ExecutionTrace trace = result.getTrace();
+        List<String> slices = new ArrayList<>();
+        for (int i = 0; i < trace.size(); i++) {
+            int process = trace.process(i);
+            slices.add(process + " " + workload.processId(process) + " " + trace.startTime(i) + "-"
+                + trace.endTime(i));
+        }
+        return slices;
+    }
+
+    private static List<String> completions(SimulationResult result) {
+        Workload workload = result.getWorkload();
+        List<String> completions = new ArrayList<>();
+        for (int p = 0; p < workload.size(); p++) {
+            completions.add(p + " " + workload.processId(p) + " " + workload.arrivalTime(p) + " "
+                + workload.burstTime(p) + " " + result.startTimes[p] + " " + result.completionTimes[p]);
+        }
+        Collections.sort(completions);
+        return completions;
+    }
+
+    // Clumps of equal arrivals, generated and given ids, and bursts from short to long
+    private static Workload randomWorkload(Random random, int size) {
+        Workload.Builder builder = Workload.builder();
+        int spread = 1 + random.nextInt(20);
+        long time = 0;
+        for (int i = 0; i < size; i++) {
+            if (random.nextInt(3) != 0) {
+                time += random.nextInt(spread);
+            }
+            builder.add(random.nextBoolean() ? null : "X" + i, time, 1 + random.nextInt(1 + random.nextInt(40)),
+                random.nextInt(40) - 20);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.cpuscheduler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceFileTest {
+
+    @TempDir
+    Path directory;
+
+    // A finished multi-core run with I/O lanes, whose cores run more slices than one block holds, and a streamed run
+    @Test
+    void roundTripsRuns() throws IOException {
+        Workload.Builder builder = Workload.builder();
+        for (int i = 0; i < 6; i++) {
+            builder.add("P" + i, i, 25_000);
+        }
+        builder.add("IO", 3, BurstSequence.parse("5;3@1;4;2@2;6"), 0);
+        Workload workload = builder.build();
+        SimulationResult multiCore = SchedulerSimulator.simulate(workload, Algorithm.ROUND_ROBIN, 1,
+            new CoreConfig(2, CoreConfig.QueueMode.GLOBAL, 0), PolicyConfig.DEFAULT);
+        assertTrue(multiCore.getTraces()[0].size() > BinaryFiles.BLOCK_ROWS);
+        assertEquals(2, multiCore.getDevices());
+        Workload small = Workload.builder().add("A", 0, 5).add("B", 1, 3).add("C", 9, 2).build();
+        SimulationResult streamed = SchedulerSimulator.simulate(small, Algorithm.FCFS, 0, CoreConfig.SINGLE,
+            PolicyConfig.DEFAULT);
+
+        Path path = directory.resolve("runs.trace");
+        try (TraceFile.Writer writer = TraceFile.writer(path)) {
+            writer.write("rr", multiCore);
+            int run = writer.startRun("fcfs é", 1, 0);
+            StreamingSimulator.run(ProcessStream.of(small), Algorithm.FCFS, 0, writer.sink(run));
+        }
+
+        TraceFile file = TraceFile.open(path);
+        assertEquals(2, file.runCount());
+        TraceFile.Run rr = file.run(0);
+        assertEquals("rr", rr.getName());
+        assertEquals(2, rr.getCores());
+        assertEquals(2, rr.getDevices());
+        assertSameSlices(multiCore.getTraces(), rr.getTraces());
+        assertSameSlices(multiCore.getIoTraces(), rr.getIoTraces());
+        TraceFile.Run fcfs = file.run(1);
+        assertEquals("fcfs é", fcfs.getName());
+        assertEquals(0, fcfs.getDevices());
+        assertSameSlices(streamed.getTraces(), fcfs.getTraces());
+    }
+
+    private static void assertSameSlices(ExecutionTrace[] expected, TraceView[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int lane = 0; lane < expected.length; lane++) {
+            assertEquals(expected[lane].size(), actual[lane].publishedSize(), "lane " + lane);
+            for (int slice = 0; slice < expected[lane].size(); slice++) {
+                String at = "lane " + lane + " slice " + slice;
+                assertEquals(expected[lane].process(slice), actual[lane].process(slice), at);
+                assertEquals(expected[lane].startTime(slice), actual[lane].startTime(slice), at);
+                assertEquals(expected[lane].endTime(slice), actual[lane].endTime(slice), at);
+            }
+        }
+    }
+}
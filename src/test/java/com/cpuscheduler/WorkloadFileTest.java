@@ -0,0 +1,72 @@
+package com.cpuscheduler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadFileTest {
+    // First row's arrival and burst in the two-row file rejectsCorruptColumns patches; a block's columns
+    // hold as many rows as the block
+    private static final long FIRST_ARRIVAL = BinaryFiles.HEADER_BYTES + 8;
+    private static final long FIRST_BURST = FIRST_ARRIVAL + 8 * 2;
+
+    @TempDir
+    Path directory;
+
+    // More rows than one block holds, with given and generated ids
+    @Test
+    void roundTripsAcrossBlocks() throws IOException {
+        Random random = new Random(24);
+        Workload.Builder builder = Workload.builder();
+        long time = 0;
+        for (int i = 0; i < BinaryFiles.BLOCK_ROWS + 100; i++) {
+            time += random.nextInt(3);
+            builder.add(random.nextBoolean() ? null : "id-" + i + "é", time, 1 + random.nextInt(50),
+                random.nextInt(40) - 20);
+        }
+        Workload workload = builder.build();
+        Path path = directory.resolve("workload.bin");
+        WorkloadFile.write(workload, path);
+
+        WorkloadFile file = WorkloadFile.open(path);
+        assertEquals(workload.size(), file.size());
+        Workload read = file.toWorkload();
+        assertEquals(workload.fingerprint(), read.fingerprint());
+        ProcessStream stream = file.stream();
+        for (int i = 0; i < workload.size(); i++) {
+            assertTrue(stream.advance());
+            assertEquals(workload.processId(i), read.processId(i));
+            assertEquals(workload.arrivalTime(i), stream.arrivalTime());
+            assertEquals(workload.burstTime(i), stream.burstTime());
+            assertEquals(workload.nice(i), stream.nice());
+        }
+        assertFalse(stream.advance());
+    }
+
+    @Test
+    void rejectsCorruptColumns() throws IOException {
+        assertCorrupt(FIRST_ARRIVAL, 1_000_000, "arrivals not sorted at process 2");
+        assertCorrupt(FIRST_ARRIVAL, -1, "negative arrival time at process 1");
+        assertCorrupt(FIRST_BURST, 0, "non-positive burst time at process 1");
+    }
+
+    private void assertCorrupt(long offset, long value, String problem) throws IOException {
+        Path path = directory.resolve("corrupt.bin");
+        WorkloadFile.write(Workload.builder().add("A", 0, 5).add("B", 9, 3).build(), path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            ByteBuffer patch = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(0, value);
+            channel.write(patch, offset);
+        }
+        IOException e = assertThrows(IOException.class, () -> WorkloadFile.open(path).toWorkload());
+        assertEquals("Corrupt binary workload: " + problem, e.getMessage());
+    }
+}